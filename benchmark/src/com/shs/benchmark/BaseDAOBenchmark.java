@@ -0,0 +1,223 @@
+package com.shs.benchmark;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shs.framework.dao.BaseDAO;
+import com.shs.framework.dao.ConnectionManager;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: BaseDAO热点路径基准测试，使用H2内存数据库的Oracle、MySQL、MSSQLServer兼容模式，
+ * 	同时输出吞吐量以及延迟分布，分配速率使用 -prof gc 查看
+ * @date created: Oct 18, 2026 3:02:44 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BaseDAOBenchmark {
+	/**
+	 * H2兼容模式
+	 */
+	@Param({"MySQL", "Oracle", "MSSQLServer"})
+	public String mode;
+	/**
+	 * 查询、批量插入的行数
+	 */
+	@Param({"100"})
+	public int rows;
+	private static final int TABLE_ROWS = 10000;
+	private Object[] inListValues;
+	private JSONArray jaModels;
+	private JSONArray jaBatchValues;
+	private JSONObject joModel;
+	private long nextId;
+
+	@Setup(Level.Trial)
+	public void setupTrial() {
+		ConnectionManager.shutdownPool();
+		ConnectionManager.DRIVER = "org.h2.Driver";
+		ConnectionManager.URL = "jdbc:h2:mem:bench_" + mode + ";MODE=" + mode +
+				";CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+		ConnectionManager.USER_NAME = "sa";
+		ConnectionManager.PASSWORD = "";
+		ConnectionManager.setDialect(dialect(mode));
+		BaseDAO.DEFAULT_CHAR_LOWER_CASE = true;
+		// H2不支持Oracle INSERT ALL，Oracle模式下批量插入使用单行语句
+		BaseDAO.SQL_INSERT_ROWS = "Oracle".equals(mode) ? 1 : 100;
+		ConnectionManager.initPool();
+
+		BaseDAO.execute("drop table if exists bench_users");
+		BaseDAO.execute("create table bench_users (" +
+				"id bigint primary key, " +
+				"name varchar(64), " +
+				"gender char(1), " +
+				"age int, " +
+				"score decimal(10, 2))");
+		BaseDAO.execute("drop table if exists bench_insert");
+		BaseDAO.execute("create table bench_insert (" +
+				"id bigint primary key, " +
+				"name varchar(64), " +
+				"gender char(1), " +
+				"age int, " +
+				"score decimal(10, 2))");
+		JSONArray jaSeed = new JSONArray();
+		for (int i = 0; i < TABLE_ROWS; ++i) {
+			jaSeed.put(newModel(i));
+		}
+		BaseDAO.insert("bench_users", jaSeed);
+
+		inListValues = new Object[rows];
+		for (int i = 0; i < rows; ++i) {
+			inListValues[i] = (long) i * 7;
+		}
+	}
+	@Setup(Level.Iteration)
+	public void setupIteration() {
+		BaseDAO.execute("delete from bench_insert");
+		nextId = 0;
+	}
+	@Setup(Level.Invocation)
+	public void setupInvocation() {
+		joModel = newModel(nextId++);
+		jaModels = new JSONArray();
+		jaBatchValues = new JSONArray();
+		for (int i = 0; i < rows; ++i) {
+			long id = nextId++;
+			jaModels.put(newModel(id));
+			jaBatchValues.put(new JSONArray()
+					.put(id)
+					.put("batch " + id)
+					.put(id % 2 == 0 ? "M" : "F")
+					.put((int) (id % 80)));
+		}
+	}
+	@TearDown(Level.Trial)
+	public void tearDownTrial() {
+		ConnectionManager.shutdownPool();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> findMapList() {
+		return BaseDAO.findMapList(
+			"select id, name, gender, age, score from bench_users where id >= ? and id < ?",
+			1000L, 1000L + rows);
+	}
+	@Benchmark
+	public JSONArray findJSONArrayPage() {
+		return BaseDAO.findJSONArrayPage("id", "asc", 5000, rows,
+			"select id, name, gender, age, score from bench_users where age > ?", 10);
+	}
+	@Benchmark
+	public boolean insertJSONObject() {
+		return BaseDAO.insert("bench_insert", joModel);
+	}
+	@Benchmark
+	public Map<String, Integer> insertJSONArray() {
+		return BaseDAO.insert("bench_insert", jaModels);
+	}
+	@Benchmark
+	public void executeBatch() {
+		BaseDAO.executeBatch("insert into bench_insert (id, name, gender, age) values (?, ?, ?, ?)",
+			jaBatchValues);
+	}
+	/**
+	 * prepareStatement/buildSQL，IN列表展开，不执行
+	 * @return
+	 */
+	@Benchmark
+	public int prepareStatementInList() {
+		return BaseDAO.execute(new BaseDAO.ConnectionOperator() {
+			@Override
+			protected void run() throws Exception {
+				PreparedStatement ps = BaseDAO.prepareStatement(dbConnection,
+					"select id, name from bench_users where gender = ? and id in (?) and age > ?",
+					"M", inListValues, 18);
+				try {
+					result = ps.getParameterMetaData().getParameterCount();
+				} finally {
+					BaseDAO.close(ps);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 单独测试结果集行映射，ResultSet在整个迭代中保持打开
+	 */
+	@State(Scope.Thread)
+	public static class ResultSetState {
+		Connection dbConnection;
+		PreparedStatement ps;
+		ResultSet rs;
+		@Setup(Level.Iteration)
+		public void open(BaseDAOBenchmark bench) throws Exception {
+			dbConnection = ConnectionManager.getConnection();
+			ps = dbConnection.prepareStatement(
+				"select id, name, gender, age, score from bench_users",
+				ResultSet.TYPE_SCROLL_INSENSITIVE,
+				ResultSet.CONCUR_READ_ONLY);
+			rs = ps.executeQuery();
+		}
+		@TearDown(Level.Iteration)
+		public void close() {
+			BaseDAO.close(dbConnection, ps, rs);
+		}
+	}
+	@Benchmark
+	public Map<String, Object> getMap(ResultSetState state) throws Exception {
+		if (!state.rs.next()) {
+			state.rs.beforeFirst();
+			state.rs.next();
+		}
+		return BaseDAO.getMap(state.rs, true);
+	}
+
+	private static JSONObject newModel(long id) {
+		try {
+			return new JSONObject()
+				.put("id", id)
+				.put("name", "user " + id)
+				.put("gender", id % 2 == 0 ? "M" : "F")
+				.put("age", (int) (id % 80))
+				.put("score", new java.math.BigDecimal(id % 1000).movePointLeft(1));
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	private static String dialect(String mode) {
+		if ("Oracle".equals(mode)) {
+			return "oracle";
+		} else if ("MSSQLServer".equals(mode)) {
+			return "sqlserver";
+		}
+		return "mysql";
+	}
+}
@@ -0,0 +1,388 @@
+package com.shs.framework.dao;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.shs.framework.dao.BaseDAO.ConnectionOperator;
+import com.shs.framework.dao.BaseDAO.ReadOperator;
+import com.shs.framework.dao.BaseDAO.RowOperator;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 异步数据库访问，方法与BaseDAO对应，返回CompletableFuture，
+ * 	每个操作在执行器中通过BaseDAO.execute/executeTransaction执行，连接、语句在操作结束时关闭，
+ * 	并发数不超过MAX_CONCURRENCY（默认连接池最大连接数），超出的操作排队等待。
+ * 	默认执行器：支持虚拟线程（Java 21+）时每个操作一个虚拟线程，否则为固定大小的线程池。
+ * 	操作开始前取消不再执行，开始后取消不中断执行。
+ * 	读写分离时异步操作沿用调用线程的读己之写窗口，异步写入同样标记调用线程
+ * @date created: Oct 18, 2026 6:48:20 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class AsyncDAO {
+	private static Logger logger = Logger.getLogger(AsyncDAO.class);
+	/**
+	 * 执行器，为空使用默认执行器
+	 */
+	public static Executor EXECUTOR = null;
+	/**
+	 * 最大并发操作数，小于1时使用ConnectionManager.POOL_MAX_SIZE
+	 */
+	public static int MAX_CONCURRENCY = 0;
+	private static volatile ExecutorService defaultExecutor;
+	private static volatile Semaphore permits;
+
+	/**
+	 * 异步执行Connection操作
+	 * @param co
+	 * @return
+	 */
+	public static <T> CompletableFuture<T> execute(final ConnectionOperator co) {
+		return submit(co, false);
+	}
+	/**
+	 * 异步执行事务
+	 * @param co
+	 * @return
+	 */
+	public static <T> CompletableFuture<T> executeTransaction(final ConnectionOperator co) {
+		return submit(co, true);
+	}
+	private static <T> CompletableFuture<T> submit(final ConnectionOperator co,
+			final boolean transaction) {
+		final CompletableFuture<T> future = new CompletableFuture<T>();
+		// 调用线程的写入时钟，工作线程中沿用调用线程的读己之写窗口
+		final AtomicLong writeClock = ConnectionManager.getWriteClock();
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				if (future.isDone()) { // 开始前已取消
+					return;
+				}
+				Semaphore sem = getPermits();
+				try {
+					sem.acquire();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					future.completeExceptionally(e);
+					return;
+				}
+				AtomicLong previous = ConnectionManager.setWriteClock(writeClock);
+				try {
+					T result = transaction ?
+						BaseDAO.<T>executeTransaction(co) : BaseDAO.<T>execute(co);
+					future.complete(result);
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				} finally {
+					ConnectionManager.setWriteClock(previous);
+					sem.release();
+				}
+			}
+		};
+		try {
+			getExecutor().execute(task);
+		} catch (RuntimeException e) { // RejectedExecutionException
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+	public static Executor getExecutor() {
+		Executor executor = EXECUTOR;
+		if (executor != null) {
+			return executor;
+		}
+		if (defaultExecutor == null) {
+			synchronized (AsyncDAO.class) {
+				if (defaultExecutor == null) {
+					defaultExecutor = newDefaultExecutor();
+				}
+			}
+		}
+		return defaultExecutor;
+	}
+	/**
+	 * 虚拟线程执行器，不支持时使用固定大小的守护线程池
+	 */
+	private static ExecutorService newDefaultExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			ExecutorService executor = (ExecutorService) method.invoke(null);
+			logger.info("Async DAO Use Virtual Threads");
+			return executor;
+		} catch (Exception e) {
+			int size = getMaxConcurrency();
+			logger.info("Virtual Threads Not Available, Async DAO Use Fixed Thread Pool [" + size + "]");
+			final AtomicInteger seq = new AtomicInteger();
+			return Executors.newFixedThreadPool(size, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "BaseDAO-Async-" + seq.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+	}
+	static int getMaxConcurrency() {
+		return MAX_CONCURRENCY > 0 ? MAX_CONCURRENCY : Math.max(1, ConnectionManager.POOL_MAX_SIZE);
+	}
+	private static Semaphore getPermits() {
+		if (permits == null) {
+			synchronized (AsyncDAO.class) {
+				if (permits == null) {
+					permits = new Semaphore(getMaxConcurrency(), true);
+				}
+			}
+		}
+		return permits;
+	}
+	/**
+	 * 关闭默认执行器，修改MAX_CONCURRENCY后重新生效，已提交的操作继续执行
+	 */
+	public static synchronized void shutdown() {
+		if (defaultExecutor != null) {
+			defaultExecutor.shutdown();
+			defaultExecutor = null;
+		}
+		permits = null;
+	}
+
+	public static <T> CompletableFuture<T> findObj(final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findObj(strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<String> findStr(final String strSQL, final Object ... values) {
+		return findObj(strSQL, values);
+	}
+	public static CompletableFuture<Map<String, Object>> findMap(final boolean lowerCase,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findMap(lowerCase, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<Map<String, Object>> findMap(final String strSQL, final Object ... values) {
+		return findMap(BaseDAO.DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	public static CompletableFuture<JSONObject> findJSONObject(final boolean lowerCase,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findJSONObject(lowerCase, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<JSONObject> findJSONObject(final String strSQL, final Object ... values) {
+		return findJSONObject(BaseDAO.DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	public static CompletableFuture<List<Map<String, Object>>> findMapList(final boolean lowerCase,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findMapList(lowerCase, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<List<Map<String, Object>>> findMapList(final String strSQL,
+			final Object ... values) {
+		return findMapList(BaseDAO.DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	public static CompletableFuture<RowList> findRowList(final boolean lowerCase,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findRowList(lowerCase, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<RowList> findRowList(final String strSQL, final Object ... values) {
+		return findRowList(BaseDAO.DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	public static <T> CompletableFuture<List<T>> findList(final Class<T> type,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findList(type, strSQL, values);
+			}
+		});
+	}
+	public static <T> CompletableFuture<T> findOne(final Class<T> type,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findOne(type, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<JSONArray> findJSONArray(final boolean lowerCase,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findJSONArray(lowerCase, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<JSONArray> findJSONArray(final String strSQL, final Object ... values) {
+		return findJSONArray(BaseDAO.DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	public static CompletableFuture<List<Map<String, Object>>> findMapListPage(
+			final String orderCol, final String direction, final int start, final int limit,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findMapListPage(orderCol, direction, start, limit, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<JSONArray> findJSONArrayPage(
+			final String orderCol, final String direction, final int start, final int limit,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findJSONArrayPage(orderCol, direction, start, limit, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<KeysetPage> findKeysetPage(final String orderBy,
+			final String token, final int limit, final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = findKeysetPage(orderBy, token, limit, strSQL, values);
+			}
+		});
+	}
+	/**
+	 * 异步逐行查询，RowOperator在执行线程中调用
+	 * @param ro
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
+	public static <T> CompletableFuture<T> query(final RowOperator ro,
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			protected void run() {
+				result = query(ro, strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<Integer> update(final String strSQL, final Object ... values) {
+		return execute(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = update(strSQL, values);
+			}
+		});
+	}
+	public static CompletableFuture<Integer> update(final String table,
+			final JSONObject joModel, final JSONObject where) {
+		return execute(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = update(table, joModel, where);
+			}
+		});
+	}
+	public static CompletableFuture<Boolean> insert(final String table, final JSONObject joModel) {
+		return execute(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = insert(table, joModel);
+			}
+		});
+	}
+	/**
+	 * 异步批量插入，在事务中执行
+	 * @param table
+	 * @param jaModels
+	 * @return 每组插入行数，见BaseDAO.insertBatch
+	 */
+	public static CompletableFuture<Map<String, Integer>> insertBatch(final String table, final JSONArray jaModels) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = insertBatch(table, jaModels);
+			}
+		});
+	}
+	/**
+	 * 异步批量插入并返回生成键，在事务中执行
+	 * @param table
+	 * @param jaModels
+	 * @param keyColumn 键列，不为空时生成键写回每个对象
+	 * @return
+	 */
+	public static CompletableFuture<List<Object>> insertReturningKeys(final String table, 
+			final JSONArray jaModels, final String keyColumn) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = insertReturningKeys(table, jaModels, keyColumn);
+			}
+		});
+	}
+	/**
+	 * 异步批量插入或更新，在事务中执行
+	 * @param table
+	 * @param jaModels
+	 * @param keyColumns
+	 * @return
+	 */
+	public static CompletableFuture<Map<String, Integer>> upsert(final String table, 
+			final JSONArray jaModels, final String ... keyColumns) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = upsert(table, jaModels, keyColumns);
+			}
+		});
+	}
+	public static CompletableFuture<Void> executeBatch(final String strSQL, final JSONArray jaValues) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				executeBatch(strSQL, jaValues);
+			}
+		});
+	}
+	public static CompletableFuture<Void> executeBatch(final List<String> listSQLs) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				executeBatch(listSQLs);
+			}
+		});
+	}
+}
@@ -1,23 +1,26 @@
 package com.shs.framework.dao;
-import java.io.File;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
-import java.sql.ParameterMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.json.JSONArray;
@@ -48,15 +51,57 @@ public class BaseDAO {
 	public static void setDbTrait(IDbTrait dbt) {
 		dbTrait = dbt;
 	}
+	public static IDbTrait getDbTrait() {
+		return dbTrait;
+	}
 	private static Logger logger = Logger.getLogger(BaseDAO.class);
 	/**
 	 * SQL batch size
 	 */
 	protected static int SQL_BATCH_SIZE = 1024;
+	/**
+	 * 批量插入时，单条多行插入语句的最大行数，实际行数不超过数据库方言限制
+	 */
+	public static int SQL_INSERT_ROWS = 100;
 	/**
 	 * 默认字符小写
 	 */
 	public static boolean DEFAULT_CHAR_LOWER_CASE = false;
+	/**
+	 * 游标查询每次从数据库读取的行数提示
+	 */
+	public static int CURSOR_FETCH_SIZE = 500;
+	/**
+	 * 二进制数据（BLOB）不超过该字节数时以byte[]返回
+	 */
+	public static int BINARY_INLINE_LIMIT = 64 * 1024;
+	/**
+	 * 超过BINARY_INLINE_LIMIT的二进制数据是否转存为临时文件（File，回收后自动删除），
+	 * 否则以byte[]返回，游标中均返回LazyBlob
+	 */
+	public static boolean BINARY_SPOOL = false;
+	/**
+	 * 执行监听器，写时复制
+	 */
+	private static volatile IExecutionListener[] listeners = new IExecutionListener[0];
+	/**
+	 * 注册执行监听器
+	 * @param listener
+	 */
+	public static synchronized void addExecutionListener(IExecutionListener listener) {
+		IExecutionListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+		newListeners[listeners.length] = listener;
+		listeners = newListeners;
+	}
+	public static synchronized void removeExecutionListener(IExecutionListener listener) {
+		List<IExecutionListener> listListeners = new ArrayList<IExecutionListener>(Arrays.asList(listeners));
+		if (listListeners.remove(listener)) {
+			listeners = listListeners.toArray(new IExecutionListener[listListeners.size()]);
+		}
+	}
+	public static IExecutionListener[] getExecutionListeners() {
+		return listeners.clone();
+	}
 	/**
 	 * 获得连接
 	 */
@@ -75,7 +120,7 @@ public class BaseDAO {
 		return findObj(strSQL, values);
 	}
 	public static <T> T findObj(final String strSQL, final Object ... values)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findObj(strSQL, values);
@@ -115,30 +160,36 @@ public class BaseDAO {
 	 * @
 	 */
 	public static List<String> findStrList(final String strSQL, final Object ... values) {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run() {
 				result = findStrList(strSQL, values);
 			}
 		});
 	}
+	/**
+	 * 查找一个整数，驱动返回Long、BigDecimal等数值类型时转换，如count(1)
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
 	public static int findInt(final String strSQL, final Object ... values) {
-		return findObj(strSQL, values);
+		return ((Number) findObj(strSQL, values)).intValue();
 	}
 	public static int findInt(Connection dbConnection, String strSQL, Object ... values) {
-		return findObj(dbConnection, strSQL, values);
+		return new DAOCore(dbConnection).findInt(strSQL, values);
 	}
 	public static int findLong(final String strSQL, final Object ... values) {
-		return findObj(strSQL, values);
+		return ((Number) findObj(strSQL, values)).intValue();
 	}
 	public static int findLong(Connection dbConnection, String strSQL, Object ... values) {
-		return findObj(dbConnection, strSQL, values);
+		return (int) new DAOCore(dbConnection).findLong(strSQL, values);
 	}
 	public static int findDouble(final String strSQL, final Object ... values) {
-		return findObj(strSQL, values);
+		return ((Number) findObj(strSQL, values)).intValue();
 	}
 	public static int findDouble(Connection dbConnection, String strSQL, Object ... values) {
-		return findObj(dbConnection, strSQL, values);
+		return (int) new DAOCore(dbConnection).findDouble(strSQL, values);
 	}
 	/**
 	 * @param strSQL
@@ -147,7 +198,7 @@ public class BaseDAO {
 	 * @return
 	 */
 	public static <T> T query(final ResultSetOperator rso, final String strSQL, final Object ... values)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = new DAOCore(dbConnection).query(rso, strSQL, values);
@@ -164,24 +215,58 @@ public class BaseDAO {
 	public static <T> T query(Connection dbConnection, ResultSetOperator rso, String strSQL, Object ... values)  {
 		return new DAOCore(dbConnection).query(rso, strSQL, values);
 	}
+	/**
+	 * 游标逐行查询，每行调用一次RowOperator，不一次性加载全部结果
+	 * @param ro
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
+	public static <T> T query(final RowOperator ro, final String strSQL, final Object ... values)  {
+		return execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = query(ro, strSQL, values);
+			}
+		});
+	}
+	public static <T> T query(Connection dbConnection, RowOperator ro, String strSQL, Object ... values)  {
+		return new DAOCore(dbConnection).query(ro, strSQL, values);
+	}
 	/**
 	 * 执行Connection的操作, 参数为Connection操作器,
-	 * 注意，该操作不带事物，只是使用同一个连接，如需执行事务，请使用executeTransaction
+	 * 注意，该操作不带事物，只是使用同一个连接，如需执行事务，请使用executeTransaction。
+	 * 执行期间连接绑定到当前线程，其中的静态调用（如BaseDAO.findMapList）复用该连接，
+	 * 只读操作（ReadOperator）绑定的连接可能是只读副本，其中的写入操作另外获取主库连接
 	 * @param co
 	 * @
 	 */
 	public static <T> T execute(ConnectionOperator co)  {
+		Binding bound = binding.get();
+		if (bound != null && (!bound.read || co instanceof ReadOperator)) {
+			return runBound(co, bound);
+		}
 		Connection dbConnection = null;
 		try {
-			dbConnection = getConnection();
+			long start = System.nanoTime();
+			dbConnection = co instanceof ReadOperator ? 
+				ConnectionManager.getReadConnection() : getConnection();
+			co.acquireNanos = System.nanoTime() - start;
             co.dbConnection = dbConnection;
+			binding.set(new Binding(dbConnection, co, co instanceof ReadOperator, false, bound));
 			co.run();
 			return (T) co.result;
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		} finally {
+			unbind(bound);
+			co.closeCursors();
 			close(co.preparedStatement);
 			close(dbConnection, co.statement, co.resultSet);
+			co.invalidateWritten();
+			if (co.wrote) {
+				ConnectionManager.markWrite();
+			}
 		}
 	}
 	public static boolean execute(Connection dbConnection, String strSQL)  {
@@ -196,17 +281,27 @@ public class BaseDAO {
 		});
 	}
 	/**
-	 * 执行事务
+	 * 执行事务，执行期间连接绑定到当前线程，其中的静态调用复用该连接，在事务中执行；
+	 * 在事务中再次调用executeTransaction时加入外层事务，异常回滚外层事务；
+	 * 在execute中调用时使用execute的连接（只读操作的连接除外）开始事务，结束后恢复自动提交
 	 * @param co
 	 * @return
 	 * @
 	 */
 	public static <T> T executeTransaction(ConnectionOperator co) {
+		Binding bound = binding.get();
+		if (bound != null && bound.transaction) {
+			return runBound(co, bound);
+		}
+		boolean reuse = bound != null && !bound.read;
 		Connection dbConnection = null;
 		try {
-			dbConnection = getConnection();
+			long start = System.nanoTime();
+			dbConnection = reuse ? bound.dbConnection : getConnection();
+			co.acquireNanos = reuse ? 0 : System.nanoTime() - start;
 			dbConnection.setAutoCommit(false);
             co.dbConnection = dbConnection;
+			binding.set(new Binding(dbConnection, co, false, true, bound));
 			co.run();
 			dbConnection.commit();
 			return (T) co.result;
@@ -219,10 +314,95 @@ public class BaseDAO {
 				}
 			throw new RuntimeException(e);
 		} finally {
+			unbind(bound);
+			co.closeCursors();
 			close(co.preparedStatement);
-			close(dbConnection, co.statement, co.resultSet);
+			if (reuse) {
+				close(co.statement, co.resultSet);
+				try {
+					dbConnection.setAutoCommit(true);
+				} catch (SQLException e) {
+					logger.warn("Restore Auto Commit Failed", e);
+				}
+			} else {
+				close(dbConnection, co.statement, co.resultSet);
+			}
+			// 提交（回滚）后再次使写入表的查询缓存失效
+			co.invalidateWritten();
+			// 事务中可能有未经BaseDAO的写入，均视为写入主库
+			ConnectionManager.markWrite();
+		}
+	}
+	/**
+	 * 当前线程execute、executeTransaction绑定的连接
+	 */
+	private static final ThreadLocal<Binding> binding = new ThreadLocal<Binding>();
+	/**
+	 * 线程绑定的连接，以及绑定该连接的操作（嵌套操作的写入记录合并到其中）
+	 */
+	private static class Binding {
+		final Connection dbConnection;
+		final ConnectionOperator owner;
+		/**
+		 * 只读操作的连接，可能是只读副本
+		 */
+		final boolean read;
+		final boolean transaction;
+		final Binding previous;
+		Binding(Connection dbConnection, ConnectionOperator owner, 
+				boolean read, boolean transaction, Binding previous) {
+			this.dbConnection = dbConnection;
+			this.owner = owner;
+			this.read = read;
+			this.transaction = transaction;
+			this.previous = previous;
+		}
+	}
+	/**
+	 * 恢复外层绑定，最外层结束时移除，避免线程复用时残留
+	 */
+	private static void unbind(Binding previous) {
+		if (previous != null) {
+			binding.set(previous);
+		} else {
+			binding.remove();
 		}
 	}
+	/**
+	 * 使用线程绑定的连接执行，不关闭连接，不提交，
+	 * 写入记录合并到绑定连接的操作，由其在结束（提交）后处理
+	 */
+	private static <T> T runBound(ConnectionOperator co, Binding bound) {
+		try {
+			co.acquireNanos = 0;
+			co.dbConnection = bound.dbConnection;
+			co.run();
+			return (T) co.result;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			co.closeCursors();
+			close(co.preparedStatement);
+			close(co.statement, co.resultSet);
+			co.mergeWritten(bound.owner);
+		}
+	}
+	/**
+	 * 当前线程是否在executeTransaction中
+	 * @return
+	 */
+	public static boolean isInTransaction() {
+		Binding bound = binding.get();
+		return bound != null && bound.transaction;
+	}
+	/**
+	 * 当前线程绑定连接的操作是否执行过写入，其中的查询可能读到未提交或者刚写入的数据
+	 * @return
+	 */
+	static boolean hasBoundWrites() {
+		Binding bound = binding.get();
+		return bound != null && bound.owner.wrote;
+	}
 	/**
 	 * @class describe: ResultSet操作器, 抽象类，供改写，
 	 * 	操作ResultSet，无需操作后关闭处理，如需返回值，将返回值结果赋予result
@@ -240,6 +420,27 @@ public class BaseDAO {
         protected Connection dbConnection;
 		protected abstract void run() throws Exception ;
 	}
+	/**
+	 * @class describe: 行操作器, 抽象类，供改写，
+	 * 	游标逐行读取结果集，每行调用一次run()，当前行为row，如需返回值，将返回值结果赋予result
+	 * @version 0.1
+	 * @date created: Oct 18, 2026 11:32:47 AM
+	 * @author chyxion
+	 * @support: chyxion@163.com
+	 * @date modified: 
+	 * @modified by: 
+	 * @copyright: 
+	 */
+	public static abstract class RowOperator {
+		protected Object result;
+		protected Map<String, Object> row;
+		/**
+		 * 当前行号，从1开始
+		 */
+		protected long rowNumber;
+		protected Connection dbConnection;
+		protected abstract void run() throws Exception ;
+	}
 	/**
 	 * @class describe: Connection操作器，抽象类，自动关连接，
 	 * 	如需返回值，请将返回对象赋予result
@@ -258,6 +459,20 @@ public class BaseDAO {
 		protected ResultSet resultSet;
 		protected abstract void run() throws Exception;
 	}
+	/**
+	 * @class describe: 只读Connection操作器，配置了只读副本时，
+	 * 	execute按ConnectionManager.REPLICA_STRATEGY使用副本连接（读己之写窗口内使用主库），
+	 * 	不要在其中写入；在executeTransaction中执行时仍使用主库
+	 * @version 0.1
+	 * @date created: Oct 18, 2026 10:05:36 PM
+	 * @author chyxion
+	 * @support: chyxion@163.com
+	 * @date modified: 
+	 * @modified by: 
+	 * @copyright: 
+	 */
+	public static abstract class ReadOperator extends ConnectionOperator {
+	}
 
 	/**
 	 * 批量执行
@@ -279,23 +494,7 @@ public class BaseDAO {
 	 */
 	public static void executeBatch(Connection dbConnection, List<String> listSQLs)
 			 {
-		Statement statement = null;
-		try {
-			statement = dbConnection.createStatement();
-			int i = 0;
-			for (String sql : listSQLs) {
-				statement.addBatch(sql);
-				if (++i > SQL_BATCH_SIZE) {
-					i = 0;
-					statement.executeBatch();
-				}
-			}
-			statement.executeBatch();
-		} catch (SQLException e) {
-			throw new RuntimeException(e);
-		} finally {
-			close(statement);
-		}
+		new DAOCore(dbConnection).executeBatch(listSQLs);
 	}
 	/**
 	 * 执行批语句
@@ -331,12 +530,31 @@ public class BaseDAO {
 	 * @
 	 */
 	public static void executeBatch(Connection dbConnection, String strSQL, JSONArray jaValues)  {
-		PreparedStatement preparedStatement = null;
-		try {
-			new DAOCore(dbConnection).executeBatch(strSQL, jaValues);
-		} finally {
-			close(preparedStatement);
-		}
+		new DAOCore(dbConnection).executeBatch(strSQL, jaValues);
+	}
+	/**
+	 * 流水线执行批SQL，在事务中执行，见BatchPipeline
+	 * @param strSQL, insert into foobar (?, ?)
+	 * @param jaValues, [[0, 1], [2, 3]]
+	 */
+	public static void executeBatchPipelined(final String strSQL, final JSONArray jaValues) {
+		executeBatchPipelined(strSQL, BatchPipeline.iterator(jaValues));
+	}
+	/**
+	 * 流水线执行批SQL，在事务中执行，数据行在生产线程中迭代
+	 * @param strSQL, insert into foobar (?, ?)
+	 * @param rows 数据行，每行为Object[]、JSONArray、集合，或者单个值
+	 */
+	public static void executeBatchPipelined(final String strSQL, final Iterator<?> rows) {
+		executeTransaction(new ConnectionOperator() {
+			@Override
+			public void run()  {
+				executeBatchPipelined(strSQL, rows);
+			}
+		});
+	}
+	public static void executeBatchPipelined(Connection dbConnection, String strSQL, Iterator<?> rows)  {
+		new DAOCore(dbConnection).executeBatchPipelined(strSQL, rows);
 	}
 	public static void insert(Connection dbConnection, String table, JSONArray jaFields, JSONArray jaValues)  {
 		new DAOCore(dbConnection).insert(table, jaFields, jaValues);
@@ -360,45 +578,16 @@ public class BaseDAO {
 		return new JSONObject(getMap(rs, lowerCase));
 	}
 	public static Map<String, Object> getMap(ResultSet rs, boolean lowerCase) {
-		try {
-			ResultSetMetaData metaData = rs.getMetaData();
-			int numColumn = metaData.getColumnCount();
-			Map<String, Object> mapModel = new HashMap<String, Object>();
-			for (int i = 1; i <= numColumn; ++i) {
-				String colName = metaData.getColumnLabel(i);// 得到列名称, 如果需要小写，则转换为小写，否则不变，另外，如果其中包含小写，则不转换
-				// 跳过行编号
-				if (colName.equalsIgnoreCase(IDbTrait.COLUMN_ROW_NUMBER)) {
-					continue;
-				}
-				// 列名中混合大小写，不转换
-				if (Pattern.compile("[a-z]").matcher(colName).find() && 
-						Pattern.compile("[A-Z]").matcher(colName).find()) {
-					// 什么都不做
-				} else {
-					colName = lowerCase ? 
-						colName.toLowerCase() : colName.toUpperCase();
-				}
-				Object objValue;
-				int type = metaData.getColumnType(i);
-				if (type == Types.CLOB) { // 将CLOB转换为String
-					objValue = rs.getString(i);
-				// 转存为临时文件
-				} else if (type == Types.BLOB || 
-						type == Types.BINARY || 
-						type == Types.VARBINARY ||
-						type == Types.LONGVARBINARY) {
-					File f = new File(FileUtils.getTempDirectory(), UUID.randomUUID().toString());
-					FileUtils.copyInputStreamToFile(rs.getBinaryStream(i), f);
-					objValue = f;
-				} else {
-					objValue = rs.getObject(i);
-				}
-				mapModel.put(colName, objValue);
-			}
-			return mapModel;
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+		return ColumnPlan.build(rs, lowerCase).getMap(rs);
+	}
+	/**
+	 * 按列计划从resultSet当前行返回Map，多行时复用同一列计划
+	 * @param rs
+	 * @param plan
+	 * @return
+	 */
+	public static Map<String, Object> getMap(ResultSet rs, ColumnPlan plan) {
+		return plan.getMap(rs);
 	}
 	/**
 	 * 从resultSet中返回JSONArray, JSON属性名称和select字段名称或者其别名相同, 字段名称大写
@@ -433,11 +622,32 @@ public class BaseDAO {
 	public static List<Map<String, Object>> 
 		getMapList(ResultSet resultSet, boolean lowerCase)
 			 {
+		return getMapList(resultSet, lowerCase, null);
+	}
+	/**
+	 * 从resultSet中返回List<Map<String, Object>>，ctx不为空时分别记录读取、映射耗时以及行数
+	 */
+	private static List<Map<String, Object>> 
+		getMapList(ResultSet resultSet, boolean lowerCase, ExecutionContext ctx) {
 		List<Map<String, Object>> mapList = new LinkedList<Map<String, Object>>();
 		
 		try {
+			ColumnPlan plan = null;
 			while (resultSet.next()) {
-				mapList.add(getMap(resultSet, lowerCase));
+				if (ctx != null) {
+					ctx.fetched();
+				}
+				if (plan == null) { // 列计划每个结果集只生成一次
+					plan = ColumnPlan.build(resultSet, lowerCase);
+				}
+				mapList.add(plan.getMap(resultSet));
+				if (ctx != null) {
+					ctx.mapped();
+				}
+			}
+			if (ctx != null) {
+				ctx.fetched();
+				ctx.addRows(mapList.size());
 			}
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
@@ -445,6 +655,38 @@ public class BaseDAO {
 		
 		return mapList;
 	}
+	/**
+	 * 从resultSet中返回紧凑的RowList，所有行共用列名
+	 * @param resultSet
+	 * @param lowerCase
+	 * @return
+	 */
+	public static RowList getRowList(ResultSet resultSet, boolean lowerCase) {
+		return getRowList(resultSet, lowerCase, null);
+	}
+	private static RowList getRowList(ResultSet resultSet, boolean lowerCase, ExecutionContext ctx) {
+		ColumnPlan plan = ColumnPlan.build(resultSet, lowerCase);
+		RowList rows = new RowList(plan.getNames());
+		try {
+			while (resultSet.next()) {
+				if (ctx != null) {
+					ctx.fetched();
+				}
+				rows.addRow(plan.getValues(resultSet));
+				if (ctx != null) {
+					ctx.mapped();
+				}
+			}
+			if (ctx != null) {
+				ctx.fetched();
+				ctx.addRows(rows.size());
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+		rows.trimToSize();
+		return rows;
+	}
 	/**
 	 * 返回表数据行数.
 	 * @param table
@@ -452,7 +694,7 @@ public class BaseDAO {
 	 * @ 
 	 */
 	public static int count(final String table)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = count(table);
@@ -467,7 +709,7 @@ public class BaseDAO {
 	 * @
 	 */
 	public static int count(Connection dbConnection, String table)  {
-		return findInt("select count(1) from " + table);
+		return new DAOCore(dbConnection).count(table);
 	}
 	/**
 	 * 关闭connection, statement, resultSet
@@ -518,32 +760,17 @@ public class BaseDAO {
 	 * @param value
 	 */
 	protected static void setValue(PreparedStatement ps, int index, Object value) {
-		try {
-			if (value == null || value.equals(JSONObject.NULL)) { // 设置null
-	            ParameterMetaData pmd = ps.getParameterMetaData();
-	            /**
-	             * 大部分数据库识别VARCHAR，Oracle不识别NULL
-	             */
-	            int colType = Types.VARCHAR;
-	            // Oracle不支持此方法
-	            try {
-					colType = pmd.getParameterType(index);
-				} catch (SQLException e) {}
-				ps.setNull(index, colType);
-				logger.debug("Prepared Statement Set Value: [" + index + "][NULL][" + value + "]");
-	        } else if (value instanceof JSONObject || value instanceof JSONArray) {
-				logger.debug("Prepared Statement set Value: [" + index + "][" + value.getClass()+ "][" + value + "]");
-				// JSON数据，
-	            ps.setString(index, value.toString());
-			} else if (value instanceof File) {
-				ps.setBinaryStream(index, FileUtils.openInputStream((File) value));
-			} else {
-				logger.debug("Prepared Statement Set Value: [" + index + "][" + value.getClass()+ "][" + value + "]");
-				ps.setObject(index, value);
-			}
-		} catch (Exception e) {
-			throw new RuntimeException(e);
-		}
+		BindPlan.bind(null, ps, index, value);
+	}
+	/**
+	 * 按绑定计划设置prepareStatement的index指示的值
+	 * @param ps
+	 * @param plan 预备SQL的绑定计划
+	 * @param index
+	 * @param value
+	 */
+	protected static void setValue(PreparedStatement ps, BindPlan plan, int index, Object value) {
+		BindPlan.bind(plan, ps, index, value);
 	}
 	/**
 	 * 为preparedStatement设值（集合）,
@@ -553,16 +780,26 @@ public class BaseDAO {
 	 * @
 	 */
 	protected static PreparedStatement setValues(PreparedStatement ps, Object values) {
+		return setValues(ps, null, values);
+	}
+	/**
+	 * 按绑定计划为preparedStatement设值（集合）
+	 * @param ps
+	 * @param plan 预备SQL的绑定计划，为空时不缓存
+	 * @param values
+	 * @return
+	 */
+	protected static PreparedStatement setValues(PreparedStatement ps, BindPlan plan, Object values) {
 		if (values != null) {
 			if (values instanceof Object[]) {
 				Object[] objArrayValues = (Object[]) values;
 				for (int i = 0; i < objArrayValues.length; ++i) 
-					setValue(ps, i + 1, objArrayValues[i]);
+					BindPlan.bind(plan, ps, i + 1, objArrayValues[i]);
 			} else if (values instanceof JSONArray) {
 				JSONArray jaValues = (JSONArray) values;
 				try {
 					for (int i = 0; i < jaValues.length(); ++i)
-						setValue(ps, i + 1, jaValues.get(i));
+						BindPlan.bind(plan, ps, i + 1, jaValues.get(i));
 				} catch (JSONException e) {
 					throw new RuntimeException(e);
 				}
@@ -570,9 +807,9 @@ public class BaseDAO {
 				List<Object> listValues = (List<Object>) values;
 				int i = 0;
 				for (Object value : listValues) 
-					setValue(ps, ++i, value);
+					BindPlan.bind(plan, ps, ++i, value);
 			} else { // 尝试作为一个值赋给preparedStatement
-				setValue(ps, 1, values);
+				BindPlan.bind(plan, ps, 1, values);
 			}
 		}
 		return ps;
@@ -587,29 +824,27 @@ public class BaseDAO {
 	 * @
 	 */
 	private static String buildSQL(String strSQL, JSONArray jaValues, List<Object> outValues) {
-        String rtnSQL;
-        StringBuffer sbSQL = new StringBuffer(); // 重新构造SQL
-		String[] saSQL = (strSQL + " ").split("\\?"); // 加上最后空格，否则如果最后一个为?占位，则拆分将会少一个元素
+		if (jaValues.length() == 0) {
+			return strSQL;
+		}
+		String[] saSQL = SQLTemplate.get(strSQL).getFragments();
+		StringBuilder sbSQL = new StringBuilder(strSQL.length() + 16); // 重新构造SQL
 		if (saSQL.length == 2 && jaValues.length() > 1){ // 如果?数量少于jaValues数量，展开
 			sbSQL.append(saSQL[0]);
-			sbSQL.append(genValueHolder(jaValues, outValues));
-			rtnSQL = sbSQL.append(saSQL[1]).toString();
-		} else if (jaValues.length() > 0) { // 分析传入值，构建SQL
+			appendValueHolder(sbSQL, jaValues, outValues);
+			sbSQL.append(saSQL[1]);
+		} else { // 分析传入值，构建SQL
 			try {
 				for (int i = 0; i < jaValues.length(); i++) {
-					List<Object> valuesExpanded = new LinkedList<Object>();
 					sbSQL.append(saSQL[i]);
-					sbSQL.append(genValueHolder(jaValues.get(i), valuesExpanded));
-					outValues.addAll(valuesExpanded);
+					appendValueHolder(sbSQL, jaValues.get(i), outValues);
 				}
 			} catch (JSONException e) {
 				throw new RuntimeException(e);
 			}
-			rtnSQL = sbSQL.append(saSQL[saSQL.length - 1]).toString();
-		} else {
-            rtnSQL = strSQL;
-        }
-		return rtnSQL;
+			sbSQL.append(saSQL[saSQL.length - 1]);
+		}
+		return sbSQL.toString();
 	}
 	/**
 	 * Object Array 为传入值构建PreparedStatement
@@ -621,25 +856,23 @@ public class BaseDAO {
 	 * @
 	 */
 	private static String buildSQL(String strSQL, Object[] oaValues, List<Object> outValues) {
-        String rtnSQL;
-        StringBuffer sbSQL = new StringBuffer(); // 重新构造SQL
-		String[] saSQL = (strSQL + " ").split("\\?"); // 加上最后空格，否则如果最后一个为?占位，则拆分将会少一个元素
+		if (oaValues.length == 0) {
+			return strSQL;
+		}
+		String[] saSQL = SQLTemplate.get(strSQL).getFragments();
+		StringBuilder sbSQL = new StringBuilder(strSQL.length() + 16); // 重新构造SQL
 		if (saSQL.length == 2 && oaValues.length > 1) { // 如果占位符?数量少于传入值oaVaulues，展开
 			sbSQL.append(saSQL[0]);
-			sbSQL.append(genValueHolder(oaValues, outValues));
-	        rtnSQL = sbSQL.append(saSQL[1]).toString();
-		} else if (oaValues.length > 0) {
+			appendValueHolder(sbSQL, oaValues, outValues);
+			sbSQL.append(saSQL[1]);
+		} else {
 			for (int i = 0; i < oaValues.length; i++) { // 遍历传入值，构建SQL
-				List<Object> valuesExpanded = new LinkedList<Object>();
 				sbSQL.append(saSQL[i]);
-				sbSQL.append(genValueHolder(oaValues[i], valuesExpanded));
-				outValues.addAll(valuesExpanded);
+				appendValueHolder(sbSQL, oaValues[i], outValues);
 			}
-			rtnSQL = sbSQL.append(saSQL[saSQL.length - 1]).toString();
-		} else {
-            rtnSQL = strSQL;
-        }
-		return rtnSQL;
+			sbSQL.append(saSQL[saSQL.length - 1]);
+		}
+		return sbSQL.toString();
 	}
 	/**
 	 * JSONObject传入值生成PreparedStatement
@@ -651,47 +884,39 @@ public class BaseDAO {
 	 * @
 	 */
 	private static String buildSQL(String strSQL, JSONObject joValues, List<Object> outValues) {
-        String rtnSQL;
-        if (joValues.length() > 0) {
-            StringBuffer sbSQL = new StringBuffer(); // 重新构造SQL
-            Matcher matcher = Pattern.compile(":\\w+").matcher(strSQL); // 匹配strSQL中的形如:user_id, :id
-            try {
-	            while(matcher.find()) {
-	                List<Object> valuesExpanded = new LinkedList<Object>(); // 存放展开值
-	                matcher.appendReplacement(sbSQL,
-	                        genValueHolder(joValues.get(matcher.group().substring(1)), // 取得JSONObject中匹配的值, :id => id
-	                        valuesExpanded));  // 替换匹配值的占位
-	                outValues.addAll(valuesExpanded); // 将展开值加入到新值集合
-	            }
-            } catch (JSONException e) {
-            	throw new RuntimeException(e);
-			}
-            matcher.appendTail(sbSQL); // 将最后未匹配部分追加到sbSQL
-            rtnSQL = sbSQL.toString();
-        } else {
-            rtnSQL = strSQL;
-        }
-		return rtnSQL;
-	}
-    private static String buildSQL(String strSQL, Map<String, Object> mapValues, List<Object> outValues) {
-        String rtnSQL;
-        if (mapValues.size() > 0) {
-            StringBuffer sbSQL = new StringBuffer(); // 重新构造SQL
-            Matcher matcher = Pattern.compile(":\\w+").matcher(strSQL); // 匹配strSQL中的形如:user_id, :id
-            while(matcher.find()) {
-                List<Object> valuesExpanded = new LinkedList<Object>(); // 存放展开值
-                matcher.appendReplacement(sbSQL,
-                        genValueHolder(mapValues.get(matcher.group().substring(1)), // 取得JSONObject中匹配的值, :id => id
-                                valuesExpanded));  // 替换匹配值的占位
-                outValues.addAll(valuesExpanded); // 将展开值加入到新值集合
-            }
-            matcher.appendTail(sbSQL); // 将最后未匹配部分追加到sbSQL
-            rtnSQL = sbSQL.toString();
-        } else {
-            rtnSQL = strSQL;
-        }
-        return rtnSQL;
-    }
+		if (joValues.length() == 0) {
+			return strSQL;
+		}
+		SQLTemplate template = SQLTemplate.get(strSQL);
+		String[] fragments = template.getNamedFragments();
+		String[] names = template.getNames();
+		StringBuilder sbSQL = new StringBuilder(strSQL.length() + 16); // 重新构造SQL
+		try {
+			for (int i = 0; i < names.length; ++i) {
+				sbSQL.append(fragments[i]);
+				// 取得JSONObject中匹配的值, :id => id，替换匹配值的占位
+				appendValueHolder(sbSQL, joValues.get(names[i]), outValues);
+			}
+		} catch (JSONException e) {
+			throw new RuntimeException(e);
+		}
+		return sbSQL.append(fragments[names.length]).toString(); // 将最后未匹配部分追加到sbSQL
+	}
+	private static String buildSQL(String strSQL, Map<String, Object> mapValues, List<Object> outValues) {
+		if (mapValues.size() == 0) {
+			return strSQL;
+		}
+		SQLTemplate template = SQLTemplate.get(strSQL);
+		String[] fragments = template.getNamedFragments();
+		String[] names = template.getNames();
+		StringBuilder sbSQL = new StringBuilder(strSQL.length() + 16); // 重新构造SQL
+		for (int i = 0; i < names.length; ++i) {
+			sbSQL.append(fragments[i]);
+			// 取得Map中匹配的值, :id => id，替换匹配值的占位
+			appendValueHolder(sbSQL, mapValues.get(names[i]), outValues);
+		}
+		return sbSQL.append(fragments[names.length]).toString(); // 将最后未匹配部分追加到sbSQL
+	}
 	/**
 	 * List<Object> 传入值构建PreparedStatement
 	 * @param dbConnection 数据库连接
@@ -702,64 +927,73 @@ public class BaseDAO {
 	 * @
 	 */
 	private static String buildSQL(String strSQL, List<Object> listValues, List<Object> outValues) {
-		StringBuffer sbSQL = new StringBuffer(); // 重新构造SQL
-		String[] saSQL = (strSQL + " ").split("\\?"); // 加上最后空格，否则如果最后一个为?占位，则拆分将会少一个元素
+		if (listValues.size() == 0) {
+			return strSQL;
+		}
+		String[] saSQL = SQLTemplate.get(strSQL).getFragments();
+		StringBuilder sbSQL = new StringBuilder(strSQL.length() + 16); // 重新构造SQL
 		if (saSQL.length == 2 && listValues.size() > 1) { // 如果占位?数量少于传入值listValues，展开占位
 			sbSQL.append(saSQL[0]);
-			sbSQL.append(genValueHolder(listValues, outValues));
+			appendValueHolder(sbSQL, listValues, outValues);
 			sbSQL.append(saSQL[1]);
-		} else if (listValues.size() > 0) { // 分析传入值，生成SQL
+		} else { // 分析传入值，生成SQL
 			int i = 0;
 			for (Object v : listValues) {
-				List<Object> valuesExpanded = new LinkedList<Object>();
 				sbSQL.append(saSQL[i++]);
-				sbSQL.append(genValueHolder(v, valuesExpanded));
-				outValues.addAll(valuesExpanded);
+				appendValueHolder(sbSQL, v, outValues);
 			}
 			sbSQL.append(saSQL[saSQL.length - 1]);
-		} else { // list size equals 0
-           return strSQL;
-        }
+		}
 		return sbSQL.toString();
 	}
 	/**
-	 * 生成preparedStatement
-	 * @param dbConnection
+	 * 展开SQL占位，集合值展开为多个?，命名占位替换为?
 	 * @param strSQL
-	 * @param values, 可以是Object[], List<Object>, JSONArray, Object（单个值）
-	 * @return
-	 * @
+	 * @param outValues 展开后的值
+	 * @param values, 可以是Object[], List<Object>, JSONArray, Map, JSONObject, Object（单个值）
+	 * @return 展开后的SQL
 	 */
-	public static PreparedStatement prepareStatement(Connection dbConnection, 
-			String strSQL, 
-			Object ... values)  {
-		String newSQL; // 重新构造SQL
-		List<Object> newValues = null; // 展开集合后新的值
-		PreparedStatement ps; // 返回值
+	@SuppressWarnings("unchecked")
+	public static String expandSQL(String strSQL, List<Object> outValues, Object ... values) {
 		if (values.length == 1) { // 传入1
-			newValues = new LinkedList<Object>();
 			Object oValues = values[0];
 			if (oValues instanceof Object[]) {
-				newSQL = buildSQL(strSQL, (Object[]) oValues, newValues);
+				return buildSQL(strSQL, (Object[]) oValues, outValues);
 			} else if (oValues instanceof JSONArray) { // JSONArray
-				newSQL = buildSQL(strSQL, (JSONArray) oValues, newValues);
+				return buildSQL(strSQL, (JSONArray) oValues, outValues);
 			} else if (oValues instanceof List<?>) { // List集合
-				newSQL = buildSQL(strSQL, (List<Object>) oValues, newValues);
+				return buildSQL(strSQL, (List<Object>) oValues, outValues);
 			} else if (oValues instanceof Map<?, ?>) { // JSONObject占位
-				newSQL = buildSQL(strSQL, (Map<String, Object>) oValues, newValues);
+				return buildSQL(strSQL, (Map<String, Object>) oValues, outValues);
             } else if (oValues instanceof JSONObject) { // JSONObject占位
-                newSQL = buildSQL(strSQL, (JSONObject) oValues, newValues);
+                return buildSQL(strSQL, (JSONObject) oValues, outValues);
 			} else { // 将values作为一个对象值传解析
-				newSQL = strSQL;
-				newValues.add(oValues);
+				outValues.add(oValues);
+				return strSQL;
 			}
 		} else if (values.length > 1) { // 参数数组
-			newValues = new LinkedList<Object>();
-			newSQL = buildSQL(strSQL, values, newValues);
+			return buildSQL(strSQL, values, outValues);
 		} else { // 没有提供参数
-			newSQL = strSQL;
+			return strSQL;
+		}
+	}
+	/**
+	 * 生成preparedStatement
+	 * @param dbConnection
+	 * @param strSQL
+	 * @param values, 可以是Object[], List<Object>, JSONArray, Object（单个值）
+	 * @return
+	 * @
+	 */
+	public static PreparedStatement prepareStatement(Connection dbConnection, 
+			String strSQL, 
+			Object ... values)  {
+		List<Object> newValues = values.length > 0 ? new ArrayList<Object>() : null; // 展开集合后新的值
+		String newSQL = expandSQL(strSQL, newValues, values); // 重新构造SQL
+		PreparedStatement ps; // 返回值
+		if (logger.isDebugEnabled()) {
+			logger.debug(newSQL);
 		}
-		logger.debug(newSQL);
 		// 生成PreparedStatement
 		try {
 			ps = dbConnection.prepareStatement(newSQL);
@@ -768,7 +1002,7 @@ public class BaseDAO {
 		}
 		// 使用生成的新值设置
 		if (newValues != null) {
-			setValues(ps, newValues);
+			setValues(ps, BindPlan.get(newSQL), newValues);
 		}
 		return ps;
 	}	
@@ -783,30 +1017,61 @@ public class BaseDAO {
 	 * @
 	 */
 	protected static String genValueHolder(Object v, List<Object> valuesExpanded) {
-		StringBuffer sbSQL = new StringBuffer();
+		StringBuilder sbSQL = new StringBuilder();
+		appendValueHolder(sbSQL, v, valuesExpanded);
+		return sbSQL.toString();
+	}
+	/**
+	 * 展开传入值集合对象，值占位追加到sbSQL
+	 * @param sbSQL
+	 * @param v 传入值，如果是集合，则追加如：?, ?, ?, ?，否则追加：?
+	 * @param valuesExpanded 返回展开值
+	 */
+	private static void appendValueHolder(StringBuilder sbSQL, Object v, List<Object> valuesExpanded) {
+		int size;
 		if (v instanceof Object[]) { // 值为对象数组，展开构建对应的SQL, 下同
 			Object[] objArrayValues = (Object[]) v;
 			valuesExpanded.addAll(Arrays.asList(objArrayValues));
-			String[] vh = new String[objArrayValues.length];
-			Arrays.fill(vh, "?");
-			sbSQL = new StringBuffer(StringUtils.join(vh, ", "));
+			size = objArrayValues.length;
 		} else if (v instanceof JSONArray) {
 			JSONArray jaValues = (JSONArray) v;
 			valuesExpanded.addAll(JSONUtils.toMapList(jaValues));
-			String[] vh = new String[jaValues.length()];
-			Arrays.fill(vh, "?");
-			sbSQL = new StringBuffer(StringUtils.join(vh, ", "));
+			size = jaValues.length();
 		} else if (v instanceof List<?>) {
 			List<Object> listValues = (List<Object>) v;
 			valuesExpanded.addAll(listValues);
-			String[] vh = new String[listValues.size()];
-			Arrays.fill(vh, "?");
-			sbSQL = new StringBuffer(StringUtils.join(vh, ", "));
+			size = listValues.size();
 		} else { // 不是集合
 			valuesExpanded.add(v);
-			sbSQL = new StringBuffer("?");
+			sbSQL.append('?');
+			return;
 		}
-		return sbSQL.toString();
+		for (int i = 0; i < size; ++i) {
+			if (i > 0) {
+				sbSQL.append(", ");
+			}
+			sbSQL.append('?');
+		}
+	}
+	/**
+	 * 生成更新预备SQL，如：update foo set a = ? where id = ?
+	 * @param table
+	 * @param joModel
+	 * @param joWhere 条件对象
+	 * @param values 返回需要设置的值，先set后where
+	 * @return
+	 */
+	protected static String genUpdateSQL(String table, JSONObject joModel, 
+			JSONObject joWhere, List<Object> values) {
+		StringBuffer sbSQL = 
+			new StringBuffer(dbTrait.genUpdateSetSQL(table, joModel, values))
+			.append(" where ").append(dbTrait.genWhereEqAnd(joWhere, values));
+		String updateSQL = sbSQL.toString();
+		if (logger.isDebugEnabled()) {
+			logger.debug("Gen Update SQL");
+			logger.debug(updateSQL);
+		}
+		return updateSQL;
 	}
 	/**
 	 * 生成更新预备SQL
@@ -822,13 +1087,9 @@ public class BaseDAO {
 			JSONObject joWhere) {
 		
 		List<Object> values = new LinkedList<Object>();
-		StringBuffer sbSQL = 
-			new StringBuffer(dbTrait.genUpdateSetSQL(table, joModel, values))
-			.append(" where ").append(dbTrait.genWhereEqAnd(joWhere, values));
-		logger.debug("Gen Update SQL");
-		logger.debug(sbSQL.toString());
+		String updateSQL = genUpdateSQL(table, joModel, joWhere, values);
 		try {
-			return setValues(dbConnection.prepareStatement(sbSQL.toString()), values);
+			return setValues(dbConnection.prepareStatement(updateSQL), BindPlan.get(updateSQL), values);
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
@@ -859,14 +1120,111 @@ public class BaseDAO {
 	public static boolean insert(Connection dbConnection, String table, JSONObject joModel) {
 		return new DAOCore(dbConnection).insert(table, joModel);
 	}
-	public static void insert(Connection dbConnection, String table, JSONArray jaModels) {
+	/**
+	 * 批量插入，相同列的数据为一组，每组使用多行插入语句批量执行
+	 * @param dbConnection
+	 * @param table
+	 * @param jaModels
+	 */
+	public static void insert(Connection dbConnection, String table, JSONArray jaModels) {
 		new DAOCore(dbConnection).insert(table, jaModels);
 	}
 	public static void insert(final String table, final JSONArray jaModels) {
-		executeTransaction(new ConnectionOperator() {
+		insertBatch(table, jaModels);
+	}
+	/**
+	 * 批量插入，同insert(String, JSONArray)，返回每组插入行数
+	 * @param dbConnection
+	 * @param table
+	 * @param jaModels
+	 * @return 每组插入行数，键为组内排序后的列名，逗号分隔
+	 */
+	public static Map<String, Integer> insertBatch(Connection dbConnection, String table, JSONArray jaModels) {
+		return new DAOCore(dbConnection).insertBatch(table, jaModels);
+	}
+	public static Map<String, Integer> insertBatch(final String table, final JSONArray jaModels) {
+		return executeTransaction(new ConnectionOperator() {
 			@Override
 			public void run()  {
-				insert(table, jaModels);
+				result = insertBatch(table, jaModels);
+			}
+		});
+	}
+	/**
+	 * 插入并返回生成键（Statement.RETURN_GENERATED_KEYS，Oracle按键列RETURNING INTO），不再查询
+	 * @param table
+	 * @param joModel
+	 * @param keyColumn 键列，不为空时生成键写回joModel；Oracle必须指定
+	 * @return 生成键
+	 */
+	public static Object insertReturningKey(final String table, final JSONObject joModel, 
+			final String keyColumn) {
+		return execute(new ConnectionOperator() {
+			@Override
+			public void run()  {
+				result = insertReturningKey(table, joModel, keyColumn);
+			}
+		});
+	}
+	public static Object insertReturningKey(Connection dbConnection, String table, 
+			JSONObject joModel, String keyColumn) {
+		return new DAOCore(dbConnection).insertReturningKey(table, joModel, keyColumn);
+	}
+	/**
+	 * 批量插入并返回生成键，在事务中执行，方言支持时批量、多行执行，否则逐行执行
+	 * @param table
+	 * @param jaModels
+	 * @param keyColumn 键列，不为空时生成键写回每个对象；Oracle必须指定
+	 * @return 生成键，与jaModels顺序相同
+	 */
+	public static List<Object> insertReturningKeys(final String table, final JSONArray jaModels, 
+			final String keyColumn) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			public void run()  {
+				result = insertReturningKeys(table, jaModels, keyColumn);
+			}
+		});
+	}
+	public static List<Object> insertReturningKeys(Connection dbConnection, String table, 
+			JSONArray jaModels, String keyColumn) {
+		return new DAOCore(dbConnection).insertReturningKeys(table, jaModels, keyColumn);
+	}
+	/**
+	 * 批量插入Map并返回生成键，在事务中执行，keyColumn不为空时生成键写回每个Map
+	 * @param table
+	 * @param models
+	 * @param keyColumn
+	 * @return 生成键，与models顺序相同
+	 */
+	public static List<Object> insertReturningKeys(final String table, 
+			final List<? extends Map<String, Object>> models, final String keyColumn) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			public void run()  {
+				result = insertReturningKeys(table, models, keyColumn);
+			}
+		});
+	}
+	/**
+	 * 批量插入或更新，按keyColumns匹配已有数据，存在则更新其余列，否则插入，
+	 * 使用数据库的MERGE或者insert ... on duplicate key update，批量执行
+	 * @param dbConnection
+	 * @param table
+	 * @param jaModels
+	 * @param keyColumns 键列
+	 * @return 每组影响行数，键为组内排序后的列名，逗号分隔
+	 */
+	public static Map<String, Integer> upsert(Connection dbConnection, String table, 
+			JSONArray jaModels, String ... keyColumns) {
+		return new DAOCore(dbConnection).upsert(table, jaModels, keyColumns);
+	}
+	public static Map<String, Integer> upsert(final String table, 
+			final JSONArray jaModels, final String ... keyColumns) {
+		return executeTransaction(new ConnectionOperator() {
+			@Override
+			public void run()  {
+				result = upsert(table, jaModels, keyColumns);
 			}
 		});
 	}
@@ -930,7 +1288,7 @@ public class BaseDAO {
 	 * @
 	 */
 	public static JSONObject findJSONObject(final boolean lowerCase, final String strSQL, final Object ... values) {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findJSONObject(lowerCase, strSQL, values);
@@ -1012,7 +1370,7 @@ public class BaseDAO {
 			final int limit,
 			final String strSQL, 
 			final Object ... values)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findJSONArrayPage(isLowerCalse, orderCol, direction, start, limit, strSQL, values);
@@ -1060,7 +1418,7 @@ public class BaseDAO {
 			final int limit,
 			final String strSQL, 
 			final Object ... values)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findMapListPage(isLowerCase, orderCol, direction, start, limit, strSQL, values);
@@ -1077,6 +1435,68 @@ public class BaseDAO {
 			final Object ... values)  {
 		return  findMapListPage(DEFAULT_CHAR_LOWER_CASE, orderCol, direction, start, limit, strSQL, values);
 	}
+	/**
+	 * 键集分页，第一页token为null，之后使用上一页返回的getNextToken()，
+	 * 与findMapListPage相比，深度翻页不需要扫描、丢弃前面的行
+	 * @param lowerCase
+	 * @param orderBy 排序，如："created_at desc, id"，组合唯一，列需要在select列中
+	 * @param token 续读标记
+	 * @param limit 页长
+	 * @param strSQL 不带order by的查询
+	 * @param values
+	 * @return
+	 */
+	public static KeysetPage findKeysetPage(final boolean lowerCase, 
+			final String orderBy,
+			final String token,
+			final int limit,
+			final String strSQL, 
+			final Object ... values)  {
+		return execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = findKeysetPage(lowerCase, orderBy, token, limit, strSQL, values);
+			}
+		});
+	}
+	public static KeysetPage findKeysetPage(
+			final String orderBy,
+			final String token,
+			final int limit,
+			final String strSQL, 
+			final Object ... values)  {
+		return findKeysetPage(DEFAULT_CHAR_LOWER_CASE, orderBy, token, limit, strSQL, values);
+	}
+	public static KeysetPage findKeysetPage(Connection dbConnection, 
+			String orderBy,
+			String token,
+			int limit,
+			String strSQL, 
+			Object ... values)  {
+		return new DAOCore(dbConnection).findKeysetPage(orderBy, token, limit, strSQL, values);
+	}
+	/**
+	 * 键集分页，从lastKeys之后读取
+	 * @param orderBy
+	 * @param lastKeys 上一页最后一行的排序键，顺序与orderBy相同，第一页为null
+	 * @param limit
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
+	public static KeysetPage findKeysetPageAfter(
+			final String orderBy,
+			final Object[] lastKeys,
+			final int limit,
+			final String strSQL, 
+			final Object ... values)  {
+		return execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = findKeysetPageAfter(DEFAULT_CHAR_LOWER_CASE, orderBy, lastKeys, limit, strSQL, values);
+			}
+		});
+	}
 	public static List<Map<String, Object>> 
 		findMapList(Connection dbConnection, 
 			final String strSQL, 
@@ -1086,7 +1506,7 @@ public class BaseDAO {
 	public static List<Map<String, Object>> findMapList(final boolean lowerCase, 
 			final String strSQL, 
 			final Object ... values)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findMapList(lowerCase, strSQL, values);
@@ -1135,7 +1555,7 @@ public class BaseDAO {
 	}
 	public static Map<String, Object> findMap(final boolean lowerCase, final String strSQL, 
 			final Object ... values) {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findMap(lowerCase, strSQL, values);
@@ -1146,6 +1566,123 @@ public class BaseDAO {
 			final Object ... values) {
 		return findMap(DEFAULT_CHAR_LOWER_CASE, strSQL, values);
 	}
+	/**
+	 * 查询返回紧凑的RowList，每行为Object[]，get(i)返回Map视图，适合缓存较大的结果
+	 * @param lowerCase
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
+	public static RowList findRowList(final boolean lowerCase, 
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = findRowList(lowerCase, strSQL, values);
+			}
+		});
+	}
+	public static RowList findRowList(final String strSQL, final Object ... values) {
+		return findRowList(DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	public static RowList findRowList(Connection dbConnection, 
+			String strSQL, Object ... values) {
+		return new DAOCore(dbConnection).findRowList(DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+	}
+	/**
+	 * 查询结果直接写出为JSON数组，内存占用与行数无关，见JSONStreamWriter
+	 * @param out 不关闭
+	 * @param strSQL
+	 * @param values
+	 * @return 写出行数
+	 */
+	public static long writeJSONArray(final Writer out, 
+			final String strSQL, final Object ... values) {
+		return writeJSON(out, false, strSQL, values);
+	}
+	/**
+	 * 查询结果以UTF-8写出为JSON数组
+	 * @param out 不关闭
+	 * @param strSQL
+	 * @param values
+	 * @return 写出行数
+	 */
+	public static long writeJSONArray(OutputStream out, 
+			String strSQL, Object ... values) {
+		return writeJSON(utf8Writer(out), false, strSQL, values);
+	}
+	/**
+	 * 查询结果直接写出为NDJSON，每行一个JSON对象
+	 * @param out 不关闭
+	 * @param strSQL
+	 * @param values
+	 * @return 写出行数
+	 */
+	public static long writeNDJSON(Writer out, 
+			String strSQL, Object ... values) {
+		return writeJSON(out, true, strSQL, values);
+	}
+	public static long writeNDJSON(OutputStream out, 
+			String strSQL, Object ... values) {
+		return writeJSON(utf8Writer(out), true, strSQL, values);
+	}
+	private static long writeJSON(final Writer out, final boolean ndjson, 
+			final String strSQL, final Object ... values) {
+		Long rows = execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = writeJSON(out, ndjson, DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+			}
+		});
+		return rows;
+	}
+	private static Writer utf8Writer(OutputStream out) {
+		try {
+			return new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 查询返回对象列表，列映射到属性或者构造器参数，见BeanMapper
+	 * @param type
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
+	public static <T> List<T> findList(final Class<T> type, 
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = findList(type, strSQL, values);
+			}
+		});
+	}
+	public static <T> List<T> findList(Connection dbConnection, Class<T> type, 
+			String strSQL, Object ... values) {
+		return new DAOCore(dbConnection).findList(type, strSQL, values);
+	}
+	/**
+	 * 查询返回一个对象，没有数据返回null
+	 * @param type
+	 * @param strSQL
+	 * @param values
+	 * @return
+	 */
+	public static <T> T findOne(final Class<T> type, 
+			final String strSQL, final Object ... values) {
+		return execute(new ReadOperator() {
+			@Override
+			public void run()  {
+				result = findOne(type, strSQL, values);
+			}
+		});
+	}
+	public static <T> T findOne(Connection dbConnection, Class<T> type, 
+			String strSQL, Object ... values) {
+		return new DAOCore(dbConnection).findOne(type, strSQL, values);
+	}
 	/**
 	 * 根据preparedStringString 查找一个JSONObject
 	 * @param strSQL, 如: select * from foo where bar = ?
@@ -1190,7 +1727,7 @@ public class BaseDAO {
 	public static JSONArray findJSONArray(final boolean lowerCase, 
 			final String strSQL, 
 			final Object ... values)  {
-		return execute(new ConnectionOperator() {
+		return execute(new ReadOperator() {
 			@Override
 			public void run()  {
 				result = findJSONArray(lowerCase, strSQL, values);
@@ -1199,10 +1736,186 @@ public class BaseDAO {
 	}
 	public static class DAOCore {
 		protected Connection dbConnection;
+		/**
+		 * 未关闭的游标
+		 */
+		private List<Cursor> cursors;
+		/**
+		 * 获取连接耗时，计入连接上的第一个操作
+		 */
+		long acquireNanos;
+		/**
+		 * 写入的表，操作结束后使查询缓存失效
+		 */
+		private Set<String> writtenTables;
+		/**
+		 * 是否执行过写入，用于读己之写窗口
+		 */
+		boolean wrote;
 		public DAOCore(Connection dbConnection) {
 			this.dbConnection = dbConnection;
 		}
 		public DAOCore() { }
+		/**
+		 * 记录写入的表，使查询缓存失效，ConnectionOperator结束（事务提交）后再次失效
+		 * @param table
+		 */
+		protected void tableWritten(String table) {
+			wrote = true;
+			if (table != null && QueryCache.isActive()) {
+				QueryCache.invalidate(table);
+				if (writtenTables == null) {
+					writtenTables = new HashSet<String>();
+				}
+				writtenTables.add(table);
+			}
+		}
+		/**
+		 * 记录写入语句的目标表，见tableWritten
+		 * @param strSQL
+		 */
+		protected void sqlWritten(String strSQL) {
+			wrote = true;
+			if (QueryCache.isActive()) {
+				tableWritten(QueryCache.getWriteTable(strSQL));
+			}
+		}
+		/**
+		 * 嵌套在其他操作中执行时，写入记录合并到外层操作
+		 * @param owner
+		 */
+		void mergeWritten(DAOCore owner) {
+			if (owner == this) {
+				return;
+			}
+			owner.wrote |= wrote;
+			if (writtenTables != null) {
+				if (owner.writtenTables == null) {
+					owner.writtenTables = new HashSet<String>();
+				}
+				owner.writtenTables.addAll(writtenTables);
+				writtenTables = null;
+			}
+		}
+		void invalidateWritten() {
+			if (writtenTables != null) {
+				QueryCache.invalidate(writtenTables);
+				writtenTables = null;
+			}
+		}
+		/**
+		 * 开始一次执行，没有注册执行监听器时返回null，不计时
+		 * @param operation
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		protected ExecutionContext beginExecution(String operation, String strSQL, Object values) {
+			IExecutionListener[] ls = listeners;
+			long acquire = acquireNanos;
+			acquireNanos = 0;
+			if (ls.length == 0) {
+				return null;
+			}
+			ExecutionContext ctx = new ExecutionContext(ls, operation, strSQL, values, acquire);
+			ctx.begin();
+			return ctx;
+		}
+		/**
+		 * 记录执行异常，返回需要抛出的RuntimeException
+		 */
+		private RuntimeException failed(ExecutionContext ctx, Exception e) {
+			if (ctx != null) {
+				ctx.failed(e);
+			}
+			return e instanceof RuntimeException ? 
+				(RuntimeException) e : new RuntimeException(e);
+		}
+		private void endExecution(ExecutionContext ctx) {
+			if (ctx != null) {
+				ctx.end(null);
+			}
+		}
+		/**
+		 * 打开游标，按CURSOR_FETCH_SIZE设置读取行数提示，
+		 * 游标需要关闭，在ConnectionOperator中打开的游标，操作结束时自动关闭
+		 * @param lowerCase
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public Cursor openCursor(boolean lowerCase, String strSQL, Object ... values) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
+			PreparedStatement statement = null;
+			ResultSet rs = null;
+			try {
+				statement = prepareStatement(dbConnection, strSQL, values);
+				dbTrait.setFetchSize(statement, CURSOR_FETCH_SIZE);
+				if (ctx != null) {
+					ctx.prepared();
+				}
+				rs = statement.executeQuery();
+				if (ctx != null) {
+					ctx.executed();
+				}
+				// 游标关闭时结束执行
+				Cursor cursor = new Cursor(this, statement, rs, lowerCase, ctx);
+				if (cursors == null) {
+					cursors = new LinkedList<Cursor>();
+				}
+				cursors.add(cursor);
+				return cursor;
+			} catch (Exception e) {
+				close(statement, rs);
+				if (ctx != null) {
+					ctx.end(e);
+				}
+				throw new RuntimeException(e);
+			}
+		}
+		public Cursor openCursor(String strSQL, Object ... values) {
+			return openCursor(DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+		}
+		void cursorClosed(Cursor cursor) {
+			if (cursors != null) {
+				cursors.remove(cursor);
+			}
+		}
+		/**
+		 * 关闭所有未关闭的游标
+		 */
+		protected void closeCursors() {
+			if (cursors != null) {
+				for (Cursor cursor : new ArrayList<Cursor>(cursors)) {
+					cursor.close();
+				}
+				cursors = null;
+			}
+		}
+		/**
+		 * 游标逐行查询
+		 * @param ro
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public <T> T query(RowOperator ro, String strSQL, Object ... values) {
+			Cursor cursor = openCursor(strSQL, values);
+			try {
+				ro.dbConnection = dbConnection;
+				while (cursor.hasNext()) {
+					ro.row = cursor.next();
+					ro.rowNumber = cursor.getRowCount();
+					ro.run();
+				}
+				return (T) ro.result;
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			} finally {
+				ro.row = null;
+				cursor.close();
+			}
+		}
 		/**
 		 * 查找一个String
 		 * 
@@ -1251,13 +1964,13 @@ public class BaseDAO {
 		}
 
 		public int findInt(String strSQL, Object... values)  {
-			return findObj(strSQL, values);
+			return ((Number) findObj(strSQL, values)).intValue();
 		}
 		public long findLong(String strSQL, Object ... values) {
-			return findObj(strSQL, values);
+			return ((Number) findObj(strSQL, values)).longValue();
 		}
 		public long findDouble(String strSQL, Object ... values) {
-			return findObj(strSQL, values);
+			return ((Number) findObj(strSQL, values)).longValue();
 		}
 		public <T> T findObj(String strSQL, Object... values)  {
 			return query(new ResultSetOperator() {
@@ -1281,32 +1994,56 @@ public class BaseDAO {
 		 * @
 		 */
 		public <T> T query(ResultSetOperator rso, String strSQL, Object ... values) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
 			PreparedStatement statement = null;
 			ResultSet rs = null;
 			try {
 				statement = prepareStatement(dbConnection, strSQL, values);
+				if (ctx != null) {
+					ctx.prepared();
+				}
 				rs = statement.executeQuery();
+				if (ctx != null) {
+					ctx.executed();
+				}
 				rso.dbConnection = dbConnection;
 				rso.resultSet = rs;
 				rso.run();
+				if (ctx != null) { // 读取、映射由ResultSetOperator完成，不能区分，均计为读取
+					ctx.fetched();
+				}
 				return (T) rso.result;
 			} catch (Exception e) {
+				failed(ctx, e);
 				throw new RuntimeException(e);
 			} finally {
 				close(statement, rs);
+				endExecution(ctx);
 			}
 		}
 
 		public boolean execute(String strSQL) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_EXECUTE, strSQL, null);
 			Statement statement = null;
 			try {
-				logger.debug("execute[" + strSQL + "]");
+				if (logger.isDebugEnabled()) {
+					logger.debug("execute[" + strSQL + "]");
+				}
 				statement = dbConnection.createStatement();
-				return statement.execute(strSQL);
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+				if (ctx != null) {
+					ctx.prepared();
+				}
+				boolean rtn = statement.execute(strSQL);
+				if (ctx != null) {
+					ctx.executed();
+				}
+				sqlWritten(strSQL);
+				return rtn;
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement);
+				endExecution(ctx);
 			}
 		}
 		/**
@@ -1315,23 +2052,51 @@ public class BaseDAO {
 		 * @
 		 */
 		public void executeBatch(List<String> listSQLs)  {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_BATCH, null, listSQLs);
 			Statement statement = null;
 			try {
 				statement = dbConnection.createStatement();
-				int i = 0;
+				// 批量SQL各不相同，按第一条语句的写入表记录批大小
+				BatchSizer.Batch batch = BatchSizer.begin(listSQLs.isEmpty() ? "" :
+					"batch:" + QueryCache.getWriteTable(listSQLs.get(0)));
 				for (String sql : listSQLs) {
+					sqlWritten(sql);
 					statement.addBatch(sql);
-					if (++i > SQL_BATCH_SIZE) {
-						i = 0;
-						statement.executeBatch();
+					if (batch.add(1, sql.length() * 2L)) {
+						if (ctx != null) {
+							ctx.prepared();
+						}
+						flushBatch(ctx, statement, 1, batch);
 					}
 				}
-				statement.executeBatch();
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+				if (!batch.isEmpty()) {
+					if (ctx != null) {
+						ctx.prepared();
+					}
+					flushBatch(ctx, statement, 1, batch);
+				}
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement);
+				endExecution(ctx);
+			}
+		}
+		/**
+		 * 执行批，ctx不为空时记录执行耗时以及影响行数，执行耗时记录到batch用于调整批大小
+		 * @return 影响行数
+		 */
+		private int flushBatch(ExecutionContext ctx, Statement statement, 
+				int rowsPerStatement, BatchSizer.Batch batch) throws SQLException {
+			long start = System.nanoTime();
+			int[] results = statement.executeBatch();
+			batch.flushed(System.nanoTime() - start);
+			int rows = countRows(results, rowsPerStatement);
+			if (ctx != null) {
+				ctx.executed();
+				ctx.addRows(rows);
 			}
+			return rows;
 		}
 
 		/**
@@ -1359,24 +2124,98 @@ public class BaseDAO {
 		 */
 		public void executeBatch(String strSQL, JSONArray jaValues)
 				 {
+			if (BatchPipeline.ENABLED && jaValues.length() >= BatchPipeline.MIN_ROWS) {
+				executeBatchPipelined(strSQL, BatchPipeline.iterator(jaValues));
+				return;
+			}
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_BATCH, strSQL, jaValues);
 			PreparedStatement preparedStatement = null;
 			try {
-				logger.debug("execute batch[" + strSQL + "]");
+				if (logger.isDebugEnabled()) {
+					logger.debug("execute batch[" + strSQL + "]");
+				}
+				sqlWritten(strSQL);
 				preparedStatement = dbConnection.prepareStatement(strSQL);
+				BindPlan plan = BindPlan.get(strSQL);
+				BatchSizer.Batch batch = BatchSizer.begin(strSQL);
 				for (int i = 0; i < jaValues.length(); ++i) {
-					setValues(preparedStatement, jaValues
-							.getJSONArray(i));
-					logger.debug(jaValues.getJSONArray(i));
+					JSONArray jaRow = jaValues.getJSONArray(i);
+					setValues(preparedStatement, plan, jaRow);
 					preparedStatement.addBatch();
-					if (i % SQL_BATCH_SIZE == 0 && i != 0) {
-						preparedStatement.executeBatch();
+					if (batch.add(1, BatchSizer.estimateBytes(jaRow))) {
+						if (ctx != null) {
+							ctx.prepared();
+						}
+						flushBatch(ctx, preparedStatement, 1, batch);
+					}
+				}
+				if (!batch.isEmpty()) {
+					if (ctx != null) {
+						ctx.prepared();
 					}
+					flushBatch(ctx, preparedStatement, 1, batch);
 				}
-				preparedStatement.executeBatch();
 			} catch (Exception e) {
+				failed(ctx, e);
 				throw new RuntimeException(e);
 			} finally {
 				close(preparedStatement);
+				endExecution(ctx);
+			}
+		}
+
+		/**
+		 * 流水线执行批SQL，生产线程转换数据行的同时连接线程执行批，见BatchPipeline
+		 * @param strSQL, insert into foobar (?, ?)
+		 * @param jaValues, [[1, 2], [3, 4]]
+		 */
+		public void executeBatchPipelined(String strSQL, JSONArray jaValues) {
+			executeBatchPipelined(strSQL, BatchPipeline.iterator(jaValues));
+		}
+		/**
+		 * 流水线执行批SQL，数据行在生产线程中迭代，可以是按需读取的数据源（如其他连接的游标），
+		 * 返回时生产线程已退出
+		 * @param strSQL, insert into foobar (?, ?)
+		 * @param rows 数据行，每行为Object[]、JSONArray、集合，或者单个值
+		 */
+		public void executeBatchPipelined(String strSQL, Iterator<?> rows) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_BATCH, strSQL, null);
+			PreparedStatement preparedStatement = null;
+			BatchPipeline pipeline = null;
+			try {
+				if (logger.isDebugEnabled()) {
+					logger.debug("execute pipelined batch[" + strSQL + "]");
+				}
+				sqlWritten(strSQL);
+				// 先启动生产线程，预备语句的同时转换第一块
+				pipeline = BatchPipeline.start(rows);
+				preparedStatement = dbConnection.prepareStatement(strSQL);
+				BindPlan plan = BindPlan.get(strSQL);
+				BatchSizer.Batch batch = BatchSizer.begin(strSQL);
+				while (pipeline.next()) {
+					setValues(preparedStatement, plan, pipeline.getRow());
+					preparedStatement.addBatch();
+					if (batch.add(1, pipeline.getBytes())) {
+						if (ctx != null) {
+							ctx.prepared();
+						}
+						flushBatch(ctx, preparedStatement, 1, batch);
+					}
+				}
+				if (!batch.isEmpty()) {
+					if (ctx != null) {
+						ctx.prepared();
+					}
+					flushBatch(ctx, preparedStatement, 1, batch);
+				}
+			} catch (Exception e) {
+				throw failed(ctx, e);
+			} finally {
+				if (pipeline != null) {
+					pipeline.close();
+				}
+				close(preparedStatement);
+				endExecution(ctx);
 			}
 		}
 
@@ -1410,31 +2249,370 @@ public class BaseDAO {
 		 */
 		public boolean insert(String table,
 				JSONObject joModel)  {
+			List<Object> values = new LinkedList<Object>();
+			String insertSQL = dbTrait.genInsertSQL(table, joModel, values);
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_INSERT, insertSQL, values);
 			PreparedStatement statement = null;
 			try {
-				List<Object> values = new LinkedList<Object>();
-				String insertSQL = dbTrait.genInsertSQL(table, joModel, values);
-				logger.debug("new model[" + insertSQL + "]");
-				try {
-					statement = setValues(dbConnection
-							.prepareStatement(insertSQL), values);
-					return statement.executeUpdate() > 0;
-				} catch (SQLException e) {
-					throw new RuntimeException(e);
+				if (logger.isDebugEnabled()) {
+					logger.debug("new model[" + insertSQL + "]");
+				}
+				statement = setValues(dbConnection
+						.prepareStatement(insertSQL), BindPlan.get(insertSQL), values);
+				if (ctx != null) {
+					ctx.prepared();
+				}
+				int rows = statement.executeUpdate();
+				if (ctx != null) {
+					ctx.executed();
+					ctx.addRows(rows);
 				}
+				tableWritten(table);
+				return rows > 0;
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement);
+				endExecution(ctx);
 			}
 		}
 
+		/**
+		 * 批量插入，按列分组（列名排序后相同为一组），
+		 * 每组按方言生成多行插入语句，复用PreparedStatement批量执行，
+		 * 不足一条多行语句的剩余行使用单行插入语句批量执行
+		 * @param table
+		 * @param jaModels
+		 */
 		public void insert(String table, JSONArray jaModels)  {
+			insertBatch(table, jaModels);
+		}
+		/**
+		 * 批量插入，同insert(String, JSONArray)，返回每组插入行数
+		 * @param table
+		 * @param jaModels
+		 * @return 每组插入行数，键为组内排序后的列名，逗号分隔
+		 */
+		public Map<String, Integer> insertBatch(String table, JSONArray jaModels)  {
+			Map<String, String[]> groupColumns = new LinkedHashMap<String, String[]>();
+			Map<String, List<JSONObject>> groups = groupModels(jaModels, groupColumns, null);
+			tableWritten(table);
+			Map<String, Integer> mapCount = new LinkedHashMap<String, Integer>();
+			for (Map.Entry<String, List<JSONObject>> group : groups.entrySet()) {
+				mapCount.put(group.getKey(), insertGroup(table, 
+					groupColumns.get(group.getKey()), group.getValue(), null, null));
+			}
+			return mapCount;
+		}
+		/**
+		 * 插入并返回生成键，不再查询
+		 * @param table
+		 * @param joModel
+		 * @param keyColumn 键列，不为空时生成键写回joModel；Oracle必须指定
+		 * @return 生成键，数据库未生成时为null
+		 */
+		public Object insertReturningKey(String table, JSONObject joModel, String keyColumn) {
+			return insertReturningKeys(table, new JSONArray().put(joModel), keyColumn).get(0);
+		}
+		/**
+		 * 批量插入并返回生成键，分组方式与insert相同，
+		 * 方言支持批量返回生成键时（supportsBatchGeneratedKeys）批量、多行执行，否则逐行执行，不再查询
+		 * @param table
+		 * @param jaModels
+		 * @param keyColumn 键列，不为空时生成键写回每个对象；Oracle必须指定
+		 * @return 生成键，与jaModels顺序相同，空对象为null
+		 */
+		public List<Object> insertReturningKeys(String table, JSONArray jaModels, String keyColumn) {
+			Map<String, String[]> groupColumns = new LinkedHashMap<String, String[]>();
+			Map<String, List<Integer>> groupIndices = new LinkedHashMap<String, List<Integer>>();
+			Map<String, List<JSONObject>> groups = groupModels(jaModels, groupColumns, groupIndices);
+			tableWritten(table);
+			String[] keyColumns = keyColumn != null ? new String[] {keyColumn} : null;
+			Object[] keys = new Object[jaModels.length()];
+			for (Map.Entry<String, List<JSONObject>> group : groups.entrySet()) {
+				List<JSONObject> models = group.getValue();
+				List<Object> groupKeys = new ArrayList<Object>(models.size());
+				insertGroup(table, groupColumns.get(group.getKey()), models, keyColumns, groupKeys);
+				if (groupKeys.size() != models.size()) {
+					throw new IllegalStateException("Generated Keys [" + groupKeys.size() + 
+						"] Not Match Inserted Rows [" + models.size() + "]");
+				}
+				List<Integer> indices = groupIndices.get(group.getKey());
+				for (int i = 0; i < models.size(); ++i) {
+					Object key = groupKeys.get(i);
+					keys[indices.get(i)] = key;
+					if (keyColumn != null) {
+						try {
+							models.get(i).put(keyColumn, key != null ? key : JSONObject.NULL);
+						} catch (JSONException e) {
+							throw new RuntimeException(e);
+						}
+					}
+				}
+			}
+			return Arrays.asList(keys);
+		}
+		/**
+		 * 批量插入Map并返回生成键，keyColumn不为空时生成键写回每个Map
+		 * @param table
+		 * @param models
+		 * @param keyColumn
+		 * @return 生成键，与models顺序相同
+		 */
+		public List<Object> insertReturningKeys(String table, 
+				List<? extends Map<String, Object>> models, String keyColumn) {
+			JSONArray jaModels = new JSONArray();
+			for (Map<String, Object> model : models) {
+				jaModels.put(new JSONObject(model));
+			}
+			List<Object> keys = insertReturningKeys(table, jaModels, keyColumn);
+			if (keyColumn != null) {
+				for (int i = 0; i < keys.size(); ++i) {
+					models.get(i).put(keyColumn, keys.get(i));
+				}
+			}
+			return keys;
+		}
+		/**
+		 * 批量插入或更新，按keyColumns匹配已有数据，存在则更新其余列，否则插入，
+		 * 分组方式与insert相同，每组按方言生成MERGE（Oracle、SQLServer）
+		 * 或者insert ... on duplicate key update（MySQL，按表的主键、唯一索引匹配）语句，
+		 * 复用PreparedStatement批量执行，批大小由BatchSizer按语句调整
+		 * @param table
+		 * @param jaModels
+		 * @param keyColumns 键列，每个对象都需要包含
+		 * @return 每组影响行数（驱动返回值，MySQL更新计2行），键为组内排序后的列名，逗号分隔
+		 */
+		public Map<String, Integer> upsert(String table, JSONArray jaModels, String ... keyColumns)  {
+			if (keyColumns == null || keyColumns.length == 0) {
+				throw new IllegalArgumentException("Upsert Key Columns Required");
+			}
+			Map<String, String[]> groupColumns = new LinkedHashMap<String, String[]>();
+			Map<String, List<JSONObject>> groups = groupModels(jaModels, groupColumns, null);
+			tableWritten(table);
+			Map<String, Integer> mapCount = new LinkedHashMap<String, Integer>();
+			for (Map.Entry<String, List<JSONObject>> group : groups.entrySet()) {
+				String[] columns = groupColumns.get(group.getKey());
+				// 键列使用对象中的列名
+				String[] keys = new String[keyColumns.length];
+				for (int i = 0; i < keys.length; ++i) {
+					int index = indexOfIgnoreCase(columns, keyColumns[i]);
+					if (index < 0) {
+						throw new IllegalArgumentException("Upsert Key Column [" + 
+							keyColumns[i] + "] Not In Columns [" + group.getKey() + "]");
+					}
+					keys[i] = columns[index];
+				}
+				mapCount.put(group.getKey(), upsertGroup(table, columns, keys, group.getValue()));
+			}
+			return mapCount;
+		}
+		/**
+		 * 按列分组，列名排序后相同为一组，忽略空对象
+		 * @param jaModels
+		 * @param groupColumns 输出每组的列
+		 * @param groupIndices 输出每组对象在jaModels中的位置，可为null
+		 * @return
+		 */
+		private Map<String, List<JSONObject>> groupModels(JSONArray jaModels, 
+				Map<String, String[]> groupColumns, Map<String, List<Integer>> groupIndices) {
+			Map<String, List<JSONObject>> groups = new LinkedHashMap<String, List<JSONObject>>();
 			try {
 				for (int i = 0; i < jaModels.length(); ++i) {
-					insert(table, jaModels.getJSONObject(i));
+					JSONObject joModel = jaModels.getJSONObject(i);
+					String[] columns = JSONObject.getNames(joModel);
+					if (columns == null) { // 空对象
+						continue;
+					}
+					Arrays.sort(columns);
+					String key = StringUtils.join(columns, ",");
+					List<JSONObject> group = groups.get(key);
+					if (group == null) {
+						group = new ArrayList<JSONObject>();
+						groups.put(key, group);
+						groupColumns.put(key, columns);
+						if (groupIndices != null) {
+							groupIndices.put(key, new ArrayList<Integer>());
+						}
+					}
+					group.add(joModel);
+					if (groupIndices != null) {
+						groupIndices.get(key).add(i);
+					}
 				}
 			} catch (JSONException e) {
 				throw new RuntimeException(e);
 			}
+			return groups;
+		}
+		/**
+		 * 插入一组相同列的数据
+		 * @param table
+		 * @param columns
+		 * @param models
+		 * @param keyColumns 返回生成键时的键列，可为null
+		 * @param keys 不为空时按行顺序加入生成键
+		 * @return 插入行数
+		 */
+		private int insertGroup(String table, String[] columns, List<JSONObject> models, 
+				String[] keyColumns, List<Object> keys) {
+			int rowsPerStatement = keys != null && !dbTrait.supportsBatchGeneratedKeys() ? 1 :
+				Math.max(1, Math.min(SQL_INSERT_ROWS, dbTrait.getMaxInsertRows(columns.length)));
+			int numMulti = rowsPerStatement > 1 ? models.size() / rowsPerStatement : 0;
+			int count = 0;
+			if (numMulti > 0) {
+				count += insertRows(ExecutionContext.OP_INSERT, 
+					dbTrait.genInsertSQL(table, columns, rowsPerStatement), 
+					columns, models.subList(0, numMulti * rowsPerStatement), rowsPerStatement,
+					keyColumns, keys);
+			}
+			if (numMulti * rowsPerStatement < models.size()) {
+				count += insertRows(ExecutionContext.OP_INSERT, 
+					dbTrait.genInsertSQL(table, columns, 1), 
+					columns, models.subList(numMulti * rowsPerStatement, models.size()), 1,
+					keyColumns, keys);
+			}
+			return count;
+		}
+		/**
+		 * 插入或更新一组相同列的数据，方言支持时每条语句多行
+		 * @return 影响行数
+		 */
+		private int upsertGroup(String table, String[] columns, String[] keys, List<JSONObject> models) {
+			int rowsPerStatement = Math.max(1, 
+				Math.min(SQL_INSERT_ROWS, dbTrait.getMaxUpsertRows(columns.length)));
+			int numMulti = rowsPerStatement > 1 ? models.size() / rowsPerStatement : 0;
+			int count = 0;
+			if (numMulti > 0) {
+				count += insertRows(ExecutionContext.OP_BATCH, 
+					dbTrait.genUpsertSQL(table, columns, keys, rowsPerStatement), 
+					columns, models.subList(0, numMulti * rowsPerStatement), rowsPerStatement,
+					null, null);
+			}
+			if (numMulti * rowsPerStatement < models.size()) {
+				count += insertRows(ExecutionContext.OP_BATCH, 
+					dbTrait.genUpsertSQL(table, columns, keys, 1), 
+					columns, models.subList(numMulti * rowsPerStatement, models.size()), 1,
+					null, null);
+			}
+			return count;
+		}
+		private static int indexOfIgnoreCase(String[] columns, String column) {
+			for (int i = 0; i < columns.length; ++i) {
+				if (columns[i].equalsIgnoreCase(column)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		/**
+		 * 复用PreparedStatement批量执行，每条语句插入rowsPerStatement行，
+		 * 批大小由BatchSizer按语句调整。
+		 * keys不为空时返回生成键，方言不支持批量返回生成键时逐条执行
+		 * @return 插入行数
+		 */
+		private int insertRows(String operation, String insertSQL, String[] columns, 
+				List<JSONObject> models, int rowsPerStatement, String[] keyColumns, List<Object> keys) {
+			ExecutionContext ctx = beginExecution(operation, insertSQL, models);
+			PreparedStatement statement = null;
+			try {
+				if (logger.isDebugEnabled()) {
+					logger.debug("batch insert[" + insertSQL + "]");
+				}
+				boolean each = keys != null && !dbTrait.supportsBatchGeneratedKeys();
+				statement = keys != null ? 
+					dbTrait.prepareReturningKeys(dbConnection, insertSQL, keyColumns) : 
+					dbConnection.prepareStatement(insertSQL);
+				BindPlan plan = BindPlan.get(insertSQL);
+				BatchSizer.Batch batch = BatchSizer.begin(insertSQL);
+				int count = 0, index = 0;
+				long bytes = 0;
+				for (JSONObject joModel : models) {
+					for (String column : columns) {
+						Object value = joModel.opt(column);
+						setValue(statement, plan, ++index, value);
+						bytes += BatchSizer.estimateBytes(value);
+					}
+					if (index == columns.length * rowsPerStatement) { // 一条语句的值已设置完毕
+						index = 0;
+						bytes = 0;
+						if (each) {
+							if (ctx != null) {
+								ctx.prepared();
+							}
+							int rows = statement.executeUpdate();
+							if (ctx != null) {
+								ctx.executed();
+								ctx.addRows(rows);
+							}
+							count += rows;
+							readGeneratedKeys(statement, keys);
+							continue;
+						}
+						statement.addBatch();
+						if (batch.add(rowsPerStatement, bytes)) {
+							if (ctx != null) {
+								ctx.prepared();
+							}
+							count += flushBatch(ctx, statement, rowsPerStatement, batch);
+							if (keys != null) {
+								readGeneratedKeys(statement, keys);
+							}
+						}
+					}
+				}
+				if (!batch.isEmpty()) {
+					if (ctx != null) {
+						ctx.prepared();
+					}
+					count += flushBatch(ctx, statement, rowsPerStatement, batch);
+					if (keys != null) {
+						readGeneratedKeys(statement, keys);
+					}
+				}
+				return count;
+			} catch (Exception e) {
+				throw failed(ctx, e);
+			} finally {
+				close(statement);
+				endExecution(ctx);
+			}
+		}
+		/**
+		 * 读取生成键（第一列），整数转为Long
+		 */
+		private void readGeneratedKeys(Statement statement, List<Object> keys) throws SQLException {
+			ResultSet rs = statement.getGeneratedKeys();
+			try {
+				while (rs.next()) {
+					Object key = rs.getObject(1);
+					if (key instanceof BigInteger && ((BigInteger) key).bitLength() < 64) {
+						key = ((BigInteger) key).longValue();
+					} else if (key instanceof BigDecimal && ((BigDecimal) key).scale() <= 0 &&
+							((BigDecimal) key).precision() < 19) {
+						key = ((BigDecimal) key).longValue();
+					} else if (key instanceof Integer || key instanceof Short) {
+						key = ((Number) key).longValue();
+					}
+					keys.add(key);
+				}
+			} finally {
+				close(rs);
+			}
+		}
+		/**
+		 * 统计批量执行更新行数，驱动返回SUCCESS_NO_INFO时按语句行数计
+		 */
+		private int countRows(int[] results, int rowsPerStatement) {
+			int count = 0;
+			for (int r : results) {
+				if (r >= 0) {
+					count += r;
+				} else if (r == Statement.SUCCESS_NO_INFO) {
+					count += rowsPerStatement;
+				}
+			}
+			return count;
 		}
 
 		/**
@@ -1452,16 +2630,35 @@ public class BaseDAO {
 		 * @
 		 */
 		public int update(String table, JSONObject joModel, JSONObject where)  {
+			List<Object> values = new LinkedList<Object>();
+			String updateSQL = genUpdateSQL(table, joModel, where, values);
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_UPDATE, updateSQL, values);
 			PreparedStatement statement = null;
 			try {
-				statement = genUpdateStatement(dbConnection, table, joModel,
-						where);
-				return statement.executeUpdate();
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+				statement = setValues(dbConnection.prepareStatement(updateSQL), 
+						BindPlan.get(updateSQL), values);
+				tableWritten(table);
+				return executeUpdate(ctx, statement);
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement);
+				endExecution(ctx);
+			}
+		}
+		/**
+		 * 执行更新，ctx不为空时记录预备、执行耗时以及影响行数
+		 */
+		private int executeUpdate(ExecutionContext ctx, PreparedStatement statement) throws SQLException {
+			if (ctx != null) {
+				ctx.prepared();
+			}
+			int rows = statement.executeUpdate();
+			if (ctx != null) {
+				ctx.executed();
+				ctx.addRows(rows);
 			}
+			return rows;
 		}
 
 		/**
@@ -1477,14 +2674,17 @@ public class BaseDAO {
 		 * @
 		 */
 		public int update(final String strSQL, final Object... values)  {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_UPDATE, strSQL, values);
 			PreparedStatement statement = null;
 			try {
 				statement = prepareStatement(dbConnection, strSQL, values);
-				return statement.executeUpdate();
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+				sqlWritten(strSQL);
+				return executeUpdate(ctx, statement);
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement);
+				endExecution(ctx);
 			}
 		}
 
@@ -1511,35 +2711,52 @@ public class BaseDAO {
 		public List<Map<String, Object>> findMapList(final boolean lowerCase,
 				final String strSQL,
 				final Object... values)  {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
 			PreparedStatement statement = null;
 			ResultSet resultSet = null;
 			try {
 				statement = prepareStatement(dbConnection, strSQL, values);
-				resultSet = statement.executeQuery();
-				return getMapList(resultSet, lowerCase);
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+				resultSet = executeQuery(ctx, statement);
+				return getMapList(resultSet, lowerCase, ctx);
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement, resultSet);
+				endExecution(ctx);
+			}
+		}
+		/**
+		 * 执行查询，ctx不为空时记录预备、执行耗时
+		 */
+		private ResultSet executeQuery(ExecutionContext ctx, PreparedStatement statement) throws SQLException {
+			if (ctx != null) {
+				ctx.prepared();
 			}
+			ResultSet rs = statement.executeQuery();
+			if (ctx != null) {
+				ctx.executed();
+			}
+			return rs;
 		}
 
 		public List<Map<String, Object>> findMapListPage(final boolean lowerCase,
 				String orderCol, String direction,
 				int start, int limit, String strSQL, final Object... values)
 				 {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
 			PreparedStatement statement = null;
 			ResultSet resultSet = null;
 			try {
 				statement = prepareStatement(dbConnection, dbTrait
 						.pageStatement(orderCol, direction, start, limit,
 								strSQL, values));
-				resultSet = statement.executeQuery();
-				return getMapList(resultSet, lowerCase);
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+				resultSet = executeQuery(ctx, statement);
+				return getMapList(resultSet, lowerCase, ctx);
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement, resultSet);
+				endExecution(ctx);
 			}
 		}
 
@@ -1565,6 +2782,56 @@ public class BaseDAO {
 					direction, start, limit, strSQL, values);
 		}
 
+		/**
+		 * 键集分页
+		 * @param lowerCase
+		 * @param orderBy 排序，如："created_at desc, id"
+		 * @param token 续读标记，第一页为null
+		 * @param limit
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public KeysetPage findKeysetPage(boolean lowerCase, String orderBy, String token,
+				int limit, String strSQL, Object... values) {
+			return findKeysetPageAfter(lowerCase, orderBy, 
+				token != null ? KeysetPage.decodeToken(token, orderBy, strSQL) : null, 
+				limit, strSQL, values);
+		}
+		public KeysetPage findKeysetPage(String orderBy, String token,
+				int limit, String strSQL, Object... values) {
+			return findKeysetPage(DEFAULT_CHAR_LOWER_CASE, orderBy, token, limit, strSQL, values);
+		}
+		/**
+		 * 键集分页，多读取一行判断是否有下一页
+		 * @param lowerCase
+		 * @param orderBy
+		 * @param lastKeys 上一页最后一行的排序键，第一页为null
+		 * @param limit
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public KeysetPage findKeysetPageAfter(boolean lowerCase, String orderBy, Object[] lastKeys,
+				int limit, String strSQL, Object... values) {
+			if (limit < 1) {
+				throw new IllegalArgumentException("Invalid Page Limit [" + limit + "]");
+			}
+			String[][] order = KeysetPage.parseOrderBy(orderBy);
+			// 先展开集合、命名占位，排序键追加在展开后的值之后
+			List<Object> expanded = new ArrayList<Object>();
+			String expandedSQL = expandSQL(strSQL, expanded, values);
+			QueryStatement qs = dbTrait.seekStatement(order[0], order[1], 
+				lastKeys, limit + 1, expandedSQL, expanded.toArray());
+			List<Map<String, Object>> rows = findMapList(lowerCase, qs.getStrSQL(), qs.getValues());
+			if (rows.size() <= limit) {
+				return new KeysetPage(rows, null, null);
+			}
+			rows.remove(rows.size() - 1);
+			Object[] keys = KeysetPage.getKeys(rows.get(rows.size() - 1), order[0]);
+			return new KeysetPage(rows, keys, KeysetPage.encodeToken(orderBy, strSQL, keys));
+		}
+
 		public List<Map<String, Object>> findMapList(
 				final String strSQL, final Object... values)  {
 			return findMapList(DEFAULT_CHAR_LOWER_CASE, strSQL,
@@ -1600,18 +2867,31 @@ public class BaseDAO {
 		 */
 		public Map<String, Object> findMap(boolean lowerCase,
 				final String strSQL, final Object... values)  {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
 			PreparedStatement statement = null;
 			ResultSet resultSet = null;
 			Map<String, Object> mapRtn = null;
 			try {
 				statement = prepareStatement(dbConnection, strSQL, values);
-				resultSet = statement.executeQuery();
-				if (resultSet.next())
+				resultSet = executeQuery(ctx, statement);
+				boolean found = resultSet.next();
+				if (ctx != null) {
+					ctx.fetched();
+				}
+				if (found) {
 					mapRtn = getMap(resultSet, lowerCase);
-			} catch (SQLException e) {
-				throw new RuntimeException(e);
+					if (ctx != null) {
+						ctx.mapped();
+					}
+				}
+				if (ctx != null) {
+					ctx.addRows(found ? 1 : 0);
+				}
+			} catch (Exception e) {
+				throw failed(ctx, e);
 			} finally {
 				close(statement, resultSet);
+				endExecution(ctx);
 			}
 			return mapRtn;
 		}
@@ -1620,6 +2900,147 @@ public class BaseDAO {
 				final Object... values)  {
 			return findMap(DEFAULT_CHAR_LOWER_CASE, strSQL, values);
 		}
+		/**
+		 * 查询返回紧凑的RowList
+		 * @param lowerCase
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public RowList findRowList(boolean lowerCase, String strSQL, Object... values) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
+			PreparedStatement statement = null;
+			ResultSet resultSet = null;
+			try {
+				statement = prepareStatement(dbConnection, strSQL, values);
+				resultSet = executeQuery(ctx, statement);
+				return getRowList(resultSet, lowerCase, ctx);
+			} catch (Exception e) {
+				throw failed(ctx, e);
+			} finally {
+				close(statement, resultSet);
+				endExecution(ctx);
+			}
+		}
+		public RowList findRowList(String strSQL, Object... values) {
+			return findRowList(DEFAULT_CHAR_LOWER_CASE, strSQL, values);
+		}
+		/**
+		 * 查询结果直接写出为JSON，按CURSOR_FETCH_SIZE读取，内存占用与行数无关
+		 * @param out 不关闭
+		 * @param ndjson true写NDJSON，false写JSON数组
+		 * @param lowerCase
+		 * @param strSQL
+		 * @param values
+		 * @return 写出行数
+		 */
+		public long writeJSON(Writer out, boolean ndjson, boolean lowerCase, 
+				String strSQL, Object... values) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
+			PreparedStatement statement = null;
+			ResultSet resultSet = null;
+			try {
+				statement = prepareStatement(dbConnection, strSQL, values);
+				dbTrait.setFetchSize(statement, CURSOR_FETCH_SIZE);
+				resultSet = executeQuery(ctx, statement);
+				JSONStreamWriter writer = new JSONStreamWriter(out, 
+					ColumnPlan.build(resultSet, lowerCase), ndjson);
+				writer.begin();
+				while (resultSet.next()) {
+					if (ctx != null) {
+						ctx.fetched();
+					}
+					writer.writeRow(resultSet);
+					if (ctx != null) {
+						ctx.mapped();
+					}
+				}
+				writer.end();
+				if (ctx != null) {
+					ctx.fetched();
+					ctx.addRows(writer.getRowCount());
+				}
+				return writer.getRowCount();
+			} catch (Exception e) {
+				throw failed(ctx, e);
+			} finally {
+				close(statement, resultSet);
+				endExecution(ctx);
+			}
+		}
+		/**
+		 * 查询返回对象列表，映射器每个（类，列布局）只生成一次
+		 * @param type
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public <T> List<T> findList(Class<T> type, String strSQL, Object... values) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
+			PreparedStatement statement = null;
+			ResultSet resultSet = null;
+			try {
+				statement = prepareStatement(dbConnection, strSQL, values);
+				resultSet = executeQuery(ctx, statement);
+				BeanMapper<T> mapper = BeanMapper.get(type, resultSet);
+				List<T> list = new ArrayList<T>();
+				while (resultSet.next()) {
+					if (ctx != null) {
+						ctx.fetched();
+					}
+					list.add(mapper.map(resultSet));
+					if (ctx != null) {
+						ctx.mapped();
+					}
+				}
+				if (ctx != null) {
+					ctx.fetched();
+					ctx.addRows(list.size());
+				}
+				return list;
+			} catch (Exception e) {
+				throw failed(ctx, e);
+			} finally {
+				close(statement, resultSet);
+				endExecution(ctx);
+			}
+		}
+		/**
+		 * 查询返回一个对象，没有数据返回null
+		 * @param type
+		 * @param strSQL
+		 * @param values
+		 * @return
+		 */
+		public <T> T findOne(Class<T> type, String strSQL, Object... values) {
+			ExecutionContext ctx = beginExecution(ExecutionContext.OP_QUERY, strSQL, values);
+			PreparedStatement statement = null;
+			ResultSet resultSet = null;
+			try {
+				statement = prepareStatement(dbConnection, strSQL, values);
+				resultSet = executeQuery(ctx, statement);
+				boolean found = resultSet.next();
+				if (ctx != null) {
+					ctx.fetched();
+				}
+				T obj = null;
+				if (found) {
+					obj = BeanMapper.get(type, resultSet).map(resultSet);
+					if (ctx != null) {
+						ctx.mapped();
+					}
+				}
+				if (ctx != null) {
+					ctx.addRows(found ? 1 : 0);
+				}
+				return obj;
+			} catch (Exception e) {
+				throw failed(ctx, e);
+			} finally {
+				close(statement, resultSet);
+				endExecution(ctx);
+			}
+		}
 
 		/**
 		 * 根据preparedStringString 查找一个JSONObject
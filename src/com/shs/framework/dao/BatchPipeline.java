@@ -0,0 +1,272 @@
+package com.shs.framework.dao;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 流水线批量执行，生产线程读取数据行（迭代器、JSONArray），转换为参数数组并估算字节数，
+ * 	每CHUNK_ROWS行一块，通过容量为QUEUE_CHUNKS块的有界队列交给连接所在线程，
+ * 	连接线程设值、addBatch、executeBatch，执行批的同时生产线程准备后续的行。
+ * 	JDBC语句不支持多线程，设值与执行批仍在连接线程中依次进行，生产线程只处理数据源读取以及行的转换。
+ * 	ENABLED为true时，DAOCore.executeBatch(String, JSONArray)不少于MIN_ROWS行时使用流水线
+ * @date created: Oct 18, 2026 11:48:16 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BatchPipeline {
+	/**
+	 * executeBatch(String, JSONArray)是否使用流水线
+	 */
+	public static boolean ENABLED = false;
+	/**
+	 * ENABLED为true时，使用流水线的最少行数，行数较少时线程切换的开销大于收益
+	 */
+	public static int MIN_ROWS = 1024;
+	/**
+	 * 每块行数
+	 */
+	public static int CHUNK_ROWS = 256;
+	/**
+	 * 队列容量（块），生产线程最多领先QUEUE_CHUNKS块
+	 */
+	public static int QUEUE_CHUNKS = 4;
+	/**
+	 * 生产线程执行器，为空使用默认执行器（守护线程）
+	 */
+	public static Executor EXECUTOR = null;
+	private static volatile ExecutorService defaultExecutor;
+
+	private final BlockingQueue<Object> queue;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private volatile boolean cancelled = false;
+	/**
+	 * 连接线程当前块以及行位置
+	 */
+	private Chunk chunk;
+	private int index;
+	private boolean ended = false;
+
+	private BatchPipeline() {
+		queue = new ArrayBlockingQueue<Object>(Math.max(1, QUEUE_CHUNKS));
+	}
+	/**
+	 * 启动生产线程
+	 * @param rows 数据行，每行为Object[]、JSONArray、集合，或者单个值
+	 * @return
+	 */
+	static BatchPipeline start(final Iterator<?> rows) {
+		final BatchPipeline pipeline = new BatchPipeline();
+		getExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				pipeline.produce(rows);
+			}
+		});
+		return pipeline;
+	}
+	/**
+	 * JSONArray按行迭代
+	 * @param jaValues
+	 * @return
+	 */
+	static Iterator<Object> iterator(final JSONArray jaValues) {
+		return new Iterator<Object>() {
+			private int i = 0;
+			@Override
+			public boolean hasNext() {
+				return i < jaValues.length();
+			}
+			@Override
+			public Object next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return jaValues.opt(i++);
+			}
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+	private void produce(Iterator<?> rows) {
+		try {
+			int size = Math.max(1, CHUNK_ROWS);
+			Chunk chunk = new Chunk(size);
+			while (!cancelled && rows.hasNext()) {
+				chunk.add(toParams(rows.next()));
+				if (chunk.size == size) {
+					if (!offer(chunk)) {
+						return;
+					}
+					chunk = new Chunk(size);
+				}
+			}
+			if (chunk.size > 0 && !offer(chunk)) {
+				return;
+			}
+			offer(new End(null));
+		} catch (Throwable e) {
+			offer(new End(e));
+		} finally {
+			done.countDown();
+		}
+	}
+	/**
+	 * 放入队列，队列满时等待，取消后返回false
+	 */
+	private boolean offer(Object item) {
+		try {
+			while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+				if (cancelled) {
+					return false;
+				}
+			}
+			return !cancelled;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	/**
+	 * 行转换为参数数组
+	 */
+	private static Object[] toParams(Object row) {
+		if (row instanceof Object[]) {
+			return (Object[]) row;
+		}
+		if (row instanceof JSONArray) {
+			JSONArray jaRow = (JSONArray) row;
+			Object[] params = new Object[jaRow.length()];
+			for (int i = 0; i < params.length; ++i) {
+				params[i] = jaRow.opt(i);
+			}
+			return params;
+		}
+		if (row instanceof Collection<?>) {
+			return ((Collection<?>) row).toArray();
+		}
+		return new Object[] {row};
+	}
+	/**
+	 * 连接线程取下一行，生产线程异常时抛出
+	 * @return 是否还有行
+	 * @throws InterruptedException
+	 */
+	boolean next() throws InterruptedException {
+		if (chunk != null && ++index < chunk.size) {
+			return true;
+		}
+		chunk = null;
+		if (ended) {
+			return false;
+		}
+		Object item = queue.take();
+		if (item instanceof End) {
+			ended = true;
+			((End) item).check();
+			return false;
+		}
+		chunk = (Chunk) item;
+		index = 0;
+		return true;
+	}
+	/**
+	 * 当前行参数
+	 * @return
+	 */
+	Object[] getRow() {
+		return chunk.rows[index];
+	}
+	/**
+	 * 当前行估算字节数
+	 * @return
+	 */
+	long getBytes() {
+		return chunk.bytes[index];
+	}
+	/**
+	 * 结束流水线，未结束时取消生产线程，并等待生产线程退出，之后数据源可以安全关闭
+	 */
+	void close() {
+		cancelled = true;
+		queue.clear();
+		try {
+			done.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	static Executor getExecutor() {
+		Executor executor = EXECUTOR;
+		if (executor != null) {
+			return executor;
+		}
+		if (defaultExecutor == null) {
+			synchronized (BatchPipeline.class) {
+				if (defaultExecutor == null) {
+					final AtomicInteger seq = new AtomicInteger();
+					defaultExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable r) {
+							Thread t = new Thread(r, "BaseDAO-Batch-Pipeline-" + seq.incrementAndGet());
+							t.setDaemon(true);
+							return t;
+						}
+					});
+				}
+			}
+		}
+		return defaultExecutor;
+	}
+	/**
+	 * 一块已转换的行
+	 */
+	private static class Chunk {
+		final Object[][] rows;
+		final long[] bytes;
+		int size = 0;
+		Chunk(int capacity) {
+			rows = new Object[capacity][];
+			bytes = new long[capacity];
+		}
+		void add(Object[] params) {
+			long b = 0;
+			for (Object value : params) {
+				b += BatchSizer.estimateBytes(value);
+			}
+			rows[size] = params;
+			bytes[size++] = b;
+		}
+	}
+	/**
+	 * 生产结束，带生产线程异常
+	 */
+	private static class End {
+		final Throwable error;
+		End(Throwable error) {
+			this.error = error;
+		}
+		void check() {
+			if (error != null) {
+				throw error instanceof RuntimeException ?
+					(RuntimeException) error : new RuntimeException(error);
+			}
+		}
+	}
+}
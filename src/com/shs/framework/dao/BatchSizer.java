@@ -0,0 +1,218 @@
+package com.shs.framework.dao;
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.util.Date;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 自适应批大小，按语句（预备SQL，或者批量SQL的写入表）分别记录批的执行耗时以及每行字节数，
+ * 	耗时按 固定开销 + 每行耗时 × 行数 拟合（指数加权最小二乘），固定开销（网络往返等）不计入每行耗时。
+ * 	批大小调整为每行耗时部分约TARGET_FLUSH_MILLIS毫秒（固定开销超过此值时不小于固定开销），
+ * 	并且一次批不超过MAX_BATCH_BYTES字节，在[MIN_SIZE, MAX_SIZE]之间，每次最多增大一倍，
+ * 	每行耗时尚无法估计（批大小没有变化）时增大一倍。窄行、快速的语句使用大批，宽行（LOB）使用小批。
+ * 	首次执行使用BaseDAO.SQL_BATCH_SIZE，ENABLED为false时固定为SQL_BATCH_SIZE
+ * @date created: Oct 18, 2026 11:06:44 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BatchSizer {
+	/**
+	 * 是否启用自适应批大小
+	 */
+	public static boolean ENABLED = true;
+	/**
+	 * 最小批大小（行）
+	 */
+	public static int MIN_SIZE = 16;
+	/**
+	 * 最大批大小（行）
+	 */
+	public static int MAX_SIZE = 16384;
+	/**
+	 * 一次批最大字节数（估算），超过时提前执行
+	 */
+	public static long MAX_BATCH_BYTES = 4L * 1024 * 1024;
+	/**
+	 * 一次批的目标执行时间（毫秒）
+	 */
+	public static long TARGET_FLUSH_MILLIS = 100;
+	/**
+	 * 记录语句数量
+	 */
+	public static int CACHE_SIZE = 1024;
+	/**
+	 * 指数平均权重
+	 */
+	private static final double ALPHA = 0.3;
+	private static final BoundedCache<String, Shape> shapes =
+			new BoundedCache<String, Shape>();
+
+	/**
+	 * 开始一次批量执行
+	 * @param key 语句
+	 * @return
+	 */
+	static Batch begin(String key) {
+		return new Batch(ENABLED ? getShape(key) : null);
+	}
+	/**
+	 * 语句当前的批大小
+	 * @param key
+	 * @return
+	 */
+	public static int getBatchSize(String key) {
+		Shape shape = shapes.get(key);
+		return shape != null ? shape.size : BaseDAO.SQL_BATCH_SIZE;
+	}
+	public static void clear() {
+		shapes.clear();
+	}
+	private static Shape getShape(String key) {
+		Shape shape = shapes.get(key);
+		if (shape == null) {
+			// 超出容量时淘汰最久未使用的语句，常用语句保留已调整的批大小
+			shape = shapes.putIfAbsent(key, new Shape(), CACHE_SIZE);
+		}
+		return shape;
+	}
+	/**
+	 * 估算值的字节数
+	 * @param value
+	 * @return
+	 */
+	static long estimateBytes(Object value) {
+		if (value == null || value == JSONObject.NULL) {
+			return 1;
+		}
+		if (value instanceof String) {
+			return ((String) value).length() * 2L;
+		}
+		if (value instanceof Number && !(value instanceof BigDecimal) ||
+				value instanceof Boolean || value instanceof Date) {
+			return 8;
+		}
+		if (value instanceof byte[]) {
+			return ((byte[]) value).length;
+		}
+		if (value instanceof File) {
+			return ((File) value).length();
+		}
+		if (value instanceof LazyBlob) {
+			return ((LazyBlob) value).length();
+		}
+		if (value instanceof Blob) {
+			try {
+				return ((Blob) value).length();
+			} catch (Exception e) {
+				return BaseDAO.BINARY_INLINE_LIMIT;
+			}
+		}
+		if (value instanceof InputStream) {
+			return BaseDAO.BINARY_INLINE_LIMIT; // 长度未知
+		}
+		if (value instanceof JSONArray) {
+			JSONArray ja = (JSONArray) value;
+			long bytes = 0;
+			for (int i = 0; i < ja.length(); ++i) {
+				bytes += estimateBytes(ja.opt(i));
+			}
+			return bytes;
+		}
+		return value.toString().length() * 2L;
+	}
+	/**
+	 * 语句的执行统计
+	 */
+	private static class Shape {
+		volatile int size = Math.max(1, BaseDAO.SQL_BATCH_SIZE);
+		/**
+		 * 行数、耗时（纳秒）的指数加权和，用于拟合 耗时 = fixedNanos + nanosPerRow × 行数
+		 */
+		private double sw, sx, sy, sxx, sxy;
+		/**
+		 * 最近一次拟合的固定开销、每行耗时（纳秒），每行耗时小于等于0为未拟合或者可忽略
+		 */
+		private double fixedNanos = 0;
+		private double nanosPerRow = -1;
+		/**
+		 * 每行字节数，指数平均，小于0为未记录
+		 */
+		private double bytesPerRow = -1;
+		synchronized void record(int rows, long bytes, long nanos) {
+			double bpr = (double) bytes / rows;
+			bytesPerRow = bytesPerRow < 0 ? bpr : bytesPerRow + ALPHA * (bpr - bytesPerRow);
+			double decay = 1 - ALPHA;
+			sw = sw * decay + 1;
+			sx = sx * decay + rows;
+			sy = sy * decay + nanos;
+			sxx = sxx * decay + (double) rows * rows;
+			sxy = sxy * decay + (double) rows * nanos;
+			double d = sw * sxx - sx * sx;
+			// 行数有足够变化时重新拟合，否则沿用上次拟合
+			if (d > sx * sx * 1e-3) {
+				double b = (sw * sxy - sx * sy) / d;
+				nanosPerRow = b;
+				fixedNanos = b > 0 ? Math.max(0, (sy - b * sx) / sw) : 0;
+			}
+			double target;
+			if (nanosPerRow > 0) {
+				double targetNanos = TARGET_FLUSH_MILLIS * 1e6;
+				target = Math.max(targetNanos - fixedNanos, fixedNanos) / nanosPerRow;
+			} else {
+				// 每行耗时未知或者可忽略，不缩小
+				target = size * 2.0;
+			}
+			target = Math.min(target, MAX_BATCH_BYTES / Math.max(bytesPerRow, 1));
+			target = Math.min(target, size * 2.0);
+			size = (int) Math.max(MIN_SIZE, Math.min(MAX_SIZE, target));
+		}
+	}
+	/**
+	 * 一次批量执行，记录当前批的行数、字节数
+	 */
+	static class Batch {
+		private final Shape shape;
+		private int size;
+		private int rows;
+		private long bytes;
+		Batch(Shape shape) {
+			this.shape = shape;
+			size = shape != null ? shape.size : Math.max(1, BaseDAO.SQL_BATCH_SIZE);
+		}
+		/**
+		 * 加入批
+		 * @param rows 行数
+		 * @param bytes 估算字节数
+		 * @return 是否需要执行批
+		 */
+		boolean add(int rows, long bytes) {
+			this.rows += rows;
+			this.bytes += bytes;
+			return this.rows >= size || (shape != null && this.bytes >= MAX_BATCH_BYTES);
+		}
+		boolean isEmpty() {
+			return rows == 0;
+		}
+		/**
+		 * 批已执行，记录耗时，不足半批（剩余行）的耗时不记录
+		 * @param nanos
+		 */
+		void flushed(long nanos) {
+			if (shape != null && rows > 0 &&
+					(rows * 2 >= size || bytes >= MAX_BATCH_BYTES)) {
+				shape.record(rows, bytes, nanos);
+				size = shape.size;
+			}
+			rows = 0;
+			bytes = 0;
+		}
+	}
+}
@@ -0,0 +1,441 @@
+package com.shs.framework.dao;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 结果集行到Java对象的映射器，每个（类，列布局）生成一次，之后每行复用。
+ * 	列名与属性名忽略大小写以及下划线匹配，如user_name对应userName，没有对应属性的列忽略。
+ * 	有无参构造器时按setter（public setXxx）或者属性赋值，否则使用参数名与列名全部匹配的构造器
+ * 	（需要-parameters编译，或者record），再否则使用参数数量与列数相同的构造器按列顺序赋值。
+ * 	赋值通过MethodHandle，基本类型属性使用getInt等读取，不装箱
+ * @date created: Oct 18, 2026 8:06:44 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BeanMapper<T> {
+	/**
+	 * 映射器缓存数量
+	 */
+	public static int CACHE_SIZE = 1024;
+	private static final BoundedCache<String, BeanMapper<?>> cache =
+			new BoundedCache<String, BeanMapper<?>>();
+	// 基本类型
+	private static final int P_BOOLEAN = 0;
+	private static final int P_BYTE = 1;
+	private static final int P_SHORT = 2;
+	private static final int P_INT = 3;
+	private static final int P_LONG = 4;
+	private static final int P_FLOAT = 5;
+	private static final int P_DOUBLE = 6;
+	// 包装类型，null保持null
+	private static final int K_BOOLEAN = 10;
+	private static final int K_BYTE = 11;
+	private static final int K_SHORT = 12;
+	private static final int K_INT = 13;
+	private static final int K_LONG = 14;
+	private static final int K_FLOAT = 15;
+	private static final int K_DOUBLE = 16;
+	// 其它类型
+	private static final int K_STRING = 20;
+	private static final int K_BIG_DECIMAL = 21;
+	private static final int K_TIMESTAMP = 22;
+	private static final int K_SQL_DATE = 23;
+	private static final int K_TIME = 24;
+	private static final int K_BYTES = 25;
+	private static final int K_ENUM = 26;
+	private static final int K_OBJECT = 27;
+	private static final Map<Class<?>, Integer> KINDS = new HashMap<Class<?>, Integer>();
+	static {
+		KINDS.put(boolean.class, P_BOOLEAN);
+		KINDS.put(byte.class, P_BYTE);
+		KINDS.put(short.class, P_SHORT);
+		KINDS.put(int.class, P_INT);
+		KINDS.put(long.class, P_LONG);
+		KINDS.put(float.class, P_FLOAT);
+		KINDS.put(double.class, P_DOUBLE);
+		KINDS.put(Boolean.class, K_BOOLEAN);
+		KINDS.put(Byte.class, K_BYTE);
+		KINDS.put(Short.class, K_SHORT);
+		KINDS.put(Integer.class, K_INT);
+		KINDS.put(Long.class, K_LONG);
+		KINDS.put(Float.class, K_FLOAT);
+		KINDS.put(Double.class, K_DOUBLE);
+		KINDS.put(String.class, K_STRING);
+		KINDS.put(BigDecimal.class, K_BIG_DECIMAL);
+		// java.util.Date属性使用Timestamp
+		KINDS.put(Timestamp.class, K_TIMESTAMP);
+		KINDS.put(java.util.Date.class, K_TIMESTAMP);
+		KINDS.put(java.sql.Date.class, K_SQL_DATE);
+		KINDS.put(Time.class, K_TIME);
+		KINDS.put(byte[].class, K_BYTES);
+	}
+	private static final MethodType TYPE_FACTORY = MethodType.methodType(Object.class);
+	private static final MethodType TYPE_CONSTRUCTOR =
+			MethodType.methodType(Object.class, Object[].class);
+
+	private final Class<T> type;
+	/**
+	 * ResultSet列序号，从1开始
+	 */
+	private final int[] indexes;
+	private final int[] kinds;
+	private final Class<?>[] targets;
+	/**
+	 * 属性setter，(Object, 属性类型)void，构造器方式为null
+	 */
+	private final MethodHandle[] setters;
+	/**
+	 * 无参构造器()Object，或者构造器(Object[])Object
+	 */
+	private final MethodHandle constructor;
+
+	private BeanMapper(Class<T> type, int[] indexes, int[] kinds, Class<?>[] targets,
+			MethodHandle[] setters, MethodHandle constructor) {
+		this.type = type;
+		this.indexes = indexes;
+		this.kinds = kinds;
+		this.targets = targets;
+		this.setters = setters;
+		this.constructor = constructor;
+	}
+	/**
+	 * 取得结果集对应的映射器
+	 * @param type
+	 * @param rs
+	 * @return
+	 */
+	public static <T> BeanMapper<T> get(Class<T> type, ResultSet rs) {
+		try {
+			return get(type, rs.getMetaData());
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	@SuppressWarnings("unchecked")
+	public static <T> BeanMapper<T> get(Class<T> type, ResultSetMetaData metaData) {
+		ColumnPlan plan = ColumnPlan.build(metaData, true);
+		StringBuilder sbKey = new StringBuilder(type.getName());
+		for (int i = 0; i < plan.size(); ++i) {
+			sbKey.append(',').append(plan.getName(i));
+		}
+		String key = sbKey.toString();
+		BeanMapper<T> mapper = (BeanMapper<T>) cache.get(key);
+		if (mapper == null) {
+			// 超出容量时淘汰最久未使用的
+			mapper = (BeanMapper<T>) cache.putIfAbsent(key, build(type, plan), CACHE_SIZE);
+		}
+		return mapper;
+	}
+	public static void clearCache() {
+		cache.clear();
+	}
+	@SuppressWarnings("unchecked")
+	private static <T> BeanMapper<T> build(Class<T> type, ColumnPlan plan) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			Constructor<T> noArgs = null;
+			for (Constructor<?> c : type.getDeclaredConstructors()) {
+				if (c.getParameterTypes().length == 0) {
+					noArgs = (Constructor<T>) c;
+				}
+			}
+			if (noArgs != null) {
+				noArgs.setAccessible(true);
+				return buildSetters(type, plan, lookup,
+					lookup.unreflectConstructor(noArgs).asType(TYPE_FACTORY));
+			}
+			return buildConstructor(type, plan, lookup);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 无参构造器，按setter或者属性赋值
+	 */
+	private static <T> BeanMapper<T> buildSetters(Class<T> type, ColumnPlan plan,
+			MethodHandles.Lookup lookup, MethodHandle factory) throws IllegalAccessException {
+		Map<String, Field> fields = new HashMap<String, Field>();
+		for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field field : c.getDeclaredFields()) {
+				int mod = field.getModifiers();
+				if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || Modifier.isFinal(mod)) {
+					continue;
+				}
+				String name = normalize(field.getName());
+				if (!fields.containsKey(name)) { // 子类优先
+					fields.put(name, field);
+				}
+			}
+		}
+		int n = 0;
+		int[] indexes = new int[plan.size()];
+		int[] kinds = new int[plan.size()];
+		Class<?>[] targets = new Class<?>[plan.size()];
+		MethodHandle[] setters = new MethodHandle[plan.size()];
+		for (int i = 0; i < plan.size(); ++i) {
+			Field field = fields.remove(normalize(plan.getName(i)));
+			if (field == null) {
+				continue;
+			}
+			Class<?> target = field.getType();
+			MethodHandle setter = null;
+			Method method = findSetter(type, field);
+			if (method != null) {
+				method.setAccessible(true);
+				setter = lookup.unreflect(method);
+			} else {
+				field.setAccessible(true);
+				setter = lookup.unreflectSetter(field);
+			}
+			indexes[n] = plan.getIndex(i);
+			kinds[n] = kindOf(target);
+			targets[n] = target;
+			setters[n] = setter.asType(MethodType.methodType(void.class, Object.class,
+				target.isPrimitive() ? target : Object.class));
+			++n;
+		}
+		return new BeanMapper<T>(type, trim(indexes, n), trim(kinds, n),
+			trim(targets, n), trim(setters, n), factory);
+	}
+	private static Method findSetter(Class<?> type, Field field) {
+		String name = field.getName();
+		try {
+			Method method = type.getMethod("set" + Character.toUpperCase(name.charAt(0)) +
+				name.substring(1), field.getType());
+			return Modifier.isStatic(method.getModifiers()) ? null : method;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+	/**
+	 * 没有无参构造器，使用参数名全部匹配列名的构造器（参数最多者），否则按列顺序
+	 */
+	private static <T> BeanMapper<T> buildConstructor(Class<T> type, ColumnPlan plan,
+			MethodHandles.Lookup lookup) throws IllegalAccessException {
+		Map<String, Integer> columns = new HashMap<String, Integer>();
+		for (int i = 0; i < plan.size(); ++i) {
+			columns.put(normalize(plan.getName(i)), i);
+		}
+		Constructor<?> best = null;
+		int[] bestColumns = null;
+		for (Constructor<?> c : type.getDeclaredConstructors()) {
+			Parameter[] params = c.getParameters();
+			int[] cols = new int[params.length];
+			for (int i = 0; i < params.length && cols != null; ++i) {
+				Integer col = params[i].isNamePresent() ?
+					columns.get(normalize(params[i].getName())) : null;
+				if (col == null) {
+					cols = null;
+				} else {
+					cols[i] = col;
+				}
+			}
+			if (cols != null && (best == null || params.length > bestColumns.length)) {
+				best = c;
+				bestColumns = cols;
+			}
+		}
+		if (best == null) { // 按列顺序
+			for (Constructor<?> c : type.getDeclaredConstructors()) {
+				if (c.getParameterTypes().length == plan.size()) {
+					if (best != null) {
+						throw new IllegalArgumentException("Ambiguous Constructors Of [" +
+							type.getName() + "] For Columns " + Arrays.toString(plan.getNames()));
+					}
+					best = c;
+					bestColumns = new int[plan.size()];
+					for (int i = 0; i < bestColumns.length; ++i) {
+						bestColumns[i] = i;
+					}
+				}
+			}
+		}
+		if (best == null) {
+			throw new IllegalArgumentException("No Suitable Constructor Of [" +
+				type.getName() + "] For Columns " + Arrays.toString(plan.getNames()));
+		}
+		best.setAccessible(true);
+		Class<?>[] paramTypes = best.getParameterTypes();
+		int[] indexes = new int[paramTypes.length];
+		int[] kinds = new int[paramTypes.length];
+		for (int i = 0; i < paramTypes.length; ++i) {
+			indexes[i] = plan.getIndex(bestColumns[i]);
+			kinds[i] = kindOf(paramTypes[i]);
+		}
+		MethodHandle constructor = lookup.unreflectConstructor(best)
+			.asSpreader(Object[].class, paramTypes.length)
+			.asType(TYPE_CONSTRUCTOR);
+		return new BeanMapper<T>(type, indexes, kinds, paramTypes, null, constructor);
+	}
+	/**
+	 * 映射当前行
+	 * @param rs
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public T map(ResultSet rs) {
+		try {
+			if (setters == null) {
+				Object[] args = new Object[kinds.length];
+				for (int i = 0; i < args.length; ++i) {
+					args[i] = read(rs, indexes[i], kinds[i], targets[i]);
+				}
+				return (T) (Object) constructor.invokeExact(args);
+			}
+			Object bean = (Object) constructor.invokeExact();
+			for (int c = 0; c < kinds.length; ++c) {
+				MethodHandle setter = setters[c];
+				int i = indexes[c];
+				switch (kinds[c]) {
+				case P_BOOLEAN:
+					setter.invokeExact(bean, rs.getBoolean(i));
+					break;
+				case P_BYTE:
+					setter.invokeExact(bean, rs.getByte(i));
+					break;
+				case P_SHORT:
+					setter.invokeExact(bean, rs.getShort(i));
+					break;
+				case P_INT:
+					setter.invokeExact(bean, rs.getInt(i));
+					break;
+				case P_LONG:
+					setter.invokeExact(bean, rs.getLong(i));
+					break;
+				case P_FLOAT:
+					setter.invokeExact(bean, rs.getFloat(i));
+					break;
+				case P_DOUBLE:
+					setter.invokeExact(bean, rs.getDouble(i));
+					break;
+				default:
+					setter.invokeExact(bean, read(rs, i, kinds[c], targets[c]));
+				}
+			}
+			return (T) bean;
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		}
+	}
+	public Class<T> getType() {
+		return type;
+	}
+	/**
+	 * 读取列值，基本类型为包装对象（构造器方式）
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object read(ResultSet rs, int i, int kind, Class<?> target) throws SQLException {
+		Object value;
+		switch (kind) {
+		case P_BOOLEAN:
+			return rs.getBoolean(i);
+		case P_BYTE:
+			return rs.getByte(i);
+		case P_SHORT:
+			return rs.getShort(i);
+		case P_INT:
+			return rs.getInt(i);
+		case P_LONG:
+			return rs.getLong(i);
+		case P_FLOAT:
+			return rs.getFloat(i);
+		case P_DOUBLE:
+			return rs.getDouble(i);
+		case K_BOOLEAN:
+			value = rs.getBoolean(i);
+			break;
+		case K_BYTE:
+			value = rs.getByte(i);
+			break;
+		case K_SHORT:
+			value = rs.getShort(i);
+			break;
+		case K_INT:
+			value = rs.getInt(i);
+			break;
+		case K_LONG:
+			value = rs.getLong(i);
+			break;
+		case K_FLOAT:
+			value = rs.getFloat(i);
+			break;
+		case K_DOUBLE:
+			value = rs.getDouble(i);
+			break;
+		case K_STRING: // CLOB也使用getString
+			return rs.getString(i);
+		case K_BIG_DECIMAL:
+			return rs.getBigDecimal(i);
+		case K_TIMESTAMP:
+			return rs.getTimestamp(i);
+		case K_SQL_DATE:
+			return rs.getDate(i);
+		case K_TIME:
+			return rs.getTime(i);
+		case K_BYTES:
+			return rs.getBytes(i);
+		case K_ENUM:
+			String name = rs.getString(i);
+			return name != null ? Enum.valueOf((Class<Enum>) target, name) : null;
+		default:
+			value = rs.getObject(i);
+			if (value != null && !target.isInstance(value)) { // JDBC 4.1 类型转换，如LocalDateTime
+				value = rs.getObject(i, target);
+			}
+			return value;
+		}
+		return rs.wasNull() ? null : value;
+	}
+	private static int kindOf(Class<?> target) {
+		Integer kind = KINDS.get(target);
+		if (kind != null) {
+			return kind;
+		}
+		return target.isEnum() ? K_ENUM : K_OBJECT;
+	}
+	/**
+	 * 名称规范化，小写、去掉下划线
+	 */
+	private static String normalize(String name) {
+		StringBuilder sb = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); ++i) {
+			char c = name.charAt(i);
+			if (c != '_') {
+				sb.append(Character.toLowerCase(c));
+			}
+		}
+		return sb.toString();
+	}
+	private static int[] trim(int[] a, int n) {
+		if (a.length == n) {
+			return a;
+		}
+		int[] rtn = new int[n];
+		System.arraycopy(a, 0, rtn, 0, n);
+		return rtn;
+	}
+	private static <E> E[] trim(E[] a, int n) {
+		return a.length == n ? a : Arrays.copyOf(a, n);
+	}
+}
@@ -0,0 +1,136 @@
+package com.shs.framework.dao;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 二进制数据转存临时文件，
+ * 	返回的File对象不可达（被回收）后删除对应临时文件，
+ * 	每次转存时清理一次，JVM退出时删除全部未清理的临时文件。
+ * 	需要长期保留的文件请复制或者移动，不要只保存路径
+ * @date created: Oct 18, 2026 5:20:37 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BinarySpool {
+	private static Logger logger = Logger.getLogger(BinarySpool.class);
+	/**
+	 * 临时文件目录，为空使用系统临时目录
+	 */
+	public static String SPOOL_DIR = null;
+	private static final String PREFIX = "basedao-";
+	private static final ReferenceQueue<File> queue = new ReferenceQueue<File>();
+	/**
+	 * 未删除的临时文件引用，防止引用本身被回收
+	 */
+	private static final Set<SpoolReference> live =
+			Collections.synchronizedSet(Collections.newSetFromMap(
+					new IdentityHashMap<SpoolReference, Boolean>()));
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread("BaseDAO-BinarySpool-Cleaner") {
+			@Override
+			public void run() {
+				deleteAll();
+			}
+		});
+	}
+
+	/**
+	 * 将head[0, headLength)以及in中剩余数据写入新的临时文件
+	 * @param head 已经读取的数据，可为null
+	 * @param headLength
+	 * @param in 可为null
+	 * @return
+	 * @throws IOException
+	 */
+	public static File spool(byte[] head, int headLength, InputStream in) throws IOException {
+		purge();
+		File dir = SPOOL_DIR != null ?
+			new File(SPOOL_DIR) : FileUtils.getTempDirectory();
+		File f = File.createTempFile(PREFIX, ".bin", dir);
+		live.add(new SpoolReference(f));
+		OutputStream out = new FileOutputStream(f);
+		try {
+			if (head != null && headLength > 0) {
+				out.write(head, 0, headLength);
+			}
+			if (in != null) {
+				IOUtils.copyLarge(in, out);
+			}
+		} finally {
+			IOUtils.closeQuietly(out);
+			IOUtils.closeQuietly(in);
+		}
+		return f;
+	}
+	public static File spool(InputStream in) throws IOException {
+		return spool(null, 0, in);
+	}
+	/**
+	 * 删除File对象已被回收的临时文件
+	 * @return 删除数量
+	 */
+	public static int purge() {
+		int n = 0;
+		Reference<? extends File> ref;
+		while ((ref = queue.poll()) != null) {
+			SpoolReference sr = (SpoolReference) ref;
+			live.remove(sr);
+			sr.delete();
+			++n;
+		}
+		return n;
+	}
+	/**
+	 * 未删除的临时文件数量
+	 * @return
+	 */
+	public static int getLiveCount() {
+		return live.size();
+	}
+	/**
+	 * 删除所有临时文件
+	 */
+	public static void deleteAll() {
+		SpoolReference[] refs;
+		synchronized (live) {
+			refs = live.toArray(new SpoolReference[live.size()]);
+			live.clear();
+		}
+		for (SpoolReference ref : refs) {
+			ref.delete();
+		}
+	}
+	/**
+	 * 记录临时文件路径，File对象回收后进入引用队列
+	 */
+	private static class SpoolReference extends PhantomReference<File> {
+		private final String path;
+		SpoolReference(File f) {
+			super(f, queue);
+			path = f.getPath();
+		}
+		void delete() {
+			File f = new File(path);
+			if (f.exists() && !f.delete()) {
+				logger.warn("Delete Spool File [" + path + "] Failed");
+			}
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package com.shs.framework.dao;
+import java.io.File;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 参数绑定计划，以预备SQL为键缓存，
+ * 	按参数序号记录值类型对应的setter（setString, setLong, setTimestamp, setBigDecimal等），
+ * 	以及null值的SQL类型，null类型只查询一次ParameterMetaData
+ * @date created: Oct 18, 2026 1:40:16 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BindPlan {
+	private static Logger logger = Logger.getLogger(BindPlan.class);
+	/**
+	 * 缓存绑定计划最大数量
+	 */
+	public static int CACHE_SIZE = 2048;
+	private static final BoundedCache<String, BindPlan> cache =
+			new BoundedCache<String, BindPlan>();
+	private static final int KIND_OBJECT = 0;
+	private static final int KIND_STRING = 1;
+	private static final int KIND_INT = 2;
+	private static final int KIND_LONG = 3;
+	private static final int KIND_DOUBLE = 4;
+	private static final int KIND_FLOAT = 5;
+	private static final int KIND_SHORT = 6;
+	private static final int KIND_BYTE = 7;
+	private static final int KIND_BOOLEAN = 8;
+	private static final int KIND_BIG_DECIMAL = 9;
+	private static final int KIND_TIMESTAMP = 10;
+	private static final int KIND_SQL_DATE = 11;
+	private static final int KIND_SQL_TIME = 12;
+	private static final int KIND_DATE = 13;
+	private static final int KIND_BYTES = 14;
+	private static final int KIND_JSON = 15;
+	private static final int KIND_FILE = 16;
+	private static final int KIND_BLOB = 17;
+	private static final int KIND_LAZY_BLOB = 18;
+	private static final int KIND_STREAM = 19;
+	/**
+	 * null类型未解析
+	 */
+	private static final int NULL_TYPE_UNRESOLVED = Integer.MIN_VALUE;
+	/**
+	 * 参数值类型以及对应的setter，下标为参数序号 - 1
+	 */
+	private volatile Setter[] setters = new Setter[0];
+	private volatile int[] nullTypes = new int[0];
+
+	/**
+	 * 取得预备SQL的绑定计划
+	 * @param strSQL
+	 * @return
+	 */
+	public static BindPlan get(String strSQL) {
+		BindPlan plan = cache.get(strSQL);
+		if (plan == null) {
+			// 超出容量时淘汰最久未使用的，不同长度的in列表展开为不同的SQL
+			plan = cache.putIfAbsent(strSQL, new BindPlan(), CACHE_SIZE);
+		}
+		return plan;
+	}
+	public static void clearCache() {
+		cache.clear();
+	}
+	/**
+	 * 设置index指示的值，plan为空时不缓存
+	 * @param plan
+	 * @param ps
+	 * @param index 从1开始
+	 * @param value
+	 */
+	public static void bind(BindPlan plan, PreparedStatement ps, int index, Object value) {
+		try {
+			if (value == null || JSONObject.NULL.equals(value)) { // 设置null
+				int colType = plan != null ? plan.nullType(ps, index) : resolveNullType(ps, index);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Prepared Statement Set Value: [" + index + "][NULL][" + value + "]");
+				}
+				ps.setNull(index, colType);
+				return;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Prepared Statement Set Value: [" + index + "][" + value.getClass()+ "][" + value + "]");
+			}
+			int kind = plan != null ? plan.kind(index, value.getClass()) : kindOf(value.getClass());
+			switch (kind) {
+			case KIND_STRING:
+				ps.setString(index, (String) value);
+				break;
+			case KIND_INT:
+				ps.setInt(index, (Integer) value);
+				break;
+			case KIND_LONG:
+				ps.setLong(index, (Long) value);
+				break;
+			case KIND_DOUBLE:
+				ps.setDouble(index, (Double) value);
+				break;
+			case KIND_FLOAT:
+				ps.setFloat(index, (Float) value);
+				break;
+			case KIND_SHORT:
+				ps.setShort(index, (Short) value);
+				break;
+			case KIND_BYTE:
+				ps.setByte(index, (Byte) value);
+				break;
+			case KIND_BOOLEAN:
+				ps.setBoolean(index, (Boolean) value);
+				break;
+			case KIND_BIG_DECIMAL:
+				ps.setBigDecimal(index, (BigDecimal) value);
+				break;
+			case KIND_TIMESTAMP:
+				ps.setTimestamp(index, (Timestamp) value);
+				break;
+			case KIND_SQL_DATE:
+				ps.setDate(index, (java.sql.Date) value);
+				break;
+			case KIND_SQL_TIME:
+				ps.setTime(index, (java.sql.Time) value);
+				break;
+			case KIND_DATE:
+				ps.setTimestamp(index, new Timestamp(((java.util.Date) value).getTime()));
+				break;
+			case KIND_BYTES:
+				ps.setBytes(index, (byte[]) value);
+				break;
+			case KIND_JSON: // JSON数据
+				ps.setString(index, value.toString());
+				break;
+			case KIND_FILE:
+				ps.setBinaryStream(index, FileUtils.openInputStream((File) value));
+				break;
+			case KIND_BLOB:
+				ps.setBlob(index, (Blob) value);
+				break;
+			case KIND_LAZY_BLOB: // 游标中读取的BLOB，需在游标停留该行时执行
+				LazyBlob lazyBlob = (LazyBlob) value;
+				ps.setBinaryStream(index, lazyBlob.getInputStream(), lazyBlob.length());
+				break;
+			case KIND_STREAM:
+				ps.setBinaryStream(index, (InputStream) value);
+				break;
+			default:
+				ps.setObject(index, value);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 参数值类型对应的setter，值类型与上次相同时直接返回缓存结果
+	 */
+	private int kind(int index, Class<?> clazz) {
+		int i = index - 1;
+		Setter[] st = setters;
+		if (i < st.length) {
+			Setter setter = st[i];
+			if (setter != null && setter.clazz == clazz) {
+				return setter.kind;
+			}
+		}
+		Setter setter = new Setter(clazz, kindOf(clazz));
+		synchronized (this) {
+			ensureCapacity(index);
+			setters[i] = setter;
+		}
+		return setter.kind;
+	}
+	/**
+	 * null值对应的SQL类型，每个参数只解析一次
+	 */
+	private int nullType(PreparedStatement ps, int index) {
+		int i = index - 1;
+		int[] n = nullTypes;
+		if (i < n.length && n[i] != NULL_TYPE_UNRESOLVED) {
+			return n[i];
+		}
+		int colType = resolveNullType(ps, index);
+		synchronized (this) {
+			ensureCapacity(index);
+			nullTypes[i] = colType;
+		}
+		return colType;
+	}
+	private void ensureCapacity(int size) {
+		if (setters.length < size) {
+			int newSize = Math.max(size, setters.length * 2);
+			Setter[] st = new Setter[newSize];
+			System.arraycopy(setters, 0, st, 0, setters.length);
+			int[] n = new int[newSize];
+			Arrays.fill(n, NULL_TYPE_UNRESOLVED);
+			System.arraycopy(nullTypes, 0, n, 0, nullTypes.length);
+			nullTypes = n;
+			setters = st;
+		}
+	}
+	/**
+	 * 查询参数的SQL类型，
+	 * 大部分数据库识别VARCHAR，Oracle不识别NULL，并且不支持ParameterMetaData
+	 */
+	private static int resolveNullType(PreparedStatement ps, int index) {
+		int colType = Types.VARCHAR;
+		if (BaseDAO.getDbTrait().supportsParameterMetaData()) {
+			try {
+				colType = ps.getParameterMetaData().getParameterType(index);
+			} catch (SQLException e) {
+			} catch (RuntimeException e) { // 部分驱动未实现
+			}
+		}
+		return colType;
+	}
+	/**
+	 * 值类型与setter，不可变，保证并发读取时二者一致
+	 */
+	private static class Setter {
+		final Class<?> clazz;
+		final int kind;
+		Setter(Class<?> clazz, int kind) {
+			this.clazz = clazz;
+			this.kind = kind;
+		}
+	}
+	private static int kindOf(Class<?> clazz) {
+		if (clazz == String.class) {
+			return KIND_STRING;
+		} else if (clazz == Integer.class) {
+			return KIND_INT;
+		} else if (clazz == Long.class) {
+			return KIND_LONG;
+		} else if (clazz == Double.class) {
+			return KIND_DOUBLE;
+		} else if (clazz == Float.class) {
+			return KIND_FLOAT;
+		} else if (clazz == Short.class) {
+			return KIND_SHORT;
+		} else if (clazz == Byte.class) {
+			return KIND_BYTE;
+		} else if (clazz == Boolean.class) {
+			return KIND_BOOLEAN;
+		} else if (clazz == BigDecimal.class) {
+			return KIND_BIG_DECIMAL;
+		} else if (clazz == Timestamp.class) {
+			return KIND_TIMESTAMP;
+		} else if (clazz == java.sql.Date.class) {
+			return KIND_SQL_DATE;
+		} else if (clazz == java.sql.Time.class) {
+			return KIND_SQL_TIME;
+		} else if (clazz == java.util.Date.class) {
+			return KIND_DATE;
+		} else if (clazz == byte[].class) {
+			return KIND_BYTES;
+		} else if (JSONObject.class.isAssignableFrom(clazz) ||
+				JSONArray.class.isAssignableFrom(clazz)) {
+			return KIND_JSON;
+		} else if (File.class.isAssignableFrom(clazz)) {
+			return KIND_FILE;
+		} else if (clazz == LazyBlob.class) {
+			return KIND_LAZY_BLOB;
+		} else if (Blob.class.isAssignableFrom(clazz)) {
+			return KIND_BLOB;
+		} else if (InputStream.class.isAssignableFrom(clazz)) {
+			return KIND_STREAM;
+		}
+		return KIND_OBJECT;
+	}
+}
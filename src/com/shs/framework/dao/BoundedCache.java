@@ -0,0 +1,86 @@
+package com.shs.framework.dao;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 有界缓存，分段LRU，每段为按访问顺序的LinkedHashMap，加入时在段内同步淘汰最久未访问的，
+ * 	总数不超过加入时指定的容量（按段均分）。用于SQL模板、设值计划、Bean映射、批大小等内部缓存
+ * @date created: Oct 19, 2026 10:12:31 AM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+class BoundedCache<K, V> {
+	private static final int SEGMENTS = 16;
+	private final List<Segment<K, V>> segments = new ArrayList<Segment<K, V>>(SEGMENTS);
+
+	BoundedCache() {
+		for (int i = 0; i < SEGMENTS; ++i) {
+			segments.add(new Segment<K, V>());
+		}
+	}
+	V get(K key) {
+		Segment<K, V> segment = segment(key);
+		synchronized (segment) {
+			return segment.get(key);
+		}
+	}
+	/**
+	 * 加入，已存在时返回已存在的值
+	 * @param key
+	 * @param value
+	 * @param maxSize 缓存容量，超出时淘汰最久未访问的
+	 * @return 缓存中的值
+	 */
+	V putIfAbsent(K key, V value, int maxSize) {
+		Segment<K, V> segment = segment(key);
+		synchronized (segment) {
+			V exists = segment.get(key);
+			if (exists != null) {
+				return exists;
+			}
+			segment.limit = Math.max(1, maxSize / SEGMENTS);
+			segment.put(key, value);
+			return value;
+		}
+	}
+	void clear() {
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+	int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	private Segment<K, V> segment(K key) {
+		int h = key.hashCode();
+		return segments.get(((h ^ (h >>> 16)) & 0x7fffffff) % SEGMENTS);
+	}
+	/**
+	 * 缓存分段，按访问顺序，超出容量淘汰最久未访问的
+	 */
+	private static class Segment<K, V> extends LinkedHashMap<K, V> {
+		private static final long serialVersionUID = 1L;
+		private int limit = 1;
+		Segment() {
+			super(16, 0.75f, true);
+		}
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > limit;
+		}
+	}
+}
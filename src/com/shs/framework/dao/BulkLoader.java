@@ -0,0 +1,656 @@
+package com.shs.framework.dao;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.input.BOMInputStream;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.shs.framework.dao.BaseDAO.ConnectionOperator;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 批量导入，流式读取CSV或者NDJSON，逐行转换后批量插入，内存占用与文件大小无关。
+ * 	字段按名称对应列（mapField指定对应关系时只导入指定的字段），字符串按列的数据库类型转换
+ * 	（数值、日期、时间、布尔），每batchSize行执行一次批，连接为自动提交时每commitRows行提交一次，
+ * 	失败时回滚未提交的部分；在executeTransaction中执行时由外层事务提交。如：
+ * 	new BulkLoader("demo_users").mapField("user_id", "id").mapField("user_name", "name").loadCSV(new File("users.csv"));
+ * @date created: Oct 18, 2026 10:42:19 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BulkLoader {
+	/**
+	 * 默认每次提交行数
+	 */
+	public static int COMMIT_ROWS = 10000;
+	private static Logger logger = Logger.getLogger(BulkLoader.class);
+	private final String table;
+	/**
+	 * 字段，无表头CSV的字段顺序，NDJSON读取的属性
+	 */
+	private String[] fields;
+	/**
+	 * 字段 -> 列
+	 */
+	private final Map<String, String> fieldColumns = new LinkedHashMap<String, String>();
+	private char delimiter = ',';
+	private boolean header = true;
+	private String encoding = "utf-8";
+	private boolean emptyAsNull = true;
+	/**
+	 * 批大小，小于等于0时由BatchSizer调整
+	 */
+	private int batchSize = 0;
+	private int commitRows = COMMIT_ROWS;
+	private IProgressListener progressListener;
+
+	public BulkLoader(String table) {
+		this.table = table;
+	}
+	/**
+	 * 指定字段，CSV没有表头时为字段顺序，NDJSON只读取这些属性，
+	 * 不指定时CSV使用表头，NDJSON使用第一行的属性（或者mapField的字段）
+	 * @param fields
+	 * @return
+	 */
+	public BulkLoader setFields(String ... fields) {
+		this.fields = fields.clone();
+		return this;
+	}
+	/**
+	 * 字段对应的列，指定后只导入指定的字段
+	 * @param field
+	 * @param column
+	 * @return
+	 */
+	public BulkLoader mapField(String field, String column) {
+		fieldColumns.put(field, column);
+		return this;
+	}
+	/**
+	 * CSV分隔符，默认逗号
+	 * @param delimiter
+	 * @return
+	 */
+	public BulkLoader setDelimiter(char delimiter) {
+		this.delimiter = delimiter;
+		return this;
+	}
+	/**
+	 * CSV第一行是否表头，默认是
+	 * @param header
+	 * @return
+	 */
+	public BulkLoader setHeader(boolean header) {
+		this.header = header;
+		return this;
+	}
+	/**
+	 * 文件、输入流编码，默认utf-8，BOM自动忽略
+	 * @param encoding
+	 * @return
+	 */
+	public BulkLoader setEncoding(String encoding) {
+		this.encoding = encoding;
+		return this;
+	}
+	/**
+	 * 空字符串是否作为null，默认是
+	 * @param emptyAsNull
+	 * @return
+	 */
+	public BulkLoader setEmptyAsNull(boolean emptyAsNull) {
+		this.emptyAsNull = emptyAsNull;
+		return this;
+	}
+	/**
+	 * 每次执行批的行数，默认按执行耗时、行宽自动调整（BatchSizer）
+	 * @param batchSize 小于等于0自动调整
+	 * @return
+	 */
+	public BulkLoader setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+		return this;
+	}
+	/**
+	 * 每次提交的行数，默认COMMIT_ROWS，同时为进度通知间隔
+	 * @param commitRows
+	 * @return
+	 */
+	public BulkLoader setCommitRows(int commitRows) {
+		this.commitRows = Math.max(1, commitRows);
+		return this;
+	}
+	public BulkLoader setProgressListener(IProgressListener progressListener) {
+		this.progressListener = progressListener;
+		return this;
+	}
+
+	public Result loadCSV(File file) {
+		return load(file, false);
+	}
+	public Result loadCSV(InputStream in) {
+		return loadCSV(reader(in));
+	}
+	public Result loadCSV(Reader reader) {
+		return load(new CSVSource(reader, delimiter, header));
+	}
+	/**
+	 * 使用指定连接导入CSV，连接为自动提交时分批提交，否则由调用者提交
+	 * @param dbConnection
+	 * @param reader
+	 * @return
+	 */
+	public Result loadCSV(Connection dbConnection, Reader reader) {
+		return load(dbConnection, new CSVSource(reader, delimiter, header));
+	}
+	public Result loadNDJSON(File file) {
+		return load(file, true);
+	}
+	public Result loadNDJSON(InputStream in) {
+		return loadNDJSON(reader(in));
+	}
+	public Result loadNDJSON(Reader reader) {
+		return load(new NDJSONSource(reader));
+	}
+	public Result loadNDJSON(Connection dbConnection, Reader reader) {
+		return load(dbConnection, new NDJSONSource(reader));
+	}
+
+	private Result load(File file, boolean ndjson) {
+		InputStream in = null;
+		try {
+			in = new FileInputStream(file);
+			return ndjson ? loadNDJSON(in) : loadCSV(in);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					logger.warn("Close File Failed", e);
+				}
+			}
+		}
+	}
+	private Reader reader(InputStream in) {
+		try {
+			return new InputStreamReader(new BOMInputStream(in), encoding);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	private Result load(final Source source) {
+		return BaseDAO.execute(new ConnectionOperator() {
+			@Override
+			protected void run() {
+				// 记录写入，提交后使查询缓存失效
+				tableWritten(table);
+				result = load(dbConnection, source);
+			}
+		});
+	}
+	private Result load(Connection dbConnection, Source source) {
+		Result result = new Result();
+		PreparedStatement ps = null;
+		boolean manage = false;
+		try {
+			String[] srcFields = source.fields(fields != null ? fields :
+				fieldColumns.isEmpty() ? null : fieldColumns.keySet().toArray(new String[0]));
+			// 字段对应的列
+			List<String> columns = new ArrayList<String>(srcFields.length);
+			List<Integer> indexes = new ArrayList<Integer>(srcFields.length);
+			for (int i = 0; i < srcFields.length; ++i) {
+				String column = fieldColumns.isEmpty() ? srcFields[i] : fieldColumns.get(srcFields[i]);
+				if (column != null) {
+					columns.add(column);
+					indexes.add(i);
+				}
+			}
+			if (columns.isEmpty()) {
+				throw new IllegalArgumentException("No Column To Load, Fields " + Arrays.toString(srcFields));
+			}
+			String[] cols = columns.toArray(new String[columns.size()]);
+			int[] types = getColumnTypes(dbConnection, cols);
+			String insertSQL = BaseDAO.getDbTrait().genInsertSQL(table, cols, 1);
+			if (logger.isDebugEnabled()) {
+				logger.debug("bulk load[" + insertSQL + "]");
+			}
+			manage = dbConnection.getAutoCommit();
+			if (manage) {
+				dbConnection.setAutoCommit(false);
+			}
+			ps = dbConnection.prepareStatement(insertSQL);
+			BindPlan plan = BindPlan.get(insertSQL);
+			Object[] values = new Object[srcFields.length];
+			BatchSizer.Batch batch = batchSize > 0 ? null : BatchSizer.begin(insertSQL);
+			int pending = 0;
+			long notified = 0;
+			while (source.next(values)) {
+				long bytes = 0;
+				for (int i = 0; i < cols.length; ++i) {
+					Object value = convert(values[indexes.get(i)], types[i], cols[i], source.line());
+					BaseDAO.setValue(ps, plan, i + 1, value);
+					if (batch != null) {
+						bytes += BatchSizer.estimateBytes(value);
+					}
+				}
+				ps.addBatch();
+				++pending;
+				if (batch != null ? batch.add(1, bytes) : pending >= batchSize) {
+					long start = System.nanoTime();
+					ps.executeBatch();
+					if (batch != null) {
+						batch.flushed(System.nanoTime() - start);
+					}
+					result.rows += pending;
+					pending = 0;
+				}
+				if (result.rows - notified >= commitRows) {
+					notified = result.rows;
+					commit(dbConnection, manage, result);
+				}
+			}
+			if (pending > 0) {
+				long start = System.nanoTime();
+				ps.executeBatch();
+				if (batch != null) {
+					batch.flushed(System.nanoTime() - start);
+				}
+				result.rows += pending;
+			}
+			commit(dbConnection, manage, result);
+			return result;
+		} catch (Exception e) {
+			if (manage) {
+				try {
+					dbConnection.rollback();
+				} catch (SQLException se) {
+					logger.warn("Bulk Load Rollback Failed", se);
+				}
+			}
+			throw new RuntimeException("Bulk Load [" + table + "] Failed At Line [" +
+				source.line() + "], Committed Rows [" + result.committedRows + "]", e);
+		} finally {
+			BaseDAO.close(ps);
+			if (manage) {
+				try {
+					dbConnection.setAutoCommit(true);
+				} catch (SQLException e) {
+					logger.warn("Restore Auto Commit Failed", e);
+				}
+			}
+			if (QueryCache.isActive()) {
+				QueryCache.invalidate(table);
+			}
+		}
+	}
+	/**
+	 * 提交（自行管理事务时）并通知进度
+	 */
+	private void commit(Connection dbConnection, boolean manage, Result result) throws SQLException {
+		if (manage) {
+			dbConnection.commit();
+			result.committedRows = result.rows;
+		}
+		result.elapsedNanos = System.nanoTime() - result.start;
+		if (progressListener != null) {
+			progressListener.progress(result);
+		}
+	}
+	/**
+	 * 查询列的数据库类型，失败时不转换
+	 */
+	private int[] getColumnTypes(Connection dbConnection, String[] columns) {
+		int[] types = new int[columns.length];
+		Statement statement = null;
+		ResultSet rs = null;
+		try {
+			statement = dbConnection.createStatement();
+			rs = statement.executeQuery("select " + StringUtils.join(columns, ", ") +
+				" from " + table + " where 1 = 0");
+			ResultSetMetaData meta = rs.getMetaData();
+			for (int i = 0; i < types.length; ++i) {
+				types[i] = meta.getColumnType(i + 1);
+			}
+		} catch (SQLException e) {
+			logger.warn("Get Column Types Of [" + table + "] Failed, Values Not Converted", e);
+			Arrays.fill(types, Types.OTHER);
+		} finally {
+			BaseDAO.close(statement, rs);
+		}
+		return types;
+	}
+	/**
+	 * 按列类型转换字符串值
+	 */
+	private Object convert(Object value, int type, String column, long line) {
+		if (value == null || value == JSONObject.NULL) {
+			return null;
+		}
+		if (value instanceof JSONObject || value instanceof JSONArray) {
+			return value.toString();
+		}
+		if (!(value instanceof String)) {
+			return value;
+		}
+		String str = (String) value;
+		if (str.isEmpty()) {
+			return emptyAsNull ? null : str;
+		}
+		try {
+			switch (type) {
+			case Types.BIT:
+			case Types.BOOLEAN:
+				str = str.trim();
+				return "1".equals(str) || "true".equalsIgnoreCase(str) ||
+					"y".equalsIgnoreCase(str) || "yes".equalsIgnoreCase(str);
+			case Types.TINYINT:
+			case Types.SMALLINT:
+			case Types.INTEGER:
+				return Integer.valueOf(str.trim());
+			case Types.BIGINT:
+				return Long.valueOf(str.trim());
+			case Types.REAL:
+			case Types.FLOAT:
+			case Types.DOUBLE:
+				return Double.valueOf(str.trim());
+			case Types.NUMERIC:
+			case Types.DECIMAL:
+				return new BigDecimal(str.trim());
+			case Types.DATE:
+				str = str.trim();
+				return str.length() > 10 ?
+					new Date(toTimestamp(str).getTime()) : Date.valueOf(str);
+			case Types.TIME:
+				return Time.valueOf(str.trim());
+			case Types.TIMESTAMP:
+				return toTimestamp(str.trim());
+			default:
+				return str;
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Line [" + line + "] Column [" + column +
+				"] Invalid Value [" + str + "]", e);
+		}
+	}
+	/**
+	 * yyyy-MM-dd、yyyy-MM-dd HH:mm:ss[.f]、yyyy-MM-ddTHH:mm:ss[.f]
+	 */
+	private static Timestamp toTimestamp(String str) {
+		return Timestamp.valueOf(str.length() == 10 ? str + " 00:00:00" : str.replace('T', ' '));
+	}
+
+	/**
+	 * 导入进度监听，每commitRows行以及结束时调用
+	 */
+	public interface IProgressListener {
+		void progress(Result result);
+	}
+	/**
+	 * 导入结果，进度通知时为当前进度
+	 */
+	public static class Result {
+		private final long start = System.nanoTime();
+		private long rows;
+		private long committedRows;
+		private long elapsedNanos;
+		/**
+		 * 已插入行数
+		 * @return
+		 */
+		public long getRows() {
+			return rows;
+		}
+		/**
+		 * 已提交行数，由外层事务提交时为0
+		 * @return
+		 */
+		public long getCommittedRows() {
+			return committedRows;
+		}
+		public long getElapsedMillis() {
+			return elapsedNanos / 1000000L;
+		}
+		/**
+		 * 每秒插入行数
+		 * @return
+		 */
+		public double getRowsPerSecond() {
+			return elapsedNanos > 0 ? rows * 1e9 / elapsedNanos : 0;
+		}
+		@Override
+		public String toString() {
+			return "Rows [" + rows + "], Committed [" + committedRows + "], Elapsed [" +
+				getElapsedMillis() + "ms], Rows/s [" + Math.round(getRowsPerSecond()) + "]";
+		}
+	}
+	/**
+	 * 数据源，逐行读取
+	 */
+	private static abstract class Source {
+		/**
+		 * 字段名
+		 * @param configured 指定的字段，可为null
+		 */
+		abstract String[] fields(String[] configured) throws IOException;
+		/**
+		 * 读取下一行，按字段顺序填充values，结束返回false
+		 */
+		abstract boolean next(Object[] values) throws IOException;
+		/**
+		 * 当前行号，从1开始
+		 */
+		abstract long line();
+	}
+	/**
+	 * CSV（RFC 4180），支持引号、引号转义（""）以及值中的换行，忽略空行
+	 */
+	private static class CSVSource extends Source {
+		private final Reader reader;
+		private final char delimiter;
+		private final char[] buf = new char[64 * 1024];
+		private int pos, len;
+		private long line = 1, recordLine = 0;
+		private final StringBuilder field = new StringBuilder();
+		private final List<String> record = new ArrayList<String>();
+		private final boolean header;
+		private String[] fields;
+		CSVSource(Reader reader, char delimiter, boolean header) {
+			this.reader = reader;
+			this.delimiter = delimiter;
+			this.header = header;
+		}
+		/**
+		 * 有表头时使用表头，否则使用指定的字段
+		 */
+		@Override
+		String[] fields(String[] configured) throws IOException {
+			if (header) {
+				List<String> names = readNonBlank();
+				if (names == null) {
+					throw new IllegalArgumentException("CSV Header Not Found");
+				}
+				fields = new String[names.size()];
+				for (int i = 0; i < fields.length; ++i) {
+					fields[i] = names.get(i).trim();
+				}
+			} else if (configured != null) {
+				fields = configured;
+			} else {
+				throw new IllegalArgumentException("CSV Fields Required Without Header");
+			}
+			return fields;
+		}
+		@Override
+		boolean next(Object[] values) throws IOException {
+			List<String> rec = readNonBlank();
+			if (rec == null) {
+				return false;
+			}
+			if (rec.size() != fields.length) {
+				throw new IllegalArgumentException("Line [" + recordLine + "] Has [" +
+					rec.size() + "] Fields, Expected [" + fields.length + "]");
+			}
+			rec.toArray(values);
+			return true;
+		}
+		@Override
+		long line() {
+			return recordLine;
+		}
+		private List<String> readNonBlank() throws IOException {
+			List<String> rec;
+			while ((rec = readRecord()) != null &&
+					rec.size() == 1 && rec.get(0).isEmpty()) {
+			}
+			return rec;
+		}
+		private int read() throws IOException {
+			if (pos == len) {
+				len = reader.read(buf, 0, buf.length);
+				pos = 0;
+				if (len <= 0) {
+					len = 0;
+					return -1;
+				}
+			}
+			return buf[pos++];
+		}
+		/**
+		 * 读取一条记录，结束返回null
+		 */
+		private List<String> readRecord() throws IOException {
+			record.clear();
+			field.setLength(0);
+			recordLine = line;
+			int c = read();
+			if (c == -1) {
+				return null;
+			}
+			boolean quoted = false;
+			while (true) {
+				if (quoted) {
+					if (c == -1) {
+						throw new IllegalArgumentException("Line [" + recordLine + "] Quote Not Closed");
+					}
+					if (c == '"') {
+						c = read();
+						if (c != '"') { // 引号结束
+							quoted = false;
+							continue;
+						}
+					} else if (c == '\n') {
+						++line;
+					}
+					field.append((char) c);
+				} else if (c == '"' && field.length() == 0) {
+					quoted = true;
+				} else if (c == delimiter) {
+					record.add(field.toString());
+					field.setLength(0);
+				} else if (c == '\n' || c == '\r' || c == -1) {
+					if (c == '\r' && read() != '\n' && len > 0) {
+						--pos; // 单独的\r
+					}
+					if (c != -1) {
+						++line;
+					}
+					record.add(field.toString());
+					return record;
+				} else {
+					field.append((char) c);
+				}
+				c = read();
+			}
+		}
+	}
+	/**
+	 * NDJSON，每行一个JSON对象，忽略空行
+	 */
+	private static class NDJSONSource extends Source {
+		private final BufferedReader reader;
+		private long line = 0;
+		private String[] fields;
+		/**
+		 * 读取字段名时读出的第一行
+		 */
+		private JSONObject first;
+		NDJSONSource(Reader reader) {
+			this.reader = new BufferedReader(reader, 64 * 1024);
+		}
+		@Override
+		String[] fields(String[] configured) throws IOException {
+			if (configured != null) {
+				fields = configured;
+			} else {
+				first = readObject();
+				if (first == null || first.length() == 0) {
+					throw new IllegalArgumentException("NDJSON Fields Required");
+				}
+				fields = JSONObject.getNames(first);
+				Arrays.sort(fields);
+			}
+			return fields;
+		}
+		@Override
+		boolean next(Object[] values) throws IOException {
+			JSONObject jo = first != null ? first : readObject();
+			first = null;
+			if (jo == null) {
+				return false;
+			}
+			for (int i = 0; i < fields.length; ++i) {
+				values[i] = jo.opt(fields[i]);
+			}
+			return true;
+		}
+		@Override
+		long line() {
+			return line;
+		}
+		private JSONObject readObject() throws IOException {
+			String str;
+			while ((str = reader.readLine()) != null) {
+				++line;
+				if (!StringUtils.isBlank(str)) {
+					try {
+						return new JSONObject(str);
+					} catch (JSONException e) {
+						throw new IllegalArgumentException("Line [" + line + "] Invalid JSON", e);
+					}
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,312 @@
+package com.shs.framework.dao;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+import com.shs.framework.dao.traits.IDbTrait;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 结果集列计划，每个ResultSet只读取一次元数据，
+ * 	计算输出列名（大小写转换），跳过行编号列，确定每列的取值方式，之后每行复用。
+ * 	BLOB（以及长度未知或者超过BaseDAO.BINARY_INLINE_LIMIT的二进制列）不超过BINARY_INLINE_LIMIT返回byte[]，超过时游标中返回LazyBlob，
+ * 	否则按BaseDAO.BINARY_SPOOL转存临时文件（见BinarySpool）或者返回byte[]
+ * @date created: Oct 18, 2026 10:48:30 AM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class ColumnPlan {
+	/**
+	 * 取值方式，getObject
+	 */
+	static final int KIND_OBJECT = 0;
+	/**
+	 * 取值方式，CLOB转换为String
+	 */
+	static final int KIND_CLOB = 1;
+	/**
+	 * 取值方式，定长、变长二进制（长度不超过BINARY_INLINE_LIMIT），getBytes
+	 */
+	static final int KIND_BYTES = 2;
+	/**
+	 * 取值方式，BLOB、LONGVARBINARY以及长度超过BINARY_INLINE_LIMIT的二进制，按大小决定
+	 */
+	static final int KIND_LOB = 3;
+	/**
+	 * 输出列名
+	 */
+	private final String[] names;
+	/**
+	 * 输出列对应的ResultSet列序号，从1开始
+	 */
+	private final int[] indexes;
+	private final int[] kinds;
+	private final int[] types;
+
+	private ColumnPlan(String[] names, int[] indexes, int[] kinds, int[] types) {
+		this.names = names;
+		this.indexes = indexes;
+		this.kinds = kinds;
+		this.types = types;
+	}
+	/**
+	 * 根据ResultSet元数据生成列计划
+	 * @param rs
+	 * @param lowerCase
+	 * @return
+	 */
+	public static ColumnPlan build(ResultSet rs, boolean lowerCase) {
+		try {
+			return build(rs.getMetaData(), lowerCase);
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	public static ColumnPlan build(ResultSetMetaData metaData, boolean lowerCase) {
+		try {
+			int numColumn = metaData.getColumnCount();
+			List<String> listNames = new ArrayList<String>(numColumn);
+			int[] indexes = new int[numColumn];
+			int[] kinds = new int[numColumn];
+			int[] types = new int[numColumn];
+			int n = 0;
+			for (int i = 1; i <= numColumn; ++i) {
+				String colName = metaData.getColumnLabel(i);// 得到列名称, 如果需要小写，则转换为小写，否则不变，另外，如果其中包含小写，则不转换
+				// 跳过行编号
+				if (colName.equalsIgnoreCase(IDbTrait.COLUMN_ROW_NUMBER)) {
+					continue;
+				}
+				// 列名中混合大小写，不转换
+				if (!isMixedCase(colName)) {
+					colName = lowerCase ?
+						colName.toLowerCase() : colName.toUpperCase();
+				}
+				int type = metaData.getColumnType(i);
+				listNames.add(colName);
+				indexes[n] = i;
+				types[n] = type;
+				if (type == Types.CLOB) {
+					kinds[n] = KIND_CLOB;
+				} else if (type == Types.BINARY ||
+						type == Types.VARBINARY) {
+					// 长度未知或者超过BINARY_INLINE_LIMIT（如varbinary(max)）按BLOB读取
+					int precision = metaData.getPrecision(i);
+					kinds[n] = precision > 0 && precision <= BaseDAO.BINARY_INLINE_LIMIT ?
+						KIND_BYTES : KIND_LOB;
+				} else if (type == Types.BLOB ||
+						type == Types.LONGVARBINARY) {
+					kinds[n] = KIND_LOB;
+				} else {
+					kinds[n] = KIND_OBJECT;
+				}
+				++n;
+			}
+			return new ColumnPlan(listNames.toArray(new String[n]),
+				trim(indexes, n), trim(kinds, n), trim(types, n));
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 列名是否同时包含大写、小写字母
+	 * @param colName
+	 * @return
+	 */
+	static boolean isMixedCase(String colName) {
+		boolean lower = false, upper = false;
+		for (int i = 0; i < colName.length(); ++i) {
+			char c = colName.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				lower = true;
+			} else if (c >= 'A' && c <= 'Z') {
+				upper = true;
+			}
+			if (lower && upper) {
+				return true;
+			}
+		}
+		return false;
+	}
+	private static int[] trim(int[] a, int n) {
+		if (a.length == n) {
+			return a;
+		}
+		int[] rtn = new int[n];
+		System.arraycopy(a, 0, rtn, 0, n);
+		return rtn;
+	}
+	/**
+	 * 输出列数量
+	 * @return
+	 */
+	public int size() {
+		return names.length;
+	}
+	public String getName(int column) {
+		return names[column];
+	}
+	public String[] getNames() {
+		return names.clone();
+	}
+	/**
+	 * 输出列对应的ResultSet列序号
+	 * @param column 输出列序号，从0开始
+	 * @return 从1开始
+	 */
+	public int getIndex(int column) {
+		return indexes[column];
+	}
+	/**
+	 * 输出列的SQL类型，java.sql.Types
+	 * @param column 输出列序号，从0开始
+	 * @return
+	 */
+	public int getType(int column) {
+		return types[column];
+	}
+	/**
+	 * 读取当前行指定输出列的值
+	 * @param rs
+	 * @param column 输出列序号，从0开始
+	 * @return
+	 */
+	public Object getValue(ResultSet rs, int column) {
+		return getValue(rs, column, null);
+	}
+	/**
+	 * 读取当前行指定输出列的值，scope不为空时大BLOB返回LazyBlob
+	 * @param rs
+	 * @param column 输出列序号，从0开始
+	 * @param scope 游标
+	 * @return
+	 */
+	Object getValue(ResultSet rs, int column, Cursor scope) {
+		try {
+			int i = indexes[column];
+			switch (kinds[column]) {
+			case KIND_CLOB: // 将CLOB转换为String
+				return rs.getString(i);
+			case KIND_BYTES:
+				return rs.getBytes(i);
+			case KIND_LOB:
+				return getLob(rs, i, scope);
+			default:
+				return rs.getObject(i);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 读取BLOB，不超过BINARY_INLINE_LIMIT返回byte[]，
+	 * 超过时游标中返回LazyBlob，否则转存临时文件（BINARY_SPOOL）或者返回byte[]
+	 */
+	private static Object getLob(ResultSet rs, int i, Cursor scope) throws SQLException, IOException {
+		Blob blob;
+		try {
+			blob = rs.getBlob(i);
+		} catch (SQLException e) { // 部分驱动LONGVARBINARY不支持getBlob，按流读取
+			return readBinary(rs.getBinaryStream(i));
+		}
+		if (blob == null) {
+			return null;
+		}
+		boolean lazy = false;
+		try {
+			long length = blob.length();
+			if (length <= BaseDAO.BINARY_INLINE_LIMIT) {
+				return blob.getBytes(1, (int) length);
+			}
+			if (scope != null) {
+				lazy = true;
+				return new LazyBlob(blob, length, scope, scope.getRowCount());
+			}
+			if (BaseDAO.BINARY_SPOOL) {
+				return BinarySpool.spool(blob.getBinaryStream());
+			}
+			if (length > Integer.MAX_VALUE) {
+				throw new IllegalStateException("Blob Too Large [" + length + "]");
+			}
+			return blob.getBytes(1, (int) length);
+		} finally {
+			// 已复制（或者转存）的BLOB释放驱动持有的资源，LazyBlob由游标移动时释放
+			if (!lazy) {
+				free(blob);
+			}
+		}
+	}
+	private static void free(Blob blob) {
+		try {
+			blob.free();
+		} catch (SQLException e) {
+			// 驱动不支持，忽略
+		} catch (AbstractMethodError e) {
+			// JDBC 4之前的驱动
+		}
+	}
+	/**
+	 * 读取二进制流，超过BINARY_INLINE_LIMIT并且BINARY_SPOOL时转存临时文件，否则返回byte[]
+	 */
+	private static Object readBinary(InputStream in) throws IOException {
+		if (in == null) {
+			return null;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				bytes.write(buffer, 0, n);
+				if (BaseDAO.BINARY_SPOOL && 
+						bytes.size() > BaseDAO.BINARY_INLINE_LIMIT) {
+					return BinarySpool.spool(bytes.toByteArray(), bytes.size(), in);
+				}
+			}
+			return bytes.toByteArray();
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+	/**
+	 * 读取当前行为Map
+	 * @param rs
+	 * @return
+	 */
+	public Map<String, Object> getMap(ResultSet rs) {
+		return getMap(rs, null);
+	}
+	/**
+	 * 读取当前行各输出列的值，顺序与getNames()相同
+	 * @param rs
+	 * @return
+	 */
+	public Object[] getValues(ResultSet rs) {
+		Object[] values = new Object[names.length];
+		for (int i = 0; i < names.length; ++i) {
+			values[i] = getValue(rs, i, null);
+		}
+		return values;
+	}
+	Map<String, Object> getMap(ResultSet rs, Cursor scope) {
+		// 按列数预设容量，避免扩容
+		Map<String, Object> mapModel = new HashMap<String, Object>((int) (names.length / 0.75f) + 1);
+		for (int i = 0; i < names.length; ++i) {
+			mapModel.put(names[i], getValue(rs, i, scope));
+		}
+		return mapModel;
+	}
+}
@@ -6,6 +6,11 @@ import com.shs.framework.dao.traits.OracleTrait;
 import com.shs.framework.dao.traits.SQLServerTrait;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
 
 /**
  * @class describe: 数据连接管理器
@@ -42,7 +47,80 @@ public class ConnectionManager {
 	 * 数据源名称
 	 */
 	public static String DATA_SOURCE_NAME;
+	/**
+	 * 是否启用内置连接池，对JDBC连接以及JNDI数据源连接有效，
+	 * 设置了IDataSourceProvider时由其自行管理连接
+	 */
+	public static boolean POOL_ENABLED = true;
+	/**
+	 * 连接池最小连接数，启动时预先创建
+	 */
+	public static int POOL_MIN_SIZE = 2;
+	/**
+	 * 连接池最大连接数
+	 */
+	public static int POOL_MAX_SIZE = 20;
+	/**
+	 * 获取连接最大等待时间（毫秒）
+	 */
+	public static long POOL_MAX_WAIT = 30000;
+	/**
+	 * 连接校验超时时间（秒）
+	 */
+	public static int POOL_VALIDATION_TIMEOUT = 3;
+	/**
+	 * 借出时，空闲时间小于此值（毫秒）的连接不做校验
+	 */
+	public static long POOL_VALIDATION_SKIP_WINDOW = 500;
+	/**
+	 * 空闲连接检查间隔（毫秒），小于等于0不检查
+	 */
+	public static long POOL_IDLE_CHECK_INTERVAL = 60000;
+	/**
+	 * 空闲连接超时时间（毫秒），超过最小连接数的超时空闲连接将被关闭
+	 */
+	public static long POOL_IDLE_TIMEOUT = 600000;
+	/**
+	 * 连接池每个连接缓存PreparedStatement数量，0不缓存
+	 */
+	public static int STATEMENT_CACHE_SIZE = 0;
+	/**
+	 * 只读副本选择策略：轮询
+	 */
+	public static final String REPLICA_ROUND_ROBIN = "round-robin";
+	/**
+	 * 只读副本选择策略：借出连接最少（需启用连接池，否则按轮询）
+	 */
+	public static final String REPLICA_LEAST_BUSY = "least-busy";
+	/**
+	 * 只读副本选择策略
+	 */
+	public static String REPLICA_STRATEGY = REPLICA_ROUND_ROBIN;
+	/**
+	 * 读己之写时间窗口（毫秒），线程写入主库后，此时间内该线程的查询仍然使用主库，
+	 * 避免读到副本上尚未同步的数据，小于等于0不启用
+	 */
+	public static long READ_YOUR_WRITES_MILLIS = 1000;
 	public static IDataSourceProvider dataSourceProvider;
+	private static Logger logger = Logger.getLogger(ConnectionManager.class);
+	private static volatile ConnectionPool pool;
+	/**
+	 * 主库数据源，设置后优先于DATA_SOURCE_NAME、JDBC配置
+	 */
+	private static volatile DataSource primaryDataSource;
+	private static volatile Replica[] replicas = new Replica[0];
+	private static final AtomicInteger replicaSeq = new AtomicInteger();
+	/**
+	 * 当前线程最后一次写入主库的时间（System.nanoTime），未写入为NO_WRITE，
+	 * 异步操作执行期间工作线程使用调用线程的时钟
+	 */
+	private static final ThreadLocal<AtomicLong> writeClock = new ThreadLocal<AtomicLong>();
+	private static final long NO_WRITE = Long.MIN_VALUE;
+	/**
+	 * 缓存的JNDI数据源
+	 */
+	private static volatile DataSource jndiDataSource;
+	private static volatile String jndiDataSourceName;
 	public static void setDataSourceProvider(IDataSourceProvider dsp) {
 		dataSourceProvider = dsp;
 	}
@@ -66,12 +144,261 @@ public class ConnectionManager {
 		try {
 			dbConnection = dataSourceProvider != null ? 
 					dataSourceProvider.getDataSource().getConnection() : 
-						DATA_SOURCE_NAME != null ? getDataSourceConnection() : getJDBCConnection();
+						POOL_ENABLED ? getPool().borrow() : newConnection();
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 		return dbConnection;
-	}			
+	}
+	/**
+	 * 创建物理连接，优先选择数据源连接
+	 * @return
+	 * @throws Exception
+	 */
+	public static Connection newConnection() throws Exception {
+		DataSource ds = primaryDataSource;
+		return ds != null ? ds.getConnection() :
+			DATA_SOURCE_NAME != null ? getDataSourceConnection() : getJDBCConnection();
+	}
+	/**
+	 * 返回连接池，首次调用时创建并预先填充
+	 * @return
+	 */
+	public static ConnectionPool getPool() {
+		ConnectionPool cp = pool;
+		if (cp == null) {
+			synchronized (ConnectionManager.class) {
+				cp = pool;
+				if (cp == null) {
+					cp = new ConnectionPool(POOL_MIN_SIZE, 
+							POOL_MAX_SIZE, 
+							POOL_MAX_WAIT, 
+							POOL_IDLE_CHECK_INTERVAL, 
+							POOL_IDLE_TIMEOUT) {
+						@Override
+						protected Connection newConnection() throws Exception {
+							return ConnectionManager.newConnection();
+						}
+					};
+					cp.setStatementCacheSize(STATEMENT_CACHE_SIZE);
+					cp.prefill();
+					pool = cp;
+				}
+			}
+		}
+		return cp;
+	}
+	/**
+	 * 启动时初始化连接池，按POOL_MIN_SIZE预先创建连接
+	 */
+	public static void initPool() {
+		getPool();
+	}
+	/**
+	 * 关闭连接池，修改连接配置后调用，下次获取连接时重新创建
+	 */
+	public static synchronized void shutdownPool() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+		for (Replica replica : replicas) {
+			replica.shutdown();
+		}
+		jndiDataSource = null;
+	}
+	/**
+	 * 设置主库数据源，写入、事务以及没有只读副本时的查询使用主库，
+	 * 已创建的主库连接池关闭，下次获取连接时重新创建
+	 * @param ds 为null时恢复使用DATA_SOURCE_NAME、JDBC配置
+	 */
+	public static synchronized void setPrimaryDataSource(DataSource ds) {
+		primaryDataSource = ds;
+		if (pool != null) {
+			pool.close();
+			pool = null;
+		}
+	}
+	public static DataSource getPrimaryDataSource() {
+		return primaryDataSource;
+	}
+	/**
+	 * 设置只读副本数据源，替换原有副本（原有副本连接池关闭），
+	 * 事务外的查询（find*、query等）按REPLICA_STRATEGY分配到副本，
+	 * 写入以及executeTransaction中的全部操作使用主库
+	 * @param dataSources
+	 */
+	public static synchronized void setReplicas(DataSource ... dataSources) {
+		Replica[] old = replicas;
+		Replica[] rs = new Replica[dataSources.length];
+		for (int i = 0; i < rs.length; ++i) {
+			rs[i] = new Replica(dataSources[i]);
+		}
+		replicas = rs;
+		for (Replica replica : old) {
+			replica.shutdown();
+		}
+	}
+	/**
+	 * 增加一个只读副本数据源
+	 * @param ds
+	 */
+	public static synchronized void addReplica(DataSource ds) {
+		Replica[] rs = Arrays.copyOf(replicas, replicas.length + 1);
+		rs[rs.length - 1] = new Replica(ds);
+		replicas = rs;
+	}
+	/**
+	 * 移除全部只读副本，查询恢复使用主库
+	 */
+	public static void clearReplicas() {
+		setReplicas();
+	}
+	public static int getReplicaCount() {
+		return replicas.length;
+	}
+	/**
+	 * 只读副本的连接池，未启用连接池或者尚未使用时返回null
+	 * @param index
+	 * @return
+	 */
+	public static ConnectionPool getReplicaPool(int index) {
+		return replicas[index].pool;
+	}
+	/**
+	 * 获取查询连接：没有只读副本、设置了IDataSourceProvider
+	 * 或者当前线程处于读己之写窗口时返回主库连接，
+	 * 否则按REPLICA_STRATEGY选择副本，副本获取连接失败时依次尝试其余副本，全部失败时使用主库
+	 * @return
+	 */
+	public static Connection getReadConnection() {
+		Replica[] rs = replicas;
+		if (rs.length == 0 || dataSourceProvider != null || isInReadYourWritesWindow()) {
+			return getConnection();
+		}
+		int start = selectReplica(rs);
+		for (int i = 0; i < rs.length; ++i) {
+			Replica replica = rs[(start + i) % rs.length];
+			try {
+				return replica.getConnection();
+			} catch (Exception e) {
+				logger.warn("Get Replica Connection Failed, Replica [" + 
+					replica.dataSource + "]", e);
+			}
+		}
+		logger.warn("All Replicas Unavailable, Read From Primary");
+		return getConnection();
+	}
+	/**
+	 * 记录当前线程写入主库，READ_YOUR_WRITES_MILLIS内该线程的查询使用主库。
+	 * BaseDAO的写入操作、事务结束后自动调用，直接通过JDBC写入时可手动调用
+	 */
+	public static void markWrite() {
+		if (READ_YOUR_WRITES_MILLIS > 0 && replicas.length > 0) {
+			getWriteClock().set(System.nanoTime());
+		}
+	}
+	/**
+	 * 当前线程是否处于读己之写窗口
+	 * @return
+	 */
+	public static boolean isInReadYourWritesWindow() {
+		AtomicLong clock = writeClock.get();
+		long last = clock != null ? clock.get() : NO_WRITE;
+		return last != NO_WRITE && 
+			System.nanoTime() - last < READ_YOUR_WRITES_MILLIS * 1000000L;
+	}
+	/**
+	 * 当前线程的写入时钟，不存在时创建
+	 * @return
+	 */
+	static AtomicLong getWriteClock() {
+		AtomicLong clock = writeClock.get();
+		if (clock == null) {
+			clock = new AtomicLong(NO_WRITE);
+			writeClock.set(clock);
+		}
+		return clock;
+	}
+	/**
+	 * 设置当前线程的写入时钟，AsyncDAO在工作线程中使用调用线程的时钟，
+	 * 工作线程的读取遵循调用线程的读己之写窗口，写入同时标记调用线程
+	 * @param clock 为null时移除
+	 * @return 原时钟，操作结束后恢复
+	 */
+	static AtomicLong setWriteClock(AtomicLong clock) {
+		AtomicLong previous = writeClock.get();
+		if (clock != null) {
+			writeClock.set(clock);
+		} else {
+			writeClock.remove();
+		}
+		return previous;
+	}
+	private static int selectReplica(Replica[] rs) {
+		if (rs.length == 1) {
+			return 0;
+		}
+		if (REPLICA_LEAST_BUSY.equals(REPLICA_STRATEGY) && POOL_ENABLED) {
+			int best = 0, min = Integer.MAX_VALUE;
+			// 从轮询位置开始，连接数相同时分散到不同副本
+			int start = (replicaSeq.getAndIncrement() & Integer.MAX_VALUE) % rs.length;
+			for (int i = 0; i < rs.length; ++i) {
+				int index = (start + i) % rs.length;
+				ConnectionPool cp = rs[index].pool;
+				int active = cp != null ? cp.getActiveCount() : 0;
+				if (active < min) {
+					min = active;
+					best = index;
+				}
+			}
+			return best;
+		}
+		return (replicaSeq.getAndIncrement() & Integer.MAX_VALUE) % rs.length;
+	}
+	/**
+	 * 只读副本，启用连接池时每个副本一个连接池，配置与主库连接池相同
+	 */
+	private static class Replica {
+		final DataSource dataSource;
+		volatile ConnectionPool pool;
+		Replica(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+		Connection getConnection() throws Exception {
+			return POOL_ENABLED ? getPool().borrow() : dataSource.getConnection();
+		}
+		ConnectionPool getPool() {
+			ConnectionPool cp = pool;
+			if (cp == null) {
+				synchronized (this) {
+					cp = pool;
+					if (cp == null) {
+						cp = new ConnectionPool(POOL_MIN_SIZE, 
+								POOL_MAX_SIZE, 
+								POOL_MAX_WAIT, 
+								POOL_IDLE_CHECK_INTERVAL, 
+								POOL_IDLE_TIMEOUT) {
+							@Override
+							protected Connection newConnection() throws Exception {
+								return dataSource.getConnection();
+							}
+						};
+						cp.setStatementCacheSize(STATEMENT_CACHE_SIZE);
+						cp.prefill();
+						pool = cp;
+					}
+				}
+			}
+			return cp;
+		}
+		synchronized void shutdown() {
+			if (pool != null) {
+				pool.close();
+				pool = null;
+			}
+		}
+	}
 	/**
 	 * 获取数据源连接
 	 * @return
@@ -79,11 +406,26 @@ public class ConnectionManager {
 	 */
 	public static Connection getDataSourceConnection() {
 		try {
-			return ((DataSource) new InitialContext().lookup(DATA_SOURCE_NAME)).getConnection();
+			return lookupDataSource().getConnection();
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
+	/**
+	 * 查找JNDI数据源，结果缓存，DATA_SOURCE_NAME变更后重新查找
+	 * @return
+	 * @throws Exception
+	 */
+	private static DataSource lookupDataSource() throws Exception {
+		DataSource ds = jndiDataSource;
+		String name = DATA_SOURCE_NAME;
+		if (ds == null || !name.equals(jndiDataSourceName)) {
+			ds = (DataSource) new InitialContext().lookup(name);
+			jndiDataSource = ds;
+			jndiDataSourceName = name;
+		}
+		return ds;
+	}
 	/**
 	 * 获取jdbc连接
 	 * @return
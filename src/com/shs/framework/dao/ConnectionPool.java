@@ -0,0 +1,571 @@
+package com.shs.framework.dao;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Semaphore;
+
+import org.apache.log4j.Logger;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 连接池，空闲连接存放于无锁双端队列（后进先出，优先取最近归还的连接），
+ * 	由信号量限制最大连接数；借出时以及空闲时校验连接，
+ * 	借出的连接为代理对象，调用close()时归还连接池而不是关闭物理连接，
+ * 	归还时回滚未提交的事务，恢复自动提交以及借出期间通过连接修改的只读、事务隔离级别、catalog。
+ * 	可选每个连接缓存PreparedStatement（LRU），以最终SQL为键，
+ * 	缓存的语句close()时清除参数后放回缓存而不是关闭。
+ * 	子类实现newConnection()提供物理连接。
+ * @date created: Oct 18, 2026 9:12:40 AM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public abstract class ConnectionPool {
+	private static Logger logger = Logger.getLogger(ConnectionPool.class);
+	private static final AtomicInteger POOL_SEQ = new AtomicInteger();
+	private final int minSize;
+	private final int maxSize;
+	private final long maxWait;
+	private final long idleTimeout;
+	/**
+	 * 空闲连接，头部为最近归还的连接
+	 */
+	private final ConcurrentLinkedDeque<PooledConnection> idle =
+			new ConcurrentLinkedDeque<PooledConnection>();
+	/**
+	 * 借出许可，数量等于最大连接数
+	 */
+	private final Semaphore permits;
+	/**
+	 * 物理连接总数
+	 */
+	private final AtomicInteger total = new AtomicInteger();
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong createCount = new AtomicLong();
+	private final AtomicLong invalidCount = new AtomicLong();
+	private final AtomicLong statementHitCount = new AtomicLong();
+	private final AtomicLong statementMissCount = new AtomicLong();
+	private final AtomicLong statementEvictionCount = new AtomicLong();
+	private final ScheduledExecutorService housekeeper;
+	/**
+	 * 每个连接缓存PreparedStatement数量，0不缓存
+	 */
+	private volatile int statementCacheSize;
+	private volatile boolean closed;
+
+	public ConnectionPool(int minSize, int maxSize, long maxWait,
+			long idleCheckInterval, long idleTimeout) {
+		if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+			throw new IllegalArgumentException(
+				"Invalid Pool Size [" + minSize + ", " + maxSize + "]");
+		}
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.maxWait = maxWait;
+		this.idleTimeout = idleTimeout;
+		permits = new Semaphore(maxSize, false);
+		final String name = "basedao-pool-" + POOL_SEQ.incrementAndGet();
+		housekeeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name);
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		if (idleCheckInterval > 0) {
+			housekeeper.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						checkIdle();
+					} catch (Throwable e) {
+						logger.warn("Connection Pool Idle Check Failed", e);
+					}
+				}
+			}, idleCheckInterval, idleCheckInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+	/**
+	 * 创建物理连接
+	 * @return
+	 * @throws Exception
+	 */
+	protected abstract Connection newConnection() throws Exception;
+	/**
+	 * 校验连接是否可用，默认使用Connection.isValid
+	 * @param dbConnection
+	 * @return
+	 */
+	protected boolean validate(Connection dbConnection) {
+		try {
+			return dbConnection.isValid(ConnectionManager.POOL_VALIDATION_TIMEOUT);
+		} catch (Throwable e) {
+			return false;
+		}
+	}
+	/**
+	 * 预先创建最小连接数的连接
+	 */
+	public void prefill() {
+		while (!closed && total.get() < minSize) {
+			if (!permits.tryAcquire()) {
+				return;
+			}
+			try {
+				if (total.get() >= minSize) {
+					return;
+				}
+				idle.offerLast(create());
+			} catch (Exception e) {
+				logger.warn("Connection Pool Prefill Failed", e);
+				return;
+			} finally {
+				permits.release();
+			}
+		}
+	}
+	/**
+	 * 借出连接，连接池已满时等待maxWait毫秒
+	 * @return
+	 */
+	public Connection borrow() {
+		if (closed) {
+			throw new IllegalStateException("Connection Pool Closed");
+		}
+		try {
+			if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+				throw new SQLException("Get Connection Timeout, Pool Size [" + maxSize + "]");
+			}
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		try {
+			PooledConnection pc;
+			while ((pc = idle.pollFirst()) != null) {
+				if (pc.idleTime() < ConnectionManager.POOL_VALIDATION_SKIP_WINDOW ||
+						validate(pc.target)) {
+					break;
+				}
+				invalidCount.incrementAndGet();
+				destroy(pc);
+			}
+			if (pc == null) {
+				pc = create();
+			}
+			borrowCount.incrementAndGet();
+			return pc.lease();
+		} catch (Throwable e) {
+			permits.release();
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 归还连接，恢复自动提交，未提交的事务回滚
+	 * @param pc
+	 */
+	void release(PooledConnection pc) {
+		try {
+			boolean reusable = !closed && pc.reset();
+			if (reusable) {
+				pc.lastUsed = System.currentTimeMillis();
+				idle.offerFirst(pc);
+			} else {
+				destroy(pc);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+	/**
+	 * 空闲检查，校验空闲连接，关闭超过最小连接数的超时空闲连接，补足最小连接数
+	 */
+	void checkIdle() {
+		List<PooledConnection> kept = new LinkedList<PooledConnection>();
+		long now = System.currentTimeMillis();
+		// 从尾部（最久未使用）取出检查，借出操作从头部取，互不影响
+		for (int i = idle.size(); i > 0; --i) {
+			PooledConnection pc = idle.pollLast();
+			if (pc == null) {
+				break;
+			}
+			if (idleTimeout > 0 && now - pc.lastUsed > idleTimeout &&
+					total.get() > minSize) {
+				destroy(pc);
+			} else if (!validate(pc.target)) {
+				invalidCount.incrementAndGet();
+				destroy(pc);
+			} else {
+				kept.add(pc);
+			}
+		}
+		for (PooledConnection pc : kept) {
+			idle.offerLast(pc);
+		}
+		prefill();
+	}
+	/**
+	 * 关闭连接池，关闭所有空闲连接，借出的连接归还时关闭
+	 */
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			destroy(pc);
+		}
+	}
+	private PooledConnection create() throws Exception {
+		Connection dbConnection = newConnection();
+		total.incrementAndGet();
+		createCount.incrementAndGet();
+		return new PooledConnection(this, dbConnection);
+	}
+	private void destroy(PooledConnection pc) {
+		total.decrementAndGet();
+		pc.destroy();
+	}
+	/**
+	 * 设置每个连接缓存PreparedStatement数量，0不缓存
+	 * @param statementCacheSize
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+	public long getStatementHitCount() {
+		return statementHitCount.get();
+	}
+	public long getStatementMissCount() {
+		return statementMissCount.get();
+	}
+	public long getStatementEvictionCount() {
+		return statementEvictionCount.get();
+	}
+	/**
+	 * PreparedStatement缓存命中率
+	 * @return
+	 */
+	public double getStatementHitRate() {
+		long hits = statementHitCount.get();
+		long total = hits + statementMissCount.get();
+		return total > 0 ? (double) hits / total : 0;
+	}
+	public int getTotalCount() {
+		return total.get();
+	}
+	public int getIdleCount() {
+		return idle.size();
+	}
+	public int getActiveCount() {
+		return maxSize - permits.availablePermits();
+	}
+	public long getBorrowCount() {
+		return borrowCount.get();
+	}
+	public long getCreateCount() {
+		return createCount.get();
+	}
+	public long getInvalidCount() {
+		return invalidCount.get();
+	}
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * 池中的物理连接
+	 */
+	static class PooledConnection {
+		final ConnectionPool pool;
+		final Connection target;
+		volatile long lastUsed = System.currentTimeMillis();
+		/**
+		 * 缓存的PreparedStatement，按访问顺序排列，只在借出连接的线程中访问
+		 */
+		private final LinkedHashMap<String, PreparedStatement> statements =
+				new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true);
+		/**
+		 * 已借出未归还缓存的PreparedStatement
+		 */
+		private final Set<PreparedStatement> statementsInUse =
+				new HashSet<PreparedStatement>();
+		/**
+		 * 借出期间首次修改前的只读、事务隔离级别、catalog，为null时未修改，归还时恢复
+		 */
+		private Boolean savedReadOnly;
+		private Integer savedIsolation;
+		private String savedCatalog;
+		private boolean catalogChanged;
+		PooledConnection(ConnectionPool pool, Connection target) {
+			this.pool = pool;
+			this.target = target;
+		}
+		/**
+		 * 修改只读、事务隔离级别、catalog之前记录原值
+		 */
+		void saveSession(String name) throws SQLException {
+			if ("setReadOnly".equals(name)) {
+				if (savedReadOnly == null) {
+					savedReadOnly = target.isReadOnly();
+				}
+			} else if ("setTransactionIsolation".equals(name)) {
+				if (savedIsolation == null) {
+					savedIsolation = target.getTransactionIsolation();
+				}
+			} else if (!catalogChanged) {
+				savedCatalog = target.getCatalog();
+				catalogChanged = true;
+			}
+		}
+		/**
+		 * 恢复借出期间修改的状态
+		 */
+		private void restoreSession() throws SQLException {
+			if (savedReadOnly != null) {
+				target.setReadOnly(savedReadOnly);
+				savedReadOnly = null;
+			}
+			if (savedIsolation != null) {
+				target.setTransactionIsolation(savedIsolation);
+				savedIsolation = null;
+			}
+			if (catalogChanged) {
+				if (savedCatalog == null) {
+					throw new SQLException("Catalog Can Not Be Restored");
+				}
+				target.setCatalog(savedCatalog);
+				catalogChanged = false;
+			}
+		}
+		long idleTime() {
+			return System.currentTimeMillis() - lastUsed;
+		}
+		/**
+		 * 每次借出生成新的代理，归还后旧代理不可再用
+		 * @return
+		 */
+		Connection lease() {
+			return (Connection) Proxy.newProxyInstance(
+					Connection.class.getClassLoader(),
+					new Class<?>[] {Connection.class},
+					new Lease(this));
+		}
+		/**
+		 * 从缓存中取出PreparedStatement，没有则创建
+		 * @param strSQL
+		 * @param connection 连接代理
+		 * @return
+		 * @throws SQLException
+		 */
+		PreparedStatement prepareStatement(String strSQL, Connection connection) throws SQLException {
+			PreparedStatement ps = statements.remove(strSQL);
+			if (ps != null) {
+				pool.statementHitCount.incrementAndGet();
+			} else {
+				pool.statementMissCount.incrementAndGet();
+				ps = target.prepareStatement(strSQL);
+			}
+			statementsInUse.add(ps);
+			return (PreparedStatement) Proxy.newProxyInstance(
+					PreparedStatement.class.getClassLoader(),
+					new Class<?>[] {PreparedStatement.class},
+					new CachedStatement(this, strSQL, ps, connection));
+		}
+		/**
+		 * PreparedStatement放回缓存，超出缓存数量关闭最久未使用的语句
+		 * @param strSQL
+		 * @param ps
+		 */
+		void returnStatement(String strSQL, PreparedStatement ps) {
+			statementsInUse.remove(ps);
+			try {
+				ps.clearParameters();
+				ps.clearBatch();
+				ps.clearWarnings();
+			} catch (SQLException e) {
+				closeStatement(ps);
+				return;
+			}
+			PreparedStatement exists = statements.put(strSQL, ps);
+			if (exists != null) { // 同一SQL同时借出多个，保留最后归还的
+				closeStatement(exists);
+			}
+			int size = pool.statementCacheSize;
+			Iterator<PreparedStatement> it = statements.values().iterator();
+			while (statements.size() > size && it.hasNext()) {
+				PreparedStatement eldest = it.next();
+				it.remove();
+				closeStatement(eldest);
+				pool.statementEvictionCount.incrementAndGet();
+			}
+		}
+		/**
+		 * 关闭所有缓存的语句
+		 */
+		void closeStatements() {
+			for (PreparedStatement ps : statements.values()) {
+				closeStatement(ps);
+			}
+			statements.clear();
+		}
+		private static void closeStatement(PreparedStatement ps) {
+			try {
+				ps.close();
+			} catch (SQLException e) {
+				logger.debug("Close Cached Statement Error", e);
+			}
+		}
+		boolean reset() {
+			try {
+				if (target.isClosed()) {
+					return false;
+				}
+				// 连接归还时未关闭的语句，与关闭连接一致，关闭语句
+				for (PreparedStatement ps : statementsInUse) {
+					closeStatement(ps);
+				}
+				statementsInUse.clear();
+				if (!target.getAutoCommit()) {
+					target.rollback();
+					target.setAutoCommit(true);
+				}
+				// 恢复借出期间修改的状态，不能恢复时不再复用
+				restoreSession();
+				target.clearWarnings();
+				return true;
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+		void destroy() {
+			closeStatements();
+			try {
+				target.close();
+			} catch (SQLException e) {
+				logger.debug("Close Pooled Connection Error", e);
+			}
+		}
+	}
+	/**
+	 * 借出连接代理，close()归还连接
+	 */
+	static class Lease implements InvocationHandler {
+		private final PooledConnection pc;
+		private final AtomicBoolean returned = new AtomicBoolean();
+		Lease(PooledConnection pc) {
+			this.pc = pc;
+		}
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name)) {
+				// 并发close只归还一次
+				if (returned.compareAndSet(false, true)) {
+					pc.pool.release(pc);
+				}
+				return null;
+			} else if ("isClosed".equals(name)) {
+				return returned.get() || pc.target.isClosed();
+			} else if ("equals".equals(name)) {
+				return proxy == args[0];
+			} else if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			} else if ("toString".equals(name)) {
+				return "Pooled[" + pc.target + "]";
+			} else if (returned.get()) {
+				throw new SQLException("Connection Has Been Returned To Pool");
+			}
+			if ("setReadOnly".equals(name) || "setTransactionIsolation".equals(name) ||
+					"setCatalog".equals(name)) {
+				pc.saveSession(name);
+			} else if ("prepareStatement".equals(name) && args.length == 1 &&
+					pc.pool.statementCacheSize > 0) {
+				return pc.prepareStatement((String) args[0], (Connection) proxy);
+			}
+			try {
+				return method.invoke(pc.target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+	/**
+	 * 缓存的PreparedStatement代理，close()放回缓存
+	 */
+	static class CachedStatement implements InvocationHandler {
+		private final PooledConnection pc;
+		private final String strSQL;
+		private final PreparedStatement target;
+		private final Connection connection;
+		private final int fetchSize;
+		private boolean closed;
+		CachedStatement(PooledConnection pc, String strSQL, 
+				PreparedStatement target, Connection connection) throws SQLException {
+			this.pc = pc;
+			this.strSQL = strSQL;
+			this.target = target;
+			this.connection = connection;
+			this.fetchSize = target.getFetchSize();
+		}
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name)) {
+				// 连接归还时已关闭的语句不再放回缓存
+				if (!closed && !target.isClosed()) {
+					closed = true;
+					// 恢复游标查询修改的fetchSize
+					if (target.getFetchSize() != fetchSize) {
+						target.setFetchSize(fetchSize);
+					}
+					pc.returnStatement(strSQL, target);
+				}
+				closed = true;
+				return null;
+			} else if ("isClosed".equals(name)) {
+				return closed || target.isClosed();
+			} else if ("getConnection".equals(name)) {
+				return connection;
+			} else if ("equals".equals(name)) {
+				return proxy == args[0];
+			} else if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			} else if ("toString".equals(name)) {
+				return "Cached[" + target + "]";
+			} else if (closed) {
+				throw new SQLException("Statement Has Been Closed");
+			}
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.shs.framework.dao;
+import java.io.Closeable;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.json.JSONObject;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 查询游标，逐行读取结果集，不一次性加载全部数据，
+ * 	使用完毕需要close()，在ConnectionOperator中打开的游标，操作结束时自动关闭。
+ * 	MySQL流式读取时，游标关闭前同一连接不能执行其他语句。
+ * @date created: Oct 18, 2026 11:20:05 AM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class Cursor implements Iterator<Map<String, Object>>, Iterable<Map<String, Object>>, Closeable {
+	private final BaseDAO.DAOCore owner;
+	private final Statement statement;
+	private final ResultSet resultSet;
+	private final ColumnPlan plan;
+	/**
+	 * 执行上下文，没有执行监听器时为null，游标关闭时结束
+	 */
+	private final ExecutionContext ctx;
+	/**
+	 * 是否已经预读下一行
+	 */
+	private boolean fetched;
+	private boolean hasNext;
+	private boolean closed;
+	private long rowCount;
+
+	Cursor(BaseDAO.DAOCore owner, Statement statement, ResultSet resultSet, 
+			boolean lowerCase, ExecutionContext ctx) {
+		this.owner = owner;
+		this.statement = statement;
+		this.resultSet = resultSet;
+		this.ctx = ctx;
+		this.plan = ColumnPlan.build(resultSet, lowerCase);
+	}
+	@Override
+	public boolean hasNext() {
+		if (!fetched) {
+			if (closed) {
+				return false;
+			}
+			try {
+				if (ctx != null) { // 两次读取之间调用方的处理不计时
+					ctx.skip();
+				}
+				hasNext = resultSet.next();
+				if (ctx != null) {
+					ctx.fetched();
+				}
+			} catch (SQLException e) {
+				if (ctx != null) {
+					ctx.failed(e);
+				}
+				close();
+				throw new RuntimeException(e);
+			}
+			fetched = true;
+			if (!hasNext) { // 读取完毕，释放资源
+				close();
+			}
+		}
+		return hasNext;
+	}
+	@Override
+	public Map<String, Object> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		fetched = false;
+		++rowCount;
+		if (ctx == null) {
+			return plan.getMap(resultSet, this);
+		}
+		ctx.skip();
+		Map<String, Object> row = plan.getMap(resultSet, this);
+		ctx.mapped();
+		return row;
+	}
+	/**
+	 * 以JSONObject返回下一行
+	 * @return
+	 */
+	public JSONObject nextJSONObject() {
+		return new JSONObject(next());
+	}
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+	@Override
+	public Iterator<Map<String, Object>> iterator() {
+		return this;
+	}
+	public ColumnPlan getColumnPlan() {
+		return plan;
+	}
+	/**
+	 * 已读取的行数
+	 * @return
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+	public boolean isClosed() {
+		return closed;
+	}
+	/**
+	 * 游标是否仍停留在第rowNumber行（未预读下一行，未关闭）
+	 */
+	boolean isCurrentRow(long rowNumber) {
+		return !closed && !fetched && rowCount == rowNumber;
+	}
+	/**
+	 * 关闭ResultSet以及Statement，连接由ConnectionOperator负责关闭
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			BaseDAO.close(statement, resultSet);
+			if (owner != null) {
+				owner.cursorClosed(this);
+			}
+			if (ctx != null) {
+				ctx.addRows(rowCount);
+				ctx.end(null);
+			}
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.shs.framework.dao;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 一次执行的上下文，记录操作类型、SQL、参数，
+ * 	以及获取连接、预备（含参数绑定）、执行、读取结果集、行映射各阶段耗时（纳秒），
+ * 	行数以及异常。只在注册了执行监听器时创建
+ * @date created: Oct 18, 2026 4:12:05 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class ExecutionContext {
+	private static Logger logger = Logger.getLogger(ExecutionContext.class);
+	public static final String OP_QUERY = "query";
+	public static final String OP_UPDATE = "update";
+	public static final String OP_EXECUTE = "execute";
+	public static final String OP_BATCH = "executeBatch";
+	public static final String OP_INSERT = "insert";
+	/**
+	 * 行数未知，如ResultSetOperator查询
+	 */
+	public static final long ROWS_UNKNOWN = -1;
+
+	private final IExecutionListener[] listeners;
+	private final String operation;
+	private final String strSQL;
+	private final Object values;
+	private final long startTime;
+	private final long startNanos;
+	/**
+	 * 上一阶段结束时间
+	 */
+	private long mark;
+	private final long acquireNanos;
+	private long prepareNanos;
+	private long executeNanos;
+	private long fetchNanos;
+	private long mapNanos;
+	private long totalNanos;
+	private long rows = ROWS_UNKNOWN;
+	private Throwable error;
+	private Map<String, Object> attributes;
+
+	ExecutionContext(IExecutionListener[] listeners, String operation,
+			String strSQL, Object values, long acquireNanos) {
+		this.listeners = listeners;
+		this.operation = operation;
+		this.strSQL = strSQL;
+		this.values = values;
+		this.acquireNanos = acquireNanos;
+		startTime = System.currentTimeMillis();
+		startNanos = mark = System.nanoTime();
+	}
+	/**
+	 * 开始执行，回调beforeExecution
+	 */
+	void begin() {
+		for (IExecutionListener listener : listeners) {
+			try {
+				listener.beforeExecution(this);
+			} catch (RuntimeException e) {
+				logger.warn("Execution Listener [" + listener + "] Error", e);
+			}
+		}
+		mark = System.nanoTime();
+	}
+	/**
+	 * 执行结束，回调afterExecution
+	 * @param error 执行异常，成功为null
+	 */
+	void end(Throwable error) {
+		long now = System.nanoTime();
+		totalNanos = acquireNanos + now - startNanos;
+		if (error != null) {
+			this.error = error;
+		}
+		for (IExecutionListener listener : listeners) {
+			try {
+				listener.afterExecution(this);
+			} catch (RuntimeException e) {
+				logger.warn("Execution Listener [" + listener + "] Error", e);
+			}
+		}
+	}
+	/**
+	 * 上一阶段结束至今的耗时
+	 */
+	private long lap() {
+		long now = System.nanoTime();
+		long elapsed = now - mark;
+		mark = now;
+		return elapsed;
+	}
+	void prepared() {
+		prepareNanos += lap();
+	}
+	void executed() {
+		executeNanos += lap();
+	}
+	void fetched() {
+		fetchNanos += lap();
+	}
+	void mapped() {
+		mapNanos += lap();
+	}
+	/**
+	 * 跳过计时，如两次读取之间调用方自己的处理
+	 */
+	void skip() {
+		mark = System.nanoTime();
+	}
+	void addRows(long n) {
+		rows = rows == ROWS_UNKNOWN ? n : rows + n;
+	}
+	void failed(Throwable error) {
+		this.error = error;
+	}
+	/**
+	 * 操作类型，OP_QUERY，OP_UPDATE，OP_EXECUTE，OP_BATCH，OP_INSERT
+	 * @return
+	 */
+	public String getOperation() {
+		return operation;
+	}
+	public String getStrSQL() {
+		return strSQL;
+	}
+	/**
+	 * 调用时传入的参数，未展开
+	 * @return
+	 */
+	public Object getValues() {
+		return values;
+	}
+	/**
+	 * 开始时间，毫秒
+	 * @return
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+	/**
+	 * 获取连接耗时，连接在ConnectionOperator中获取时计入第一个操作，其余为0
+	 * @return
+	 */
+	public long getAcquireNanos() {
+		return acquireNanos;
+	}
+	public long getPrepareNanos() {
+		return prepareNanos;
+	}
+	public long getExecuteNanos() {
+		return executeNanos;
+	}
+	public long getFetchNanos() {
+		return fetchNanos;
+	}
+	public long getMapNanos() {
+		return mapNanos;
+	}
+	/**
+	 * 总耗时，包括获取连接耗时，执行结束前为0
+	 * @return
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+	/**
+	 * 查询为读取行数，更新、插入为影响行数，未知为ROWS_UNKNOWN
+	 * @return
+	 */
+	public long getRows() {
+		return rows;
+	}
+	public Throwable getError() {
+		return error;
+	}
+	public boolean isSuccess() {
+		return error == null;
+	}
+	/**
+	 * 监听器之间，或者beforeExecution与afterExecution之间传递数据
+	 * @param name
+	 * @return
+	 */
+	public Object getAttribute(String name) {
+		return attributes != null ? attributes.get(name) : null;
+	}
+	public void setAttribute(String name, Object value) {
+		if (attributes == null) {
+			attributes = new HashMap<String, Object>();
+		}
+		attributes.put(name, value);
+	}
+	@Override
+	public String toString() {
+		return operation + "[" + strSQL + "] rows [" + rows + "] total [" +
+			totalNanos / 1000 + "us]" + (error != null ? " error [" + error + "]" : "");
+	}
+}
@@ -0,0 +1,26 @@
+package com.shs.framework.dao;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 执行监听器，BaseDAO执行查询、更新、execute、批量执行、插入前后回调，
+ * 	通过BaseDAO.addExecutionListener注册，
+ * 	回调在执行线程中同步调用，实现需要线程安全并且尽量轻量，抛出的异常只记录日志，不影响执行
+ * @date created: Oct 18, 2026 4:10:22 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public interface IExecutionListener {
+	/**
+	 * 执行前，此时只有操作类型、SQL、参数以及获取连接耗时
+	 * @param ctx
+	 */
+	public void beforeExecution(ExecutionContext ctx);
+	/**
+	 * 执行后（包括失败），各阶段耗时、行数、异常已设置
+	 * @param ctx
+	 */
+	public void afterExecution(ExecutionContext ctx);
+}
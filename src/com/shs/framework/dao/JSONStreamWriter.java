@@ -0,0 +1,133 @@
+package com.shs.framework.dao;
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 结果集直接写出JSON，不生成中间的List、JSONArray，内存占用与行数无关。
+ * 	列名规则与getMap相同（ColumnPlan），值的格式与JSONObject相同，默认不写null值（与findJSONArray一致）。
+ * 	支持JSON数组 [{...},{...}] 以及NDJSON（每行一个JSON对象，换行分隔），如：
+ * 	BaseDAO.writeJSONArray(response.getOutputStream(), "select id, name from demo_users");
+ * @date created: Oct 18, 2026 9:10:52 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class JSONStreamWriter {
+	private final Writer out;
+	private final ColumnPlan plan;
+	private final boolean ndjson;
+	/**
+	 * 预先转义的属性名，"name":
+	 */
+	private final String[] keys;
+	private boolean writeNulls = false;
+	private long rows = 0;
+
+	/**
+	 * @param out
+	 * @param plan 列计划
+	 * @param ndjson true写NDJSON，false写JSON数组
+	 */
+	public JSONStreamWriter(Writer out, ColumnPlan plan, boolean ndjson) {
+		this.out = out;
+		this.plan = plan;
+		this.ndjson = ndjson;
+		keys = new String[plan.size()];
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = JSONObject.quote(plan.getName(i)) + ":";
+		}
+	}
+	/**
+	 * 是否写出值为null的属性，默认不写
+	 * @param writeNulls
+	 * @return
+	 */
+	public JSONStreamWriter setWriteNulls(boolean writeNulls) {
+		this.writeNulls = writeNulls;
+		return this;
+	}
+	/**
+	 * 开始写出，JSON数组写出[
+	 * @throws IOException
+	 */
+	public void begin() throws IOException {
+		if (!ndjson) {
+			out.write('[');
+		}
+	}
+	/**
+	 * 写出ResultSet当前行
+	 * @param rs
+	 * @throws IOException
+	 */
+	public void writeRow(ResultSet rs) throws IOException {
+		if (!ndjson && rows > 0) {
+			out.write(',');
+		}
+		out.write('{');
+		boolean first = true;
+		for (int i = 0; i < keys.length; ++i) {
+			Object value = plan.getValue(rs, i);
+			if (value == null && !writeNulls) {
+				continue;
+			}
+			if (!first) {
+				out.write(',');
+			}
+			out.write(keys[i]);
+			writeValue(value);
+			first = false;
+		}
+		out.write('}');
+		if (ndjson) {
+			out.write('\n');
+		}
+		++rows;
+	}
+	/**
+	 * 结束写出，JSON数组写出]，flush但不关闭
+	 * @throws IOException
+	 */
+	public void end() throws IOException {
+		if (!ndjson) {
+			out.write(']');
+		}
+		out.flush();
+	}
+	/**
+	 * 已写出行数
+	 * @return
+	 */
+	public long getRowCount() {
+		return rows;
+	}
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			out.write("null");
+		} else if (value instanceof String) {
+			out.write(JSONObject.quote((String) value));
+		} else if (value instanceof Integer || value instanceof Long ||
+				value instanceof Short || value instanceof Byte ||
+				value instanceof Boolean) {
+			out.write(value.toString());
+		} else if ((value instanceof Double &&
+					(((Double) value).isNaN() || ((Double) value).isInfinite())) ||
+				(value instanceof Float &&
+					(((Float) value).isNaN() || ((Float) value).isInfinite()))) {
+			out.write("null"); // JSON不支持NaN、Infinity
+		} else {
+			try {
+				out.write(JSONObject.valueToString(JSONObject.wrap(value)));
+			} catch (JSONException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package com.shs.framework.dao;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 键集分页结果，包括当前页数据以及下一页的续读标记（token），
+ * 	token为Base64编码，包含排序、查询摘要以及最后一行的排序键（带类型），
+ * 	只能用于相同排序、相同查询的下一页
+ * @date created: Oct 18, 2026 6:02:41 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class KeysetPage {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final Pattern PATTERN_COLUMN = Pattern.compile("[\\w.$#]+");
+	private final List<Map<String, Object>> rows;
+	private final Object[] lastKeys;
+	private final String nextToken;
+
+	KeysetPage(List<Map<String, Object>> rows, Object[] lastKeys, String nextToken) {
+		this.rows = rows;
+		this.lastKeys = lastKeys;
+		this.nextToken = nextToken;
+	}
+	public List<Map<String, Object>> getRows() {
+		return rows;
+	}
+	public JSONArray toJSONArray() {
+		return new JSONArray(rows);
+	}
+	/**
+	 * 下一页续读标记，没有下一页返回null
+	 * @return
+	 */
+	public String getNextToken() {
+		return nextToken;
+	}
+	public boolean hasMore() {
+		return nextToken != null;
+	}
+	/**
+	 * 当前页最后一行的排序键，没有下一页返回null
+	 * @return
+	 */
+	public Object[] getLastKeys() {
+		return lastKeys != null ? lastKeys.clone() : null;
+	}
+	/**
+	 * 解析排序，如："created_at desc, id"
+	 * @param orderBy
+	 * @return {排序列, 排序方向}
+	 */
+	static String[][] parseOrderBy(String orderBy) {
+		String[] items = orderBy.trim().split("\\s*,\\s*");
+		String[] columns = new String[items.length];
+		String[] directions = new String[items.length];
+		for (int i = 0; i < items.length; ++i) {
+			String[] parts = items[i].split("\\s+");
+			if (parts.length > 2 || !PATTERN_COLUMN.matcher(parts[0]).matches()) {
+				throw new IllegalArgumentException("Invalid Order By [" + orderBy + "]");
+			}
+			columns[i] = parts[0];
+			directions[i] = parts.length > 1 ? parts[1].toLowerCase() : "asc";
+			if (!"asc".equals(directions[i]) && !"desc".equals(directions[i])) {
+				throw new IllegalArgumentException("Invalid Order By [" + orderBy + "]");
+			}
+		}
+		return new String[][] {columns, directions};
+	}
+	/**
+	 * 从行中取得排序键，列名按输出列名（大小写不敏感）查找
+	 */
+	static Object[] getKeys(Map<String, Object> row, String[] columns) {
+		Object[] keys = new Object[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			String col = columns[i].substring(columns[i].lastIndexOf('.') + 1);
+			Object key = row.get(col);
+			if (key == null) {
+				for (Map.Entry<String, Object> entry : row.entrySet()) {
+					if (entry.getKey().equalsIgnoreCase(col)) {
+						key = entry.getValue();
+						break;
+					}
+				}
+			}
+			if (key == null) {
+				throw new IllegalStateException("Seek Key [" + col + "] Is Null Or Not Selected");
+			}
+			keys[i] = key;
+		}
+		return keys;
+	}
+	/**
+	 * 生成续读标记
+	 */
+	static String encodeToken(String orderBy, String strSQL, Object[] keys) {
+		try {
+			JSONArray jaKeys = new JSONArray();
+			for (Object key : keys) {
+				jaKeys.put(encodeKey(key));
+			}
+			String json = new JSONObject()
+				.put("o", orderBy)
+				.put("h", strSQL.hashCode())
+				.put("k", jaKeys)
+				.toString();
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(UTF_8));
+		} catch (JSONException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 解析续读标记，排序或者查询不一致时抛出IllegalArgumentException
+	 */
+	static Object[] decodeToken(String token, String orderBy, String strSQL) {
+		JSONObject joToken;
+		try {
+			joToken = new JSONObject(new String(Base64.getUrlDecoder().decode(token), UTF_8));
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid Continuation Token [" + token + "]", e);
+		}
+		if (!orderBy.equals(joToken.optString("o")) ||
+				joToken.optInt("h") != strSQL.hashCode()) {
+			throw new IllegalArgumentException("Continuation Token Not Match Query [" + token + "]");
+		}
+		JSONArray jaKeys = joToken.optJSONArray("k");
+		if (jaKeys == null) {
+			throw new IllegalArgumentException("Invalid Continuation Token [" + token + "]");
+		}
+		Object[] keys = new Object[jaKeys.length()];
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = decodeKey(jaKeys.optString(i));
+		}
+		return keys;
+	}
+	/**
+	 * 排序键编码为 类型:值，如 l:1024，t:1350000000000.0
+	 */
+	private static String encodeKey(Object key) {
+		if (key instanceof String) {
+			return "s:" + key;
+		} else if (key instanceof Integer || key instanceof Short || key instanceof Byte) {
+			return "i:" + key;
+		} else if (key instanceof Long) {
+			return "l:" + key;
+		} else if (key instanceof Double || key instanceof Float) {
+			return "f:" + key;
+		} else if (key instanceof BigDecimal) {
+			return "n:" + ((BigDecimal) key).toPlainString();
+		} else if (key instanceof Number) {
+			return "n:" + key;
+		} else if (key instanceof Timestamp) { // 保留纳秒
+			Timestamp ts = (Timestamp) key;
+			return "t:" + (ts.getTime() - ts.getNanos() / 1000000) + "." + ts.getNanos();
+		} else if (key instanceof java.sql.Date) {
+			return "d:" + ((java.sql.Date) key).getTime();
+		} else if (key instanceof java.util.Date) {
+			return "t:" + ((java.util.Date) key).getTime() + ".-1";
+		} else if (key instanceof Boolean) {
+			return "b:" + key;
+		}
+		throw new IllegalArgumentException("Unsupported Seek Key Type [" + key.getClass() + "]");
+	}
+	private static Object decodeKey(String key) {
+		if (key.length() < 2 || key.charAt(1) != ':') {
+			throw new IllegalArgumentException("Invalid Seek Key [" + key + "]");
+		}
+		String value = key.substring(2);
+		try {
+			switch (key.charAt(0)) {
+			case 's':
+				return value;
+			case 'i':
+				return Integer.valueOf(value);
+			case 'l':
+				return Long.valueOf(value);
+			case 'f':
+				return Double.valueOf(value);
+			case 'n':
+				return new BigDecimal(value);
+			case 't':
+				int dot = value.indexOf('.');
+				Timestamp ts = new Timestamp(Long.parseLong(value.substring(0, dot)));
+				int nanos = Integer.parseInt(value.substring(dot + 1));
+				if (nanos >= 0) {
+					ts.setNanos(nanos);
+				}
+				return ts;
+			case 'd':
+				return new java.sql.Date(Long.parseLong(value));
+			case 'b':
+				return Boolean.valueOf(value);
+			}
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid Seek Key [" + key + "]", e);
+		}
+		throw new IllegalArgumentException("Invalid Seek Key [" + key + "]");
+	}
+}
@@ -0,0 +1,112 @@
+package com.shs.framework.dao;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 延迟读取的二进制数据，游标读取超过BaseDAO.BINARY_INLINE_LIMIT的BLOB时返回，
+ * 	不预先读取数据，只在游标停留在该行时有效，游标读取下一行或者关闭后不能再读取，
+ * 	需要保留时使用getBytes()或者spool()
+ * @date created: Oct 18, 2026 5:06:12 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class LazyBlob {
+	private final Blob blob;
+	private final long length;
+	private final Cursor scope;
+	private final long rowNumber;
+
+	LazyBlob(Blob blob, long length, Cursor scope, long rowNumber) {
+		this.blob = blob;
+		this.length = length;
+		this.scope = scope;
+		this.rowNumber = rowNumber;
+	}
+	/**
+	 * 数据长度，字节
+	 * @return
+	 */
+	public long length() {
+		return length;
+	}
+	/**
+	 * 游标是否仍停留在该行
+	 * @return
+	 */
+	public boolean isValid() {
+		return scope.isCurrentRow(rowNumber);
+	}
+	private void checkValid() {
+		if (!isValid()) {
+			throw new IllegalStateException(
+				"Lazy Blob Of Row [" + rowNumber + "] Is Out Of Cursor Scope");
+		}
+	}
+	/**
+	 * 打开数据流，调用方负责关闭
+	 * @return
+	 */
+	public InputStream getInputStream() {
+		checkValid();
+		try {
+			return blob.getBinaryStream();
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 读取全部数据
+	 * @return
+	 */
+	public byte[] getBytes() {
+		checkValid();
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Blob Too Large [" + length + "]");
+		}
+		try {
+			return blob.getBytes(1, (int) length);
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 写入输出流，不关闭输出流
+	 * @param out
+	 * @return 写入字节数
+	 */
+	public long writeTo(OutputStream out) {
+		InputStream in = getInputStream();
+		try {
+			return IOUtils.copyLarge(in, out);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+	/**
+	 * 转存为临时文件，见BinarySpool
+	 * @return
+	 */
+	public File spool() {
+		try {
+			return BinarySpool.spool(getInputStream());
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	@Override
+	public String toString() {
+		return "LazyBlob[" + length + "]";
+	}
+}
@@ -0,0 +1,175 @@
+package com.shs.framework.dao;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.shs.framework.dao.traits.IDbTrait;
+import com.shs.framework.dao.traits.QueryStatement;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 分区查询的分区方式，查询作为子查询，分区条件引用输出列名，
+ * 	各分区条件互斥并且覆盖全部数据（范围分区只覆盖[min, max]），如：
+ * 	PartitionSpec.range("id", 1, 1000000, 8); // 按id范围分为8个分区
+ * 	PartitionSpec.hash("id", 8); // abs(mod(id, 8)) = 0..7，整数列，列为null的行在第一个分区
+ * 	PartitionSpec.predicates("status = 'A'", "status <> 'A' or status is null"); // 指定条件
+ * @date created: Oct 18, 2026 7:15:32 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class PartitionSpec {
+	private static final int TYPE_RANGE = 0;
+	private static final int TYPE_HASH = 1;
+	private static final int TYPE_PREDICATES = 2;
+	private final int type;
+	private final String column;
+	private final long min;
+	private final long max;
+	private final int partitions;
+	private final String[] predicates;
+	private final Object[][] predicateValues;
+
+	private PartitionSpec(int type, String column, long min, long max, int partitions,
+			String[] predicates, Object[][] predicateValues) {
+		this.type = type;
+		this.column = column;
+		this.min = min;
+		this.max = max;
+		this.partitions = partitions;
+		this.predicates = predicates;
+		this.predicateValues = predicateValues;
+	}
+	/**
+	 * 数值范围分区，[min, max]平均分为partitions段，范围之外的行不查询
+	 * @param column 输出列名
+	 * @param min
+	 * @param max
+	 * @param partitions
+	 * @return
+	 */
+	public static PartitionSpec range(String column, long min, long max, int partitions) {
+		checkColumn(column);
+		if (partitions < 1 || min > max) {
+			throw new IllegalArgumentException("Invalid Range Partition [" +
+				column + ", " + min + ", " + max + ", " + partitions + "]");
+		}
+		return new PartitionSpec(TYPE_RANGE, column, min, max, partitions, null, null);
+	}
+	/**
+	 * 哈希分区，按整数列取模分为buckets个分区，列为null的行在第一个分区
+	 * @param column 输出列名
+	 * @param buckets
+	 * @return
+	 */
+	public static PartitionSpec hash(String column, int buckets) {
+		checkColumn(column);
+		if (buckets < 1) {
+			throw new IllegalArgumentException("Invalid Hash Partition [" + column + ", " + buckets + "]");
+		}
+		return new PartitionSpec(TYPE_HASH, column, 0, 0, buckets, null, null);
+	}
+	/**
+	 * 指定条件分区，每个条件一个分区，条件需要互斥，调用方保证
+	 * @param predicates
+	 * @return
+	 */
+	public static PartitionSpec predicates(String ... predicates) {
+		return predicates(Arrays.asList(predicates), null);
+	}
+	/**
+	 * 指定条件分区，条件可带参数
+	 * @param predicates
+	 * @param values 每个条件的参数，可为null
+	 * @return
+	 */
+	public static PartitionSpec predicates(List<String> predicates, List<Object[]> values) {
+		if (predicates.isEmpty()) {
+			throw new IllegalArgumentException("Partition Predicates Required");
+		}
+		if (values != null && values.size() != predicates.size()) {
+			throw new IllegalArgumentException("Partition Values [" + values.size() +
+				"] Not Match Predicates [" + predicates.size() + "]");
+		}
+		Object[][] arrValues = new Object[predicates.size()][];
+		for (int i = 0; i < arrValues.length; ++i) {
+			Object[] v = values != null ? values.get(i) : null;
+			arrValues[i] = v != null ? v : new Object[0];
+		}
+		return new PartitionSpec(TYPE_PREDICATES, null, 0, 0, predicates.size(),
+			predicates.toArray(new String[predicates.size()]), arrValues);
+	}
+	private static void checkColumn(String column) {
+		if (column == null || !column.matches("[\\w$#]+")) {
+			throw new IllegalArgumentException("Invalid Partition Column [" + column + "]");
+		}
+	}
+	/**
+	 * 分区数量，范围分区的范围小于分区数时按实际数量
+	 * @return
+	 */
+	public int size() {
+		if (type == TYPE_RANGE) {
+			long step = getStep();
+			return (int) ((max - min) / step + 1);
+		}
+		return partitions;
+	}
+	/**
+	 * 每段长度，向上取整
+	 */
+	private long getStep() {
+		return (max - min) / partitions + 1;
+	}
+	/**
+	 * 生成各分区的查询语句，参数为原查询参数加分区条件参数
+	 * @param dbTrait
+	 * @param strSQL
+	 * @param values
+	 * @param orderCols 分区内排序列，可为null
+	 * @param directions
+	 * @return
+	 */
+	List<QueryStatement> statements(IDbTrait dbTrait, String strSQL, Object[] values,
+			String[] orderCols, String[] directions) {
+		int size = size();
+		List<QueryStatement> list = new ArrayList<QueryStatement>(size);
+		// 先展开集合、命名占位，分区条件参数追加在展开后的值之后
+		List<Object> expanded = new ArrayList<Object>();
+		strSQL = BaseDAO.expandSQL(strSQL, expanded, values);
+		values = expanded.toArray();
+		for (int i = 0; i < size; ++i) {
+			String predicate;
+			Object[] predicateValues;
+			if (type == TYPE_RANGE) {
+				long lower = min + i * getStep();
+				boolean last = i == size - 1;
+				predicate = dbTrait.genRangePredicate(column, last);
+				predicateValues = new Object[] {lower, last ? max : lower + getStep()};
+			} else if (type == TYPE_HASH) {
+				predicate = dbTrait.genModPredicate(column, partitions, i == 0);
+				predicateValues = new Object[] {i};
+			} else {
+				predicate = "(" + predicates[i] + ")";
+				predicateValues = this.predicateValues[i];
+			}
+			Object[] allValues = new Object[values.length + predicateValues.length];
+			System.arraycopy(values, 0, allValues, 0, values.length);
+			System.arraycopy(predicateValues, 0, allValues, values.length, predicateValues.length);
+			list.add(new QueryStatement(
+				dbTrait.genPartitionSQL(strSQL, predicate, orderCols, directions), allValues));
+		}
+		return list;
+	}
+	@Override
+	public String toString() {
+		if (type == TYPE_RANGE) {
+			return "PartitionSpec[range " + column + " " + min + ".." + max + " / " + size() + "]";
+		} else if (type == TYPE_HASH) {
+			return "PartitionSpec[hash " + column + " / " + partitions + "]";
+		}
+		return "PartitionSpec" + Arrays.toString(predicates);
+	}
+}
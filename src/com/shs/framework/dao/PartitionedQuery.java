@@ -0,0 +1,372 @@
+package com.shs.framework.dao;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+
+import org.json.JSONArray;
+
+import com.shs.framework.dao.BaseDAO.ReadOperator;
+import com.shs.framework.dao.BaseDAO.RowOperator;
+import com.shs.framework.dao.traits.QueryStatement;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 分区并行查询，查询按PartitionSpec分为多个分区，
+ * 	各分区通过AsyncDAO在不同连接上并发执行（并发数受AsyncDAO.MAX_CONCURRENCY限制），结果合并返回。
+ * 	指定orderBy时各分区按orderBy排序，结果按orderBy归并（Java比较，字符串不考虑数据库排序规则），
+ * 	否则按分区顺序连接（findMapList）或者按到达顺序（query）。如：
+ * 	PartitionedQuery.findMapList(PartitionSpec.hash("id", 4), "id", "select id, name from demo");
+ * 	不要在AsyncDAO操作中调用，避免占用并发许可等待自身
+ * @date created: Oct 18, 2026 7:32:08 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class PartitionedQuery {
+	/**
+	 * 逐行查询时每个分区缓冲的行数
+	 */
+	public static int QUEUE_SIZE = 1024;
+	/**
+	 * 分区结束标记
+	 */
+	private static final Object END = new Object();
+
+	/**
+	 * 分区并行查询，结果全部读取后合并
+	 * @param lowerCase
+	 * @param spec
+	 * @param orderBy 排序，如："created_at desc, id"，可为null
+	 * @param strSQL 原查询，不能带order by
+	 * @param values
+	 * @return
+	 */
+	public static List<Map<String, Object>> findMapList(boolean lowerCase, PartitionSpec spec,
+			String orderBy, String strSQL, Object ... values) {
+		String[][] order = orderBy != null ? KeysetPage.parseOrderBy(orderBy) : null;
+		List<QueryStatement> statements = spec.statements(BaseDAO.getDbTrait(), strSQL, values,
+			order != null ? order[0] : null, order != null ? order[1] : null);
+		List<CompletableFuture<List<Map<String, Object>>>> futures =
+			new ArrayList<CompletableFuture<List<Map<String, Object>>>>(statements.size());
+		for (QueryStatement qs : statements) {
+			futures.add(AsyncDAO.findMapList(lowerCase, qs.getStrSQL(), qs.getValues()));
+		}
+		List<List<Map<String, Object>>> results = new ArrayList<List<Map<String, Object>>>(futures.size());
+		int total = 0;
+		try {
+			for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+				List<Map<String, Object>> rows = future.get();
+				total += rows.size();
+				results.add(rows);
+			}
+		} catch (Exception e) {
+			for (CompletableFuture<List<Map<String, Object>>> future : futures) {
+				future.cancel(false);
+			}
+			throw unwrap(e);
+		}
+		List<Map<String, Object>> listRtn = new ArrayList<Map<String, Object>>(total);
+		if (order == null) {
+			for (List<Map<String, Object>> rows : results) {
+				listRtn.addAll(rows);
+			}
+		} else {
+			PriorityQueue<Head> heads = new PriorityQueue<Head>(results.size());
+			for (List<Map<String, Object>> rows : results) {
+				Iterator<Map<String, Object>> it = rows.iterator();
+				if (it.hasNext()) {
+					heads.add(new Head(it, it.next(), order));
+				}
+			}
+			while (!heads.isEmpty()) {
+				Head head = heads.poll();
+				listRtn.add(head.row);
+				if (head.rows.hasNext()) {
+					heads.add(head.advance(head.rows.next()));
+				}
+			}
+		}
+		return listRtn;
+	}
+	public static List<Map<String, Object>> findMapList(PartitionSpec spec,
+			String orderBy, String strSQL, Object ... values) {
+		return findMapList(BaseDAO.DEFAULT_CHAR_LOWER_CASE, spec, orderBy, strSQL, values);
+	}
+	public static JSONArray findJSONArray(boolean lowerCase, PartitionSpec spec,
+			String orderBy, String strSQL, Object ... values) {
+		return new JSONArray(findMapList(lowerCase, spec, orderBy, strSQL, values));
+	}
+	public static JSONArray findJSONArray(PartitionSpec spec,
+			String orderBy, String strSQL, Object ... values) {
+		return findJSONArray(BaseDAO.DEFAULT_CHAR_LOWER_CASE, spec, orderBy, strSQL, values);
+	}
+	/**
+	 * 分区并行逐行查询，各分区通过游标读取，每个分区最多缓冲QUEUE_SIZE行，
+	 * RowOperator在调用线程中逐行调用（ro.dbConnection为null，rowNumber为合并后的行号），
+	 * 抛出异常时取消其余分区。
+	 * 指定orderBy时归并需要等待每个分区，所有分区开始执行之前分区缓冲不限行数，
+	 * 避免已开始的分区占用并发许可等待缓冲，而归并等待尚未取得许可的分区
+	 * @param spec
+	 * @param orderBy 排序，可为null
+	 * @param ro
+	 * @param strSQL 原查询，不能带order by
+	 * @param values
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T query(PartitionSpec spec, String orderBy, RowOperator ro,
+			String strSQL, Object ... values) {
+		String[][] order = orderBy != null ? KeysetPage.parseOrderBy(orderBy) : null;
+		List<QueryStatement> statements = spec.statements(BaseDAO.getDbTrait(), strSQL, values,
+			order != null ? order[0] : null, order != null ? order[1] : null);
+		int size = statements.size();
+		// 无序时所有分区共用一个队列
+		List<BlockingQueue<Object>> queues = new ArrayList<BlockingQueue<Object>>(size);
+		for (int i = 0; i < (order != null ? size : 1); ++i) {
+			queues.add(new LinkedBlockingQueue<Object>());
+		}
+		final Flow flow = new Flow(size, Math.max(1, QUEUE_SIZE), order != null);
+		List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(size);
+		for (int i = 0; i < size; ++i) {
+			final QueryStatement qs = statements.get(i);
+			final BlockingQueue<Object> queue = queues.get(order != null ? i : 0);
+			CompletableFuture<Void> future = AsyncDAO.execute(new ReadOperator() {
+				@Override
+				protected void run() {
+					flow.started();
+					Cursor cursor = openCursor(qs.getStrSQL(), qs.getValues());
+					while (cursor.hasNext()) {
+						if (!flow.put(queue, cursor.next(), false)) {
+							return;
+						}
+					}
+				}
+			});
+			future.whenComplete(new BiConsumer<Void, Throwable>() {
+				@Override
+				public void accept(Void v, Throwable e) {
+					flow.put(queue, new End(e), true);
+				}
+			});
+			futures.add(future);
+		}
+		try {
+			ro.dbConnection = null;
+			ro.rowNumber = 0;
+			if (order == null) {
+				BlockingQueue<Object> queue = queues.get(0);
+				int remaining = size;
+				while (remaining > 0) {
+					Object item = flow.take(queue);
+					if (item instanceof End) {
+						((End) item).check();
+						--remaining;
+					} else {
+						deliver(ro, item);
+					}
+				}
+			} else {
+				PriorityQueue<Head> heads = new PriorityQueue<Head>(size);
+				for (BlockingQueue<Object> queue : queues) {
+					Object item = flow.take(queue);
+					if (item instanceof End) {
+						((End) item).check();
+					} else {
+						heads.add(new Head(queue, item, order));
+					}
+				}
+				while (!heads.isEmpty()) {
+					Head head = heads.poll();
+					deliver(ro, head.row);
+					Object item = flow.take(head.queue);
+					if (item instanceof End) {
+						((End) item).check();
+					} else {
+						heads.add(head.advance(item));
+					}
+				}
+			}
+			return (T) ro.result;
+		} catch (Exception e) {
+			flow.cancel();
+			for (CompletableFuture<Void> future : futures) {
+				future.cancel(false);
+			}
+			throw unwrap(e);
+		} finally {
+			ro.row = null;
+		}
+	}
+	public static <T> T query(PartitionSpec spec, RowOperator ro,
+			String strSQL, Object ... values) {
+		return query(spec, null, ro, strSQL, values);
+	}
+	@SuppressWarnings("unchecked")
+	private static void deliver(RowOperator ro, Object row) throws Exception {
+		ro.row = (Map<String, Object>) row;
+		++ro.rowNumber;
+		ro.run();
+	}
+	/**
+	 * 分区缓冲的流量控制，队列不设容量，由put按capacity等待。
+	 * waitAll为true（归并）时，所有分区开始执行之前不等待，之后每个队列最多capacity行
+	 */
+	private static class Flow {
+		private final int partitions;
+		private final int capacity;
+		private final boolean waitAll;
+		private int started = 0;
+		private boolean cancelled = false;
+		Flow(int partitions, int capacity, boolean waitAll) {
+			this.partitions = partitions;
+			this.capacity = capacity;
+			this.waitAll = waitAll;
+		}
+		synchronized void started() {
+			++started;
+		}
+		/**
+		 * 放入队列，队列满时等待，取消后返回false
+		 * @param force 不等待，用于结束标记
+		 */
+		synchronized boolean put(BlockingQueue<Object> queue, Object item, boolean force) {
+			try {
+				while (!cancelled && !force && queue.size() >= capacity &&
+						(!waitAll || started >= partitions)) {
+					wait(100);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+			if (cancelled) {
+				return false;
+			}
+			queue.add(item);
+			return true;
+		}
+		/**
+		 * 取出一行，队列由满变为不满时唤醒等待的分区
+		 */
+		Object take(BlockingQueue<Object> queue) throws InterruptedException {
+			Object item = queue.take();
+			if (queue.size() == capacity - 1) {
+				synchronized (this) {
+					notifyAll();
+				}
+			}
+			return item;
+		}
+		synchronized void cancel() {
+			cancelled = true;
+			notifyAll();
+		}
+	}
+	private static RuntimeException unwrap(Exception e) {
+		Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+		if (cause instanceof InterruptedException) {
+			Thread.currentThread().interrupt();
+		}
+		return cause instanceof RuntimeException ?
+			(RuntimeException) cause : new RuntimeException(cause);
+	}
+	/**
+	 * 分区结束，带分区异常
+	 */
+	private static class End {
+		final Throwable error;
+		End(Throwable error) {
+			this.error = error;
+		}
+		void check() {
+			if (error != null) {
+				throw error instanceof RuntimeException ?
+					(RuntimeException) error : new RuntimeException(error);
+			}
+		}
+	}
+	/**
+	 * 归并时每个分区的当前行
+	 */
+	private static class Head implements Comparable<Head> {
+		final Iterator<Map<String, Object>> rows;
+		final BlockingQueue<Object> queue;
+		final String[][] order;
+		Map<String, Object> row;
+		Object[] keys;
+		Head(Iterator<Map<String, Object>> rows, Map<String, Object> row, String[][] order) {
+			this.rows = rows;
+			this.queue = null;
+			this.order = order;
+			advance(row);
+		}
+		Head(BlockingQueue<Object> queue, Object row, String[][] order) {
+			this.rows = null;
+			this.queue = queue;
+			this.order = order;
+			advance(row);
+		}
+		@SuppressWarnings("unchecked")
+		Head advance(Object row) {
+			this.row = (Map<String, Object>) row;
+			keys = getKeys(this.row, order[0]);
+			return this;
+		}
+		@Override
+		public int compareTo(Head o) {
+			for (int i = 0; i < keys.length; ++i) {
+				int c = compareKey(keys[i], o.keys[i]);
+				if (c != 0) {
+					return "desc".equals(order[1][i]) ? -c : c;
+				}
+			}
+			return 0;
+		}
+	}
+	/**
+	 * 取得排序键，可为null
+	 */
+	private static Object[] getKeys(Map<String, Object> row, String[] columns) {
+		Object[] keys = new Object[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			String col = columns[i].substring(columns[i].lastIndexOf('.') + 1);
+			Object key = row.get(col);
+			if (key == null && !row.containsKey(col)) {
+				for (Map.Entry<String, Object> entry : row.entrySet()) {
+					if (entry.getKey().equalsIgnoreCase(col)) {
+						key = entry.getValue();
+						break;
+					}
+				}
+			}
+			keys[i] = key;
+		}
+		return keys;
+	}
+	/**
+	 * 比较排序键，null最小，不同数值类型按BigDecimal比较
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compareKey(Object a, Object b) {
+		if (a == null || b == null) {
+			return a == null ? (b == null ? 0 : -1) : 1;
+		}
+		if (a instanceof Number && b instanceof Number && a.getClass() != b.getClass()) {
+			return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+		}
+		if (a instanceof Comparable) {
+			return ((Comparable) a).compareTo(b);
+		}
+		return a.toString().compareTo(b.toString());
+	}
+}
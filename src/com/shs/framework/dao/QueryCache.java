@@ -0,0 +1,442 @@
+package com.shs.framework.dao;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.shs.framework.dao.BaseDAO.ConnectionOperator;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 查询结果缓存，按查询语句以及参数缓存，按需使用（只缓存通过本类查询的结果），
+ * 	TTL过期，超出容量时按分段LRU淘汰，查询依赖的表从语句的from、join中解析，
+ * 	通过BaseDAO写入（insert，update，execute，executeBatch）的表失效，事务提交后再次失效，
+ * 	事务中以及写入后在同一绑定连接上的查询直接执行，不缓存（可能读到未提交的数据），
+ * 	失效按表版本号判断，不遍历缓存。数据库外部的修改只能等待过期或者调用invalidate。
+ * 	配置了只读副本时，缓存仍从主库加载，避免失效后从尚未同步的副本加载旧数据。
+ * 	返回结果为副本，可以修改。如：
+ * 	QueryCache.findMapList("select code, name from dict where type = ?", "gender");
+ * @date created: Oct 18, 2026 9:34:05 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+@SuppressWarnings("unchecked")
+public class QueryCache {
+	/**
+	 * 最大缓存数量
+	 */
+	public static int MAX_SIZE = 10000;
+	/**
+	 * 默认过期时间，毫秒
+	 */
+	public static long TTL_MILLIS = 60 * 1000;
+	private static final int SEGMENTS = 16;
+	private static final int KIND_OBJ = 0;
+	private static final int KIND_MAP = 1;
+	private static final int KIND_LIST = 2;
+	private static final Object NULL = new Object();
+	private static final Pattern PATTERN_FROM = Pattern.compile("(?i)\\b(from|join)\\s+");
+	private static final Pattern PATTERN_FROM_END = Pattern.compile(
+		"(?i)\\s+(where|group|order|having|union|minus|except|intersect|left|right|inner|outer|full|cross|natural|join|on|connect|start|limit|fetch|offset|for)\\b|[();]");
+	private static final Pattern PATTERN_WRITE = Pattern.compile(
+		"(?i)^\\s*(?:insert\\s+(?:all\\s+)?into|update|delete\\s+from|delete|merge\\s+into|replace\\s+into|truncate\\s+table|drop\\s+table|alter\\s+table)\\s+([^\\s(,;]+)");
+	private static final Segment[] segments = new Segment[SEGMENTS];
+	static {
+		for (int i = 0; i < SEGMENTS; ++i) {
+			segments[i] = new Segment();
+		}
+	}
+	/**
+	 * 表版本号，写入时增加
+	 */
+	private static final ConcurrentHashMap<String, AtomicLong> versions =
+			new ConcurrentHashMap<String, AtomicLong>();
+	/**
+	 * 全局版本号，invalidateAll时增加
+	 */
+	private static final AtomicLong epoch = new AtomicLong();
+	/**
+	 * 解析的依赖表，按语句缓存
+	 */
+	private static final ConcurrentHashMap<String, String[]> tablesCache =
+			new ConcurrentHashMap<String, String[]>();
+	private static volatile boolean active = false;
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+	private static final LongAdder evictions = new LongAdder();
+	private static final LongAdder expirations = new LongAdder();
+	private static final LongAdder invalidations = new LongAdder();
+
+	public static <T> T findObj(String strSQL, Object ... values) {
+		return findObj(TTL_MILLIS, strSQL, values);
+	}
+	public static <T> T findObj(long ttlMillis, final String strSQL, final Object ... values) {
+		return (T) get(KIND_OBJ, false, ttlMillis, strSQL, values, new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = findObj(strSQL, values);
+			}
+		});
+	}
+	public static String findStr(String strSQL, Object ... values) {
+		return findObj(TTL_MILLIS, strSQL, values);
+	}
+	public static String findStr(long ttlMillis, String strSQL, Object ... values) {
+		return findObj(ttlMillis, strSQL, values);
+	}
+	public static Map<String, Object> findMap(String strSQL, Object ... values) {
+		return findMap(TTL_MILLIS, strSQL, values);
+	}
+	public static Map<String, Object> findMap(long ttlMillis, final String strSQL, final Object ... values) {
+		final boolean lowerCase = BaseDAO.DEFAULT_CHAR_LOWER_CASE;
+		Map<String, Object> map = (Map<String, Object>) get(KIND_MAP, lowerCase, ttlMillis, strSQL, values,
+			new ConnectionOperator() {
+				@Override
+				protected void run() {
+					result = findMap(lowerCase, strSQL, values);
+				}
+			});
+		return map != null ? new HashMap<String, Object>(map) : null;
+	}
+	public static JSONObject findJSONObject(String strSQL, Object ... values) {
+		return findJSONObject(TTL_MILLIS, strSQL, values);
+	}
+	public static JSONObject findJSONObject(long ttlMillis, String strSQL, Object ... values) {
+		Map<String, Object> map = findMap(ttlMillis, strSQL, values);
+		return map != null ? new JSONObject(map) : null;
+	}
+	public static List<Map<String, Object>> findMapList(String strSQL, Object ... values) {
+		return findMapList(TTL_MILLIS, strSQL, values);
+	}
+	public static List<Map<String, Object>> findMapList(long ttlMillis, String strSQL, Object ... values) {
+		RowList rows = findRows(ttlMillis, strSQL, values);
+		List<Map<String, Object>> list = new ArrayList<Map<String, Object>>(rows.size());
+		for (Map<String, Object> row : rows) {
+			list.add(new HashMap<String, Object>(row));
+		}
+		return list;
+	}
+	public static JSONArray findJSONArray(String strSQL, Object ... values) {
+		return findJSONArray(TTL_MILLIS, strSQL, values);
+	}
+	public static JSONArray findJSONArray(long ttlMillis, String strSQL, Object ... values) {
+		return findRows(ttlMillis, strSQL, values).toJSONArray();
+	}
+	/**
+	 * 列表结果以RowList缓存
+	 */
+	private static RowList findRows(long ttlMillis, final String strSQL, final Object ... values) {
+		final boolean lowerCase = BaseDAO.DEFAULT_CHAR_LOWER_CASE;
+		return (RowList) get(KIND_LIST, lowerCase, ttlMillis, strSQL, values, new ConnectionOperator() {
+			@Override
+			protected void run() {
+				result = findRowList(lowerCase, strSQL, values);
+			}
+		});
+	}
+	private static Object get(int kind, boolean lowerCase, long ttlMillis,
+			String strSQL, Object[] values, ConnectionOperator loader) {
+		if (!active) {
+			active = true;
+		}
+		Key key = new Key(kind, lowerCase, strSQL, values);
+		Segment segment = segments[(key.hashCode() & 0x7fffffff) % SEGMENTS];
+		Entry entry;
+		synchronized (segment) {
+			entry = segment.get(key);
+		}
+		long now = System.nanoTime();
+		if (entry != null) {
+			if (now - entry.expireAt >= 0) {
+				expirations.increment();
+				remove(segment, key, entry);
+			} else if (!entry.isCurrent()) {
+				invalidations.increment();
+				remove(segment, key, entry);
+			} else {
+				hits.increment();
+				return entry.value != NULL ? entry.value : null;
+			}
+		}
+		misses.increment();
+		if (BaseDAO.isInTransaction() || BaseDAO.hasBoundWrites()) {
+			// 事务中或者写入后复用线程绑定的连接，可能读到未提交的数据，直接查询不缓存
+			return BaseDAO.execute(loader);
+		}
+		// 先记录版本号再查询，查询期间的写入使该结果失效
+		String[] tables = getReadTables(strSQL);
+		long[] tableVersions = new long[tables.length];
+		for (int i = 0; i < tables.length; ++i) {
+			tableVersions[i] = getVersion(tables[i]);
+		}
+		long currentEpoch = epoch.get();
+		Object value = BaseDAO.execute(loader);
+		entry = new Entry(value != null ? value : NULL, now + ttlMillis * 1000000L,
+			tables, tableVersions, currentEpoch);
+		synchronized (segment) {
+			segment.put(key, entry);
+		}
+		return value;
+	}
+	private static void remove(Segment segment, Key key, Entry entry) {
+		synchronized (segment) {
+			if (segment.get(key) == entry) {
+				segment.remove(key);
+			}
+		}
+	}
+	/**
+	 * 是否使用过缓存，未使用时写入不记录失效
+	 * @return
+	 */
+	static boolean isActive() {
+		return active;
+	}
+	/**
+	 * 使依赖表的缓存失效
+	 * @param tables
+	 */
+	public static void invalidate(String ... tables) {
+		for (String table : tables) {
+			String name = normalize(table);
+			AtomicLong version = versions.get(name);
+			if (version == null) {
+				version = new AtomicLong();
+				AtomicLong exists = versions.putIfAbsent(name, version);
+				if (exists != null) {
+					version = exists;
+				}
+			}
+			version.incrementAndGet();
+		}
+	}
+	public static void invalidate(Collection<String> tables) {
+		invalidate(tables.toArray(new String[tables.size()]));
+	}
+	/**
+	 * 使全部缓存失效
+	 */
+	public static void invalidateAll() {
+		epoch.incrementAndGet();
+	}
+	/**
+	 * 清空缓存以及统计
+	 */
+	public static void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+		tablesCache.clear();
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+		expirations.reset();
+		invalidations.reset();
+	}
+	private static long getVersion(String table) {
+		AtomicLong version = versions.get(table);
+		return version != null ? version.get() : 0;
+	}
+	/**
+	 * 查询依赖的表，from、join之后的表名，子查询递归包含
+	 * @param strSQL
+	 * @return 规范化的表名
+	 */
+	static String[] getReadTables(String strSQL) {
+		String[] tables = tablesCache.get(strSQL);
+		if (tables != null) {
+			return tables;
+		}
+		Set<String> set = new LinkedHashSet<String>();
+		Matcher m = PATTERN_FROM.matcher(strSQL);
+		Matcher mEnd = PATTERN_FROM_END.matcher(strSQL);
+		while (m.find()) {
+			int start = m.end();
+			if (start >= strSQL.length() || strSQL.charAt(start) == '(') {
+				continue; // 子查询，内部的from单独匹配
+			}
+			int end = mEnd.find(start) ? mEnd.start() : strSQL.length();
+			String list = strSQL.substring(start, end);
+			// join只有一个表，from可以逗号分隔多个表
+			String[] items = "join".equalsIgnoreCase(m.group(1)) ?
+				new String[] {list} : list.split(",");
+			for (String item : items) {
+				String name = item.trim().split("\\s+")[0];
+				if (name.length() > 0) {
+					set.add(normalize(name));
+				}
+			}
+		}
+		tables = set.toArray(new String[set.size()]);
+		if (tablesCache.size() < BindPlan.CACHE_SIZE) {
+			tablesCache.put(strSQL, tables);
+		}
+		return tables;
+	}
+	/**
+	 * 写入语句的目标表，不能识别返回null
+	 * @param strSQL
+	 * @return
+	 */
+	static String getWriteTable(String strSQL) {
+		if (strSQL == null) {
+			return null;
+		}
+		Matcher m = PATTERN_WRITE.matcher(strSQL);
+		return m.find() ? normalize(m.group(1)) : null;
+	}
+	/**
+	 * 表名规范化，去掉引号以及schema，小写
+	 */
+	private static String normalize(String table) {
+		String name = table.replaceAll("[\"`\\[\\]]", "");
+		return name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+	}
+	public static long getHitCount() {
+		return hits.sum();
+	}
+	public static long getMissCount() {
+		return misses.sum();
+	}
+	/**
+	 * 超出容量淘汰数量
+	 * @return
+	 */
+	public static long getEvictionCount() {
+		return evictions.sum();
+	}
+	/**
+	 * 过期数量
+	 * @return
+	 */
+	public static long getExpirationCount() {
+		return expirations.sum();
+	}
+	/**
+	 * 依赖表写入后失效数量
+	 * @return
+	 */
+	public static long getInvalidationCount() {
+		return invalidations.sum();
+	}
+	public static double getHitRate() {
+		long h = hits.sum(), total = h + misses.sum();
+		return total > 0 ? (double) h / total : 0;
+	}
+	public static int getSize() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+	public static String getStats() {
+		return "QueryCache size [" + getSize() + "] hits [" + getHitCount() +
+			"] misses [" + getMissCount() + "] evictions [" + getEvictionCount() +
+			"] expirations [" + getExpirationCount() + "] invalidations [" +
+			getInvalidationCount() + "]";
+	}
+	/**
+	 * 缓存分段，按访问顺序，超出容量淘汰最久未访问的
+	 */
+	private static class Segment extends LinkedHashMap<Key, Entry> {
+		private static final long serialVersionUID = 1L;
+		Segment() {
+			super(16, 0.75f, true);
+		}
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+			if (size() > Math.max(1, MAX_SIZE / SEGMENTS)) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+	private static class Entry {
+		final Object value;
+		final long expireAt;
+		final String[] tables;
+		final long[] tableVersions;
+		final long epoch;
+		Entry(Object value, long expireAt, String[] tables, long[] tableVersions, long epoch) {
+			this.value = value;
+			this.expireAt = expireAt;
+			this.tables = tables;
+			this.tableVersions = tableVersions;
+			this.epoch = epoch;
+		}
+		/**
+		 * 依赖表是否没有写入
+		 */
+		boolean isCurrent() {
+			if (epoch != QueryCache.epoch.get()) {
+				return false;
+			}
+			for (int i = 0; i < tables.length; ++i) {
+				if (getVersion(tables[i]) != tableVersions[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+	/**
+	 * 缓存键，结果类型、列名大小写、语句、参数
+	 */
+	private static class Key {
+		private final int kind;
+		private final boolean lowerCase;
+		private final String strSQL;
+		private final Object[] values;
+		private final int hash;
+		Key(int kind, boolean lowerCase, String strSQL, Object[] values) {
+			this.kind = kind;
+			this.lowerCase = lowerCase;
+			this.strSQL = strSQL;
+			Object[] keyValues = values != null ? values.clone() : new Object[0];
+			for (int i = 0; i < keyValues.length; ++i) {
+				// JSONArray、JSONObject没有实现equals
+				if (keyValues[i] instanceof JSONArray || keyValues[i] instanceof JSONObject) {
+					keyValues[i] = keyValues[i].getClass().getName() + keyValues[i];
+				}
+			}
+			this.values = keyValues;
+			hash = (strSQL.hashCode() * 31 + Arrays.deepHashCode(keyValues)) * 31 +
+				kind * 2 + (lowerCase ? 1 : 0);
+		}
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return hash == k.hash && kind == k.kind && lowerCase == k.lowerCase &&
+				strSQL.equals(k.strSQL) && Arrays.deepEquals(values, k.values);
+		}
+	}
+}
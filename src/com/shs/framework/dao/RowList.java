@@ -0,0 +1,243 @@
+package com.shs.framework.dao;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import org.json.JSONArray;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 紧凑的查询结果，所有行共用一份列名索引，每行一个Object[]，
+ * 	不再为每行创建HashMap，适合缓存较大的参考数据。
+ * 	get(i)返回该行的Map视图（每次新建，只引用行数组），可以修改已有列的值，不能增加、删除列；
+ * 	toJSONArray()调用时才转换
+ * @date created: Oct 18, 2026 8:41:17 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class RowList extends AbstractList<Map<String, Object>> implements RandomAccess {
+	private static final Object[][] EMPTY = new Object[0][];
+	private final String[] names;
+	/**
+	 * 列名 -> 列序号
+	 */
+	private final Map<String, Integer> index;
+	private Object[][] rows = EMPTY;
+	private int size;
+
+	public RowList(String[] names) {
+		this.names = names.clone();
+		index = new HashMap<String, Integer>((int) (names.length / 0.75f) + 1);
+		for (int i = 0; i < names.length; ++i) {
+			index.put(names[i], i);
+		}
+	}
+	/**
+	 * 增加一行，values长度需要与列数相同，不复制
+	 * @param values
+	 */
+	public void addRow(Object[] values) {
+		if (values.length != names.length) {
+			throw new IllegalArgumentException("Row Length [" + values.length +
+				"] Not Match Columns [" + names.length + "]");
+		}
+		if (size == rows.length) {
+			rows = Arrays.copyOf(rows, Math.max(16, size + (size >> 1)));
+		}
+		rows[size++] = values;
+		++modCount;
+	}
+	/**
+	 * 释放多余容量
+	 */
+	public void trimToSize() {
+		if (size < rows.length) {
+			rows = Arrays.copyOf(rows, size);
+		}
+	}
+	@Override
+	public Map<String, Object> get(int row) {
+		checkRow(row);
+		return new Row(rows[row]);
+	}
+	@Override
+	public Map<String, Object> remove(int row) {
+		checkRow(row);
+		Map<String, Object> removed = new Row(rows[row]);
+		System.arraycopy(rows, row + 1, rows, row, size - row - 1);
+		rows[--size] = null;
+		++modCount;
+		return removed;
+	}
+	@Override
+	public int size() {
+		return size;
+	}
+	@Override
+	public void clear() {
+		rows = EMPTY;
+		size = 0;
+		++modCount;
+	}
+	/**
+	 * 行数据，直接返回内部数组
+	 * @param row
+	 * @return
+	 */
+	public Object[] getRow(int row) {
+		checkRow(row);
+		return rows[row];
+	}
+	/**
+	 * 取得指定行、列的值
+	 * @param row
+	 * @param column 列名
+	 * @return
+	 */
+	public Object getValue(int row, String column) {
+		checkRow(row);
+		Integer c = index.get(column);
+		if (c == null) {
+			throw new IllegalArgumentException("No Such Column [" + column + "]");
+		}
+		return rows[row][c];
+	}
+	public String[] getColumns() {
+		return names.clone();
+	}
+	/**
+	 * 列序号，没有该列返回-1
+	 * @param column
+	 * @return
+	 */
+	public int indexOfColumn(String column) {
+		Integer c = index.get(column);
+		return c != null ? c : -1;
+	}
+	/**
+	 * 转换为JSONArray，每次调用重新转换
+	 * @return
+	 */
+	public JSONArray toJSONArray() {
+		return new JSONArray(this);
+	}
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row [" + row + "], Size [" + size + "]");
+		}
+	}
+	/**
+	 * 行的Map视图
+	 */
+	private class Row extends AbstractMap<String, Object> {
+		private final Object[] values;
+		Row(Object[] values) {
+			this.values = values;
+		}
+		@Override
+		public Object get(Object key) {
+			Integer c = index.get(key);
+			return c != null ? values[c] : null;
+		}
+		@Override
+		public boolean containsKey(Object key) {
+			return index.containsKey(key);
+		}
+		@Override
+		public Object put(String key, Object value) {
+			Integer c = index.get(key);
+			if (c == null) {
+				throw new UnsupportedOperationException("No Such Column [" + key + "]");
+			}
+			Object old = values[c];
+			values[c] = value;
+			return old;
+		}
+		@Override
+		public int size() {
+			return names.length;
+		}
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new Iterator<Map.Entry<String, Object>>() {
+						private int c = 0;
+						@Override
+						public boolean hasNext() {
+							return c < names.length;
+						}
+						@Override
+						public Map.Entry<String, Object> next() {
+							if (c >= names.length) {
+								throw new NoSuchElementException();
+							}
+							return new Column(values, c++);
+						}
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+				@Override
+				public int size() {
+					return names.length;
+				}
+			};
+		}
+	}
+	/**
+	 * 列的Entry视图，setValue写入行数组
+	 */
+	private class Column implements Map.Entry<String, Object> {
+		private final Object[] values;
+		private final int c;
+		Column(Object[] values, int c) {
+			this.values = values;
+			this.c = c;
+		}
+		@Override
+		public String getKey() {
+			return names[c];
+		}
+		@Override
+		public Object getValue() {
+			return values[c];
+		}
+		@Override
+		public Object setValue(Object value) {
+			Object old = values[c];
+			values[c] = value;
+			return old;
+		}
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return names[c].equals(e.getKey()) &&
+				(values[c] == null ? e.getValue() == null : values[c].equals(e.getValue()));
+		}
+		@Override
+		public int hashCode() {
+			return names[c].hashCode() ^ (values[c] == null ? 0 : values[c].hashCode());
+		}
+		@Override
+		public String toString() {
+			return names[c] + "=" + values[c];
+		}
+	}
+}
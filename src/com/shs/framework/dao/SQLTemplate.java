@@ -0,0 +1,119 @@
+package com.shs.framework.dao;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 解析后的SQL模板，保存?占位拆分后的SQL片段，以及:name命名占位的片段和名称，
+ * 	以SQL文本为键缓存（超出CACHE_SIZE时淘汰最久未使用的），重复执行的SQL不再重新拆分、匹配
+ * @date created: Oct 18, 2026 10:05:12 AM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class SQLTemplate {
+	/**
+	 * 缓存模板最大数量
+	 */
+	public static int CACHE_SIZE = 2048;
+	private static final Pattern PATTERN_NAMED = Pattern.compile(":\\w+");
+	private static final BoundedCache<String, SQLTemplate> cache =
+			new BoundedCache<String, SQLTemplate>();
+	private static final AtomicLong hitCount = new AtomicLong();
+	private static final AtomicLong missCount = new AtomicLong();
+
+	private final String strSQL;
+	/**
+	 * (strSQL + " ").split("\\?") 结果
+	 */
+	private volatile String[] fragments;
+	/**
+	 * 命名占位之间的片段，长度为names.length + 1
+	 */
+	private volatile String[] namedFragments;
+	private volatile String[] names;
+
+	private SQLTemplate(String strSQL) {
+		this.strSQL = strSQL;
+	}
+	/**
+	 * 取得SQL模板，缓存命中直接返回
+	 * @param strSQL
+	 * @return
+	 */
+	public static SQLTemplate get(String strSQL) {
+		SQLTemplate template = cache.get(strSQL);
+		if (template != null) {
+			hitCount.incrementAndGet();
+			return template;
+		}
+		missCount.incrementAndGet();
+		// 超出容量时淘汰最久未使用的
+		return cache.putIfAbsent(strSQL, new SQLTemplate(strSQL), CACHE_SIZE);
+	}
+	/**
+	 * 按?拆分的SQL片段，最后一个片段带有一个空格
+	 * @return
+	 */
+	public String[] getFragments() {
+		String[] f = fragments;
+		if (f == null) {
+			// 加上最后空格，否则如果最后一个为?占位，则拆分将会少一个元素
+			fragments = f = (strSQL + " ").split("\\?");
+		}
+		return f;
+	}
+	/**
+	 * 命名占位之间的SQL片段
+	 * @return
+	 */
+	public String[] getNamedFragments() {
+		parseNamed();
+		return namedFragments;
+	}
+	/**
+	 * 命名占位名称，:id => id
+	 * @return
+	 */
+	public String[] getNames() {
+		parseNamed();
+		return names;
+	}
+	private void parseNamed() {
+		if (names != null) {
+			return;
+		}
+		List<String> listFragments = new ArrayList<String>();
+		List<String> listNames = new ArrayList<String>();
+		Matcher matcher = PATTERN_NAMED.matcher(strSQL); // 匹配strSQL中的形如:user_id, :id
+		int last = 0;
+		while (matcher.find()) {
+			listFragments.add(strSQL.substring(last, matcher.start()));
+			listNames.add(matcher.group().substring(1));
+			last = matcher.end();
+		}
+		listFragments.add(strSQL.substring(last));
+		namedFragments = listFragments.toArray(new String[listFragments.size()]);
+		names = listNames.toArray(new String[listNames.size()]);
+	}
+	public String getStrSQL() {
+		return strSQL;
+	}
+	public static long getHitCount() {
+		return hitCount.get();
+	}
+	public static long getMissCount() {
+		return missCount.get();
+	}
+	public static int getCacheSize() {
+		return cache.size();
+	}
+	public static void clearCache() {
+		cache.clear();
+	}
+}
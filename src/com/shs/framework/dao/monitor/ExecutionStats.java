@@ -0,0 +1,241 @@
+package com.shs.framework.dao.monitor;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import com.shs.framework.dao.BaseDAO;
+import com.shs.framework.dao.ExecutionContext;
+import com.shs.framework.dao.IExecutionListener;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 默认执行监听器，按操作类型统计次数、错误、行数，
+ * 	以及获取连接、预备、执行、读取、映射、总耗时各阶段的直方图，
+ * 	可以注册为JMX MBean查看，如：
+ * 	ExecutionStats.install(); // 注册监听器以及MBean com.shs.framework.dao:type=ExecutionStats
+ * 	ExecutionStats.getInstance().getPercentileMicros("query", "total", 99);
+ * @date created: Oct 18, 2026 4:40:03 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class ExecutionStats implements IExecutionListener, ExecutionStatsMBean {
+	private static Logger logger = Logger.getLogger(ExecutionStats.class);
+	/**
+	 * 默认MBean名称
+	 */
+	public static String MBEAN_NAME = "com.shs.framework.dao:type=ExecutionStats";
+	public static final String PHASE_ACQUIRE = "acquire";
+	public static final String PHASE_PREPARE = "prepare";
+	public static final String PHASE_EXECUTE = "execute";
+	public static final String PHASE_FETCH = "fetch";
+	public static final String PHASE_MAP = "map";
+	public static final String PHASE_TOTAL = "total";
+	private static final String[] PHASES = {
+		PHASE_ACQUIRE, PHASE_PREPARE, PHASE_EXECUTE, PHASE_FETCH, PHASE_MAP, PHASE_TOTAL
+	};
+	private static ExecutionStats instance;
+	private final ConcurrentHashMap<String, OperationStats> operations =
+			new ConcurrentHashMap<String, OperationStats>();
+	private ObjectName objectName;
+
+	/**
+	 * 创建全局统计，注册为执行监听器以及MBean，重复调用返回同一实例
+	 * @return
+	 */
+	public static synchronized ExecutionStats install() {
+		if (instance == null) {
+			ExecutionStats stats = new ExecutionStats();
+			BaseDAO.addExecutionListener(stats);
+			stats.registerMBean(MBEAN_NAME);
+			instance = stats;
+		}
+		return instance;
+	}
+	/**
+	 * 移除全局统计
+	 */
+	public static synchronized void uninstall() {
+		if (instance != null) {
+			BaseDAO.removeExecutionListener(instance);
+			instance.unregisterMBean();
+			instance = null;
+		}
+	}
+	public static synchronized ExecutionStats getInstance() {
+		return instance;
+	}
+	/**
+	 * 注册到平台MBeanServer，注册失败只记录日志
+	 * @param name
+	 */
+	public synchronized void registerMBean(String name) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName on = new ObjectName(name);
+			if (server.isRegistered(on)) {
+				server.unregisterMBean(on);
+			}
+			server.registerMBean(this, on);
+			objectName = on;
+		} catch (Exception e) {
+			logger.warn("Register MBean [" + name + "] Error", e);
+		}
+	}
+	public synchronized void unregisterMBean() {
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (Exception e) {
+				logger.warn("Unregister MBean [" + objectName + "] Error", e);
+			}
+			objectName = null;
+		}
+	}
+	@Override
+	public void beforeExecution(ExecutionContext ctx) {
+	}
+	@Override
+	public void afterExecution(ExecutionContext ctx) {
+		OperationStats stats = operations.get(ctx.getOperation());
+		if (stats == null) {
+			stats = new OperationStats();
+			OperationStats exists = operations.putIfAbsent(ctx.getOperation(), stats);
+			if (exists != null) {
+				stats = exists;
+			}
+		}
+		stats.record(ctx);
+	}
+	/**
+	 * 取得阶段直方图，操作未执行过返回null
+	 * @param operation
+	 * @param phase
+	 * @return
+	 */
+	public LatencyHistogram getHistogram(String operation, String phase) {
+		OperationStats stats = operations.get(operation);
+		if (stats == null) {
+			return null;
+		}
+		for (int i = 0; i < PHASES.length; ++i) {
+			if (PHASES[i].equals(phase)) {
+				return stats.phases[i];
+			}
+		}
+		throw new IllegalArgumentException("Invalid Phase [" + phase + "]");
+	}
+	@Override
+	public String[] getOperations() {
+		List<String> list = new ArrayList<String>(operations.keySet());
+		Collections.sort(list);
+		return list.toArray(new String[list.size()]);
+	}
+	@Override
+	public String[] getPhases() {
+		return PHASES.clone();
+	}
+	@Override
+	public long getCount(String operation) {
+		OperationStats stats = operations.get(operation);
+		return stats != null ? stats.phases[PHASES.length - 1].getCount() : 0;
+	}
+	@Override
+	public long getErrorCount(String operation) {
+		OperationStats stats = operations.get(operation);
+		return stats != null ? stats.errors.sum() : 0;
+	}
+	@Override
+	public long getRowCount(String operation) {
+		OperationStats stats = operations.get(operation);
+		return stats != null ? stats.rows.sum() : 0;
+	}
+	@Override
+	public double getMeanMicros(String operation, String phase) {
+		LatencyHistogram h = getHistogram(operation, phase);
+		return h != null ? h.getMean() / 1000 : 0;
+	}
+	@Override
+	public long getMaxMicros(String operation, String phase) {
+		LatencyHistogram h = getHistogram(operation, phase);
+		return h != null ? h.getMax() / 1000 : 0;
+	}
+	@Override
+	public long getPercentileMicros(String operation, String phase, double percentile) {
+		LatencyHistogram h = getHistogram(operation, phase);
+		return h != null ? h.getPercentile(percentile) / 1000 : 0;
+	}
+	@Override
+	public String getSummary() {
+		StringBuilder sb = new StringBuilder();
+		for (String operation : getOperations()) {
+			OperationStats stats = operations.get(operation);
+			sb.append(operation)
+				.append(" count [").append(getCount(operation))
+				.append("] errors [").append(stats.errors.sum())
+				.append("] rows [").append(stats.rows.sum()).append("]\n");
+			for (int i = 0; i < PHASES.length; ++i) {
+				LatencyHistogram h = stats.phases[i];
+				sb.append("  ").append(PHASES[i])
+					.append(" p50 [").append(h.getPercentile(50) / 1000)
+					.append("us] p99 [").append(h.getPercentile(99) / 1000)
+					.append("us] max [").append(h.getMax() / 1000).append("us]\n");
+			}
+		}
+		return sb.toString();
+	}
+	@Override
+	public void reset() {
+		for (OperationStats stats : operations.values()) {
+			stats.reset();
+		}
+	}
+	@Override
+	public String toString() {
+		return getSummary();
+	}
+	/**
+	 * 一种操作的统计
+	 */
+	private static class OperationStats {
+		final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+		final LongAdder errors = new LongAdder();
+		final LongAdder rows = new LongAdder();
+		OperationStats() {
+			for (int i = 0; i < phases.length; ++i) {
+				phases[i] = new LatencyHistogram();
+			}
+		}
+		void record(ExecutionContext ctx) {
+			phases[0].record(ctx.getAcquireNanos());
+			phases[1].record(ctx.getPrepareNanos());
+			phases[2].record(ctx.getExecuteNanos());
+			phases[3].record(ctx.getFetchNanos());
+			phases[4].record(ctx.getMapNanos());
+			phases[5].record(ctx.getTotalNanos());
+			if (!ctx.isSuccess()) {
+				errors.increment();
+			}
+			if (ctx.getRows() > 0) {
+				rows.add(ctx.getRows());
+			}
+		}
+		void reset() {
+			for (LatencyHistogram h : phases) {
+				h.reset();
+			}
+			errors.reset();
+			rows.reset();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.shs.framework.dao.monitor;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 执行统计JMX接口，耗时单位为微秒，
+ * 	operation为query，update，execute，executeBatch，insert，
+ * 	phase为acquire，prepare，execute，fetch，map，total
+ * @date created: Oct 18, 2026 4:52:16 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public interface ExecutionStatsMBean {
+	public String[] getOperations();
+	public String[] getPhases();
+	public long getCount(String operation);
+	public long getErrorCount(String operation);
+	public long getRowCount(String operation);
+	public double getMeanMicros(String operation, String phase);
+	public long getMaxMicros(String operation, String phase);
+	public long getPercentileMicros(String operation, String phase, double percentile);
+	/**
+	 * 所有操作的次数、错误、行数以及各阶段p50/p99/max
+	 * @return
+	 */
+	public String getSummary();
+	public void reset();
+}
@@ -0,0 +1,127 @@
+package com.shs.framework.dao.monitor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 无锁耗时直方图（纳秒），对数线性分桶（类似HDR Histogram），
+ * 	每个2的幂区间再分为16个子桶，相对误差不超过1/16，
+ * 	记录只有一次原子自增，计数、总和使用分段计数器（LongAdder），适合高并发记录
+ * @date created: Oct 18, 2026 4:30:48 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class LatencyHistogram {
+	/**
+	 * 子桶位数
+	 */
+	private static final int SUB_BITS = 4;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	/**
+	 * 最大记录值的位数，2^44纳秒约4.9小时，超出按最大值计
+	 */
+	private static final int MAX_BITS = 44;
+	private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+	private static final int BUCKET_COUNT = (MAX_BITS - SUB_BITS + 1) * SUB_COUNT;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * 记录一次耗时
+	 * @param nanos
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			nanos = 0;
+		}
+		buckets.incrementAndGet(bucketOf(nanos));
+		count.increment();
+		sum.add(nanos);
+		long m = max.get();
+		while (nanos > m && !max.compareAndSet(m, nanos)) {
+			m = max.get();
+		}
+	}
+	private static int bucketOf(long value) {
+		if (value > MAX_VALUE) {
+			value = MAX_VALUE;
+		}
+		if (value < SUB_COUNT) {
+			return (int) value;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (magnitude - SUB_BITS)) - SUB_COUNT;
+		return (magnitude - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+	/**
+	 * 桶的最大值
+	 */
+	private static long upperBoundOf(int bucket) {
+		if (bucket < SUB_COUNT) {
+			return bucket;
+		}
+		int magnitude = bucket / SUB_COUNT + SUB_BITS - 1;
+		int sub = bucket % SUB_COUNT;
+		int shift = magnitude - SUB_BITS;
+		return ((long) (SUB_COUNT + sub + 1) << shift) - 1;
+	}
+	public long getCount() {
+		return count.sum();
+	}
+	public long getSum() {
+		return sum.sum();
+	}
+	public long getMax() {
+		return max.get();
+	}
+	public double getMean() {
+		long n = count.sum();
+		return n > 0 ? (double) sum.sum() / n : 0;
+	}
+	/**
+	 * 百分位耗时，返回所在桶的最大值（不超过记录的最大值）
+	 * @param percentile 0 - 100，如99.9
+	 * @return
+	 */
+	public long getPercentile(double percentile) {
+		long[] counts = new long[BUCKET_COUNT];
+		long total = 0;
+		for (int i = 0; i < BUCKET_COUNT; ++i) {
+			counts[i] = buckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total);
+		if (rank < 1) {
+			rank = 1;
+		}
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; ++i) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(upperBoundOf(i), max.get());
+			}
+		}
+		return max.get();
+	}
+	/**
+	 * 清零，与并发记录之间不保证原子
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; ++i) {
+			buckets.set(i, 0);
+		}
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+}
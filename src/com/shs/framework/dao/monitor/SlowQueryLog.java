@@ -0,0 +1,513 @@
+package com.shs.framework.dao.monitor;
+import java.io.File;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.shs.framework.dao.BaseDAO;
+import com.shs.framework.dao.ExecutionContext;
+import com.shs.framework.dao.IExecutionListener;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 慢查询日志，执行耗时不小于THRESHOLD_MILLIS（以及执行失败）的操作记录日志，
+ * 	未超过的操作按SAMPLE_RATE概率抽样记录。记录展开的SQL（参数替换为字面值）、行数、各阶段耗时以及调用位置，
+ * 	参数值超过MAX_VALUE_LENGTH截断，对应列名匹配REDACT_PATTERN以及无法推断列名的值、二进制值不记录。
+ * 	执行线程只判断是否记录并截取参数，加入有界队列后立即返回，队列满时丢弃并计数，
+ * 	由后台线程写出到log4j日志com.shs.framework.dao.monitor.SlowQueryLog，如：
+ * 	SlowQueryLog.THRESHOLD_MILLIS = 500;
+ * 	SlowQueryLog.install();
+ * @date created: Oct 19, 2026 12:20:37 AM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class SlowQueryLog implements IExecutionListener {
+	private static Logger logger = Logger.getLogger(SlowQueryLog.class);
+	/**
+	 * 慢查询阈值（毫秒）
+	 */
+	public static long THRESHOLD_MILLIS = 1000;
+	/**
+	 * 未超过阈值的操作的抽样概率，0不抽样
+	 */
+	public static double SAMPLE_RATE = 0;
+	/**
+	 * 是否记录执行失败的操作
+	 */
+	public static boolean LOG_ERRORS = true;
+	/**
+	 * 参数值最大长度（字符），超过截断
+	 */
+	public static int MAX_VALUE_LENGTH = 200;
+	/**
+	 * 最多记录参数个数
+	 */
+	public static int MAX_VALUES = 100;
+	/**
+	 * 日志中SQL最大长度（字符），超过截断
+	 */
+	public static int MAX_SQL_LENGTH = 4000;
+	/**
+	 * 列名匹配时参数值记录为***，不区分大小写，为null不隐藏
+	 */
+	public static String REDACT_PATTERN = ".*(password|passwd|pwd|secret|token|credential).*";
+	/**
+	 * 调用位置跳过的类前缀
+	 */
+	public static String[] CALLER_SKIP_PREFIXES = {
+		"com.shs.framework.dao.", "java.", "javax.", "sun.", "jdk."
+	};
+	/**
+	 * 待写出队列容量
+	 */
+	public static int QUEUE_SIZE = 1024;
+	private static final String REDACTED = "'***'";
+	private static final Pattern PATTERN_INSERT = Pattern.compile(
+		"(?is)\\s*insert\\s+into\\s+[^(\\s]+\\s*\\(([^)]*)\\)\\s*values\\b.*");
+	private static SlowQueryLog instance;
+	private static volatile Pattern redactPattern;
+	private static volatile String redactSource;
+
+	private final BlockingQueue<Entry> queue;
+	private final LongAdder logged = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private volatile boolean running = true;
+	private final Thread writer;
+
+	public SlowQueryLog() {
+		queue = new ArrayBlockingQueue<Entry>(Math.max(1, QUEUE_SIZE));
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				write();
+			}
+		}, "BaseDAO-SlowQueryLog");
+		writer.setDaemon(true);
+		writer.start();
+	}
+	/**
+	 * 创建全局慢查询日志并注册为执行监听器，重复调用返回同一实例
+	 * @return
+	 */
+	public static synchronized SlowQueryLog install() {
+		if (instance == null) {
+			SlowQueryLog log = new SlowQueryLog();
+			BaseDAO.addExecutionListener(log);
+			instance = log;
+		}
+		return instance;
+	}
+	/**
+	 * 移除全局慢查询日志，写出队列中剩余的记录
+	 */
+	public static synchronized void uninstall() {
+		if (instance != null) {
+			BaseDAO.removeExecutionListener(instance);
+			instance.close();
+			instance = null;
+		}
+	}
+	public static synchronized SlowQueryLog getInstance() {
+		return instance;
+	}
+	@Override
+	public void beforeExecution(ExecutionContext ctx) {
+	}
+	@Override
+	public void afterExecution(ExecutionContext ctx) {
+		String type;
+		if (!ctx.isSuccess()) {
+			if (!LOG_ERRORS) {
+				return;
+			}
+			type = "failed";
+		} else if (ctx.getTotalNanos() >= THRESHOLD_MILLIS * 1000000L) {
+			type = "slow";
+		} else if (SAMPLE_RATE > 0 && ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE) {
+			type = "sampled";
+		} else {
+			return;
+		}
+		if (!running) {
+			return;
+		}
+		if (queue.remainingCapacity() == 0) { // 队列已满，不再截取参数、调用位置
+			dropped.increment();
+			return;
+		}
+		Entry entry = new Entry(type, ctx, caller());
+		capture(entry, ctx);
+		if (!queue.offer(entry)) {
+			dropped.increment();
+		}
+	}
+	/**
+	 * 已写出记录数
+	 * @return
+	 */
+	public long getLoggedCount() {
+		return logged.sum();
+	}
+	/**
+	 * 队列满时丢弃的记录数
+	 * @return
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+	/**
+	 * 停止后台线程，写出队列中剩余的记录
+	 */
+	public void close() {
+		running = false;
+		try {
+			writer.join(5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	private void write() {
+		long reported = 0;
+		while (running || !queue.isEmpty()) {
+			try {
+				Entry entry = queue.poll(200, TimeUnit.MILLISECONDS);
+				if (entry != null) {
+					String message = entry.format();
+					if ("sampled".equals(entry.type)) {
+						logger.info(message);
+					} else {
+						logger.warn(message);
+					}
+					logged.increment();
+				}
+				long d = dropped.sum();
+				if (d > reported && (entry == null || d - reported >= 1000)) {
+					logger.warn("Slow Query Log Queue Full, [" + (d - reported) + "] Entries Dropped");
+					reported = d;
+				}
+			} catch (InterruptedException e) {
+				break;
+			} catch (Throwable e) {
+				logger.error("Write Slow Query Log Error", e);
+			}
+		}
+	}
+	/**
+	 * 调用位置，调用栈中第一个非框架、非JDK的方法
+	 */
+	private static String caller() {
+		StackTraceElement[] stack = new Throwable().getStackTrace();
+		for (StackTraceElement e : stack) {
+			boolean skip = false;
+			for (String prefix : CALLER_SKIP_PREFIXES) {
+				if (e.getClassName().startsWith(prefix)) {
+					skip = true;
+					break;
+				}
+			}
+			if (!skip) {
+				return e.toString();
+			}
+		}
+		return "unknown";
+	}
+	/**
+	 * 在执行线程中截取SQL以及参数，参数转换为截断、隐藏后的字面值，之后不再引用原参数
+	 */
+	@SuppressWarnings("unchecked")
+	private static void capture(Entry entry, ExecutionContext ctx) {
+		String sql = ctx.getStrSQL();
+		Object values = ctx.getValues();
+		try {
+			if (sql == null && values instanceof List<?>) { // 批量SQL
+				List<?> listSQLs = (List<?>) values;
+				entry.note = "statements [" + listSQLs.size() + "]";
+				entry.sql = listSQLs.isEmpty() ? "" : String.valueOf(listSQLs.get(0));
+			} else if (values instanceof List<?> && !((List<?>) values).isEmpty() &&
+					((List<?>) values).get(0) instanceof JSONObject) { // 批量插入、upsert
+				List<?> models = (List<?>) values;
+				entry.note = "rows [" + models.size() + "], first row";
+				entry.sql = sql;
+				captureModel(entry, (JSONObject) models.get(0));
+			} else if (ExecutionContext.OP_BATCH.equals(ctx.getOperation()) &&
+					values instanceof JSONArray) { // 批量执行，记录第一行
+				JSONArray jaValues = (JSONArray) values;
+				entry.note = "rows [" + jaValues.length() + "], first row";
+				entry.sql = sql;
+				Object first = jaValues.length() > 0 ? jaValues.opt(0) : null;
+				List<Object> params = new ArrayList<Object>();
+				if (first instanceof JSONArray) {
+					for (int i = 0; i < ((JSONArray) first).length(); ++i) {
+						params.add(((JSONArray) first).opt(i));
+					}
+				} else if (first != null) {
+					params.add(first);
+				}
+				capturePositional(entry, params);
+			} else if (sql != null) {
+				List<Object> params = new ArrayList<Object>();
+				if (values instanceof Object[]) {
+					entry.sql = BaseDAO.expandSQL(sql, params, (Object[]) values);
+				} else if (values instanceof List<?>) {
+					params.addAll((List<Object>) values);
+					entry.sql = sql;
+				} else if (values != null) {
+					entry.sql = BaseDAO.expandSQL(sql, params, values);
+				} else {
+					entry.sql = sql;
+				}
+				capturePositional(entry, params);
+			}
+		} catch (Exception e) {
+			entry.sql = sql;
+			entry.note = "values not captured [" + e + "]";
+		}
+		if (entry.sql != null && entry.sql.length() > MAX_SQL_LENGTH) {
+			entry.sql = entry.sql.substring(0, MAX_SQL_LENGTH) + "...";
+		}
+	}
+	private static void captureModel(Entry entry, JSONObject model) {
+		Pattern redact = getRedactPattern();
+		StringBuilder sb = new StringBuilder();
+		Iterator<?> keys = model.keys();
+		int n = 0;
+		while (keys.hasNext() && n++ < MAX_VALUES) {
+			String key = String.valueOf(keys.next());
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(key).append(" = ").append(redact != null && redact.matcher(key).matches() ?
+				REDACTED : literal(model.opt(key)));
+		}
+		entry.model = sb.toString();
+	}
+	private static void capturePositional(Entry entry, List<Object> params) {
+		int size = Math.min(params.size(), MAX_VALUES);
+		String[] names = inferNames(entry.sql, size);
+		Pattern redact = getRedactPattern();
+		String[] literals = new String[size];
+		for (int i = 0; i < size; ++i) {
+			// 无法推断列名时不记录值
+			literals[i] = redact != null && (names[i] == null || redact.matcher(names[i]).matches()) ?
+				REDACTED : literal(params.get(i));
+		}
+		entry.literals = literals;
+	}
+	/**
+	 * 推断每个?对应的列名：insert的列列表，或者?之前的 列 = ?、列 in (?, ?)、列 like ?、列 between ?，
+	 * ?在函数参数中时跳过函数，如 列 = md5(?)，无法推断为null
+	 */
+	private static String[] inferNames(String sql, int size) {
+		String[] names = new String[size];
+		if (size == 0) {
+			return names;
+		}
+		Matcher m = PATTERN_INSERT.matcher(sql);
+		if (m.matches()) {
+			String[] columns = m.group(1).split(",");
+			for (int i = 0; i < size; ++i) {
+				names[i] = unquote(columns[i % columns.length]);
+			}
+			return names;
+		}
+		String[] fragments = (sql + " ").split("\\?");
+		for (int i = 0; i < size && i < fragments.length - 1; ++i) {
+			names[i] = nameBefore(fragments, i);
+		}
+		return names;
+	}
+	private static String nameBefore(String[] fragments, int index) {
+		// in列表中的后续?，与前一个?同列
+		String f = fragments[index];
+		while (index > 0 && f.trim().equals(",")) {
+			f = fragments[--index];
+		}
+		int end = skipSpace(f, f.length());
+		while (end > 0 && f.charAt(end - 1) == '(') {
+			int e = skipSpace(f, end - 1);
+			int in = skipWord(f, e, "in");
+			if (in < e) { // in (?
+				return nameAt(f, skipSpace(f, skipWord(f, skipSpace(f, in), "not")));
+			}
+			// 函数参数，跳过函数名，如 md5(?)、lower(trim(?))
+			while (e > 0 && isNameChar(f.charAt(e - 1))) {
+				--e;
+			}
+			end = skipSpace(f, e);
+		}
+		int e = end;
+		while (e > 0 && "=<>!".indexOf(f.charAt(e - 1)) >= 0) {
+			--e;
+		}
+		if (e == end) {
+			e = skipWord(f, end, "like");
+			if (e == end) {
+				e = skipWord(f, end, "between");
+			}
+			if (e == end) { // 不是比较条件
+				return null;
+			}
+			e = skipWord(f, skipSpace(f, e), "not");
+		}
+		return nameAt(f, skipSpace(f, e));
+	}
+	/**
+	 * end之前的列名，没有为null
+	 */
+	private static String nameAt(String f, int end) {
+		int start = end;
+		while (start > 0 && isNameChar(f.charAt(start - 1))) {
+			--start;
+		}
+		return start < end ? unquote(f.substring(start, end)) : null;
+	}
+	private static int skipSpace(String f, int end) {
+		while (end > 0 && Character.isWhitespace(f.charAt(end - 1))) {
+			--end;
+		}
+		return end;
+	}
+	private static int skipWord(String f, int end, String word) {
+		int start = end - word.length();
+		return start >= 0 && f.regionMatches(true, start, word, 0, word.length()) &&
+			(start == 0 || !isNameChar(f.charAt(start - 1))) ? start : end;
+	}
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || "_$.`\"[]".indexOf(c) >= 0;
+	}
+	/**
+	 * 去掉引号以及表别名
+	 */
+	private static String unquote(String name) {
+		name = name.trim().replaceAll("[`\"\\[\\]]", "");
+		int dot = name.lastIndexOf('.');
+		return dot >= 0 ? name.substring(dot + 1) : name;
+	}
+	private static Pattern getRedactPattern() {
+		String source = REDACT_PATTERN;
+		if (source == null) {
+			return null;
+		}
+		Pattern p = redactPattern;
+		if (p == null || !source.equals(redactSource)) {
+			redactPattern = p = Pattern.compile(source, Pattern.CASE_INSENSITIVE);
+			redactSource = source;
+		}
+		return p;
+	}
+	/**
+	 * 参数值转换为SQL字面值，字符串截断，二进制值只记录长度
+	 */
+	private static String literal(Object value) {
+		if (value == null || value == JSONObject.NULL) {
+			return "NULL";
+		}
+		if (value instanceof Number || value instanceof Boolean) {
+			return value.toString();
+		}
+		if (value instanceof byte[]) {
+			return "<binary " + ((byte[]) value).length + " bytes>";
+		}
+		if (value instanceof File) {
+			return "<file " + ((File) value).getName() + ">";
+		}
+		if (value instanceof InputStream || value instanceof Blob) {
+			return "<binary>";
+		}
+		if (value instanceof Date) {
+			return "'" + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format((Date) value) + "'";
+		}
+		String s;
+		if (value instanceof Map<?, ?>) {
+			s = new JSONObject((Map<?, ?>) value).toString();
+		} else {
+			s = value.toString();
+		}
+		if (s.length() > MAX_VALUE_LENGTH) {
+			s = s.substring(0, MAX_VALUE_LENGTH) + "...(" + s.length() + " chars)";
+		}
+		return "'" + s.replace("'", "''") + "'";
+	}
+	/**
+	 * 一条记录，参数已转换为字面值，在后台线程中格式化
+	 */
+	private static class Entry {
+		final String type;
+		final String operation;
+		final long totalNanos;
+		final long executeNanos;
+		final long fetchNanos;
+		final long rows;
+		final Throwable error;
+		final String caller;
+		String sql;
+		String[] literals;
+		String model;
+		String note;
+		Entry(String type, ExecutionContext ctx, String caller) {
+			this.type = type;
+			this.caller = caller;
+			operation = ctx.getOperation();
+			totalNanos = ctx.getTotalNanos();
+			executeNanos = ctx.getExecuteNanos();
+			fetchNanos = ctx.getFetchNanos();
+			rows = ctx.getRows();
+			error = ctx.getError();
+		}
+		String format() {
+			StringBuilder sb = new StringBuilder(256);
+			sb.append(type).append(" [").append(totalNanos / 1000000).append("ms] ")
+				.append(operation).append(" execute [").append(executeNanos / 1000000)
+				.append("ms] fetch [").append(fetchNanos / 1000000).append("ms] rows [")
+				.append(rows == ExecutionContext.ROWS_UNKNOWN ? "?" : String.valueOf(rows))
+				.append("] caller [").append(caller).append("]");
+			if (error != null) {
+				sb.append(" error [").append(error).append("]");
+			}
+			if (note != null) {
+				sb.append(" ").append(note);
+			}
+			sb.append("\n\t").append(expand());
+			if (model != null) {
+				sb.append("\n\t").append(model);
+			}
+			return sb.toString();
+		}
+		/**
+		 * ?替换为参数字面值
+		 */
+		private String expand() {
+			if (sql == null || literals == null || literals.length == 0) {
+				return sql;
+			}
+			String[] fragments = (sql + " ").split("\\?");
+			StringBuilder sb = new StringBuilder(sql.length() + literals.length * 8);
+			for (int i = 0; i < fragments.length; ++i) {
+				sb.append(fragments[i]);
+				if (i < fragments.length - 1) {
+					sb.append(i < literals.length ? literals[i] : "?");
+				}
+			}
+			return sb.toString().trim();
+		}
+	}
+}
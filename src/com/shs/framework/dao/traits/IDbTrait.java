@@ -1,7 +1,14 @@
 package com.shs.framework.dao.traits;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
@@ -29,6 +36,47 @@ public abstract class IDbTrait {
     		String strSQL, 
     		Object ... values);
     
+	/**
+	 * 是否支持ParameterMetaData，用于确定null参数的SQL类型
+	 * @return
+	 */
+	public boolean supportsParameterMetaData() {
+		return true;
+	}
+	/**
+	 * 是否支持批量执行（executeBatch、多行插入）后通过getGeneratedKeys按行顺序取得全部生成键，
+	 * 不支持时返回生成键的插入逐行执行
+	 * @return
+	 */
+	public boolean supportsBatchGeneratedKeys() {
+		return false;
+	}
+	/**
+	 * 预备返回生成键的插入语句，指定键列时按列名返回，否则使用RETURN_GENERATED_KEYS
+	 * @param dbConnection
+	 * @param insertSQL
+	 * @param keyColumns 键列，可为null
+	 * @return
+	 * @throws SQLException
+	 */
+	public PreparedStatement prepareReturningKeys(Connection dbConnection, 
+			String insertSQL, String[] keyColumns) throws SQLException {
+		return keyColumns != null && keyColumns.length > 0 ? 
+			dbConnection.prepareStatement(insertSQL, keyColumns) : 
+			dbConnection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+	}
+	/**
+	 * 设置游标读取行数提示，Oracle驱动即预取行数（row prefetch，默认10行）
+	 * @param statement
+	 * @param fetchSize
+	 */
+	public void setFetchSize(Statement statement, int fetchSize) {
+		try {
+			statement.setFetchSize(fetchSize);
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
 	public String genInsertSQL(String table, JSONObject joModel, List<Object> values)  {
 		// 获得对象属性名称
 		String[] columns = JSONObject.getNames(joModel);
@@ -50,16 +98,145 @@ public abstract class IDbTrait {
 				.append(StringUtils.join(vh, ", "))
 				.append(")").toString();
 	}
+	/**
+	 * 生成单行插入预备SQL，列名为jaFields中的字符串，如：["id", "name"]
+	 * @param table
+	 * @param jaFields
+	 * @return
+	 */
 	public String genInsertSQL(String table, JSONArray jaFields)  {
-		String[] vh = new String[jaFields.length()];
-		Arrays.fill(vh, "?");
+		String[] columns = new String[jaFields.length()];
 		try {
-			return new StringBuffer("inser into ").append(table).append(" (")
-					.append(jaFields.join(", ")).append(") values (")
-					.append(StringUtils.join(vh, ", ")).append(")").toString();
+			for (int i = 0; i < columns.length; ++i) {
+				columns[i] = jaFields.getString(i);
+			}
 		} catch (JSONException e) {
 			throw new RuntimeException(e);
 		}
+		return genInsertSQL(table, columns, 1);
+	}
+	/**
+	 * 单条插入语句允许的最大数据行数，通用SQL每条语句插入1行
+	 * @param numColumns 列数
+	 * @return
+	 */
+	public int getMaxInsertRows(int numColumns) {
+		return 1;
+	}
+	/**
+	 * 生成多行插入预备SQL，如：insert into foo (a, b) values (?, ?), (?, ?)
+	 * @param table
+	 * @param columns
+	 * @param rows 行数，不超过getMaxInsertRows
+	 * @return
+	 */
+	public String genInsertSQL(String table, String[] columns, int rows) {
+		StringBuffer sbSQL = new StringBuffer("insert into ")
+				.append(table)
+				.append(" (")
+				.append(StringUtils.join(columns, ", "))
+				.append(") values ");
+		appendRowValueHolders(sbSQL, columns.length, rows);
+		return sbSQL.toString();
+	}
+	/**
+	 * 追加多行值占位，如：(?, ?), (?, ?)
+	 * @param sbSQL
+	 * @param numColumns
+	 * @param rows
+	 */
+	protected static void appendRowValueHolders(StringBuffer sbSQL, int numColumns, int rows) {
+		String[] vh = new String[numColumns];
+		Arrays.fill(vh, "?");
+		String rowHolder = "(" + StringUtils.join(vh, ", ") + ")";
+		for (int i = 0; i < rows; ++i) {
+			if (i > 0) {
+				sbSQL.append(", ");
+			}
+			sbSQL.append(rowHolder);
+		}
+	}
+	/**
+	 * 单条插入或更新语句允许的最大数据行数，MERGE每条语句1行
+	 * （同一语句中键重复时MERGE报错，多行由JDBC批量执行）
+	 * @param numColumns 列数
+	 * @return
+	 */
+	public int getMaxUpsertRows(int numColumns) {
+		return 1;
+	}
+	/**
+	 * 生成插入或更新预备SQL，按键列匹配，存在则更新非键列，否则插入，默认使用SQL标准MERGE：
+	 * merge into foo t__ using (values (?, ?)) src__ (a, b) on (t__.a = src__.a)
+	 * when matched then update set t__.b = src__.b when not matched then insert (a, b) values (src__.a, src__.b)
+	 * @param table
+	 * @param columns
+	 * @param keyColumns 键列，需要在columns中
+	 * @param rows 行数，不超过getMaxUpsertRows
+	 * @return
+	 */
+	public String genUpsertSQL(String table, String[] columns, String[] keyColumns, int rows) {
+		String[] quoted = new String[columns.length];
+		String[] sources = new String[columns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			quoted[i] = quoteColumn(columns[i]);
+			sources[i] = "src__." + quoted[i];
+		}
+		StringBuffer sbSQL = new StringBuffer("merge into ")
+			.append(genUpsertTarget(quoteColumn(table)))
+			.append(" using ")
+			.append(genUpsertSource(quoted, rows))
+			.append(" on (");
+		for (int i = 0; i < keyColumns.length; ++i) {
+			String key = quoteColumn(keyColumns[i]);
+			if (i > 0) {
+				sbSQL.append(" and ");
+			}
+			sbSQL.append("t__.").append(key).append(" = src__.").append(key);
+		}
+		sbSQL.append(")");
+		boolean first = true;
+		for (int i = 0; i < columns.length; ++i) {
+			if (indexOfIgnoreCase(keyColumns, columns[i]) < 0) {
+				sbSQL.append(first ? " when matched then update set " : ", ")
+					.append("t__.").append(quoted[i]).append(" = ").append(sources[i]);
+				first = false;
+			}
+		}
+		return sbSQL.append(" when not matched then insert (")
+			.append(StringUtils.join(quoted, ", "))
+			.append(") values (")
+			.append(StringUtils.join(sources, ", "))
+			.append(")").toString();
+	}
+	/**
+	 * MERGE的目标表，别名t__，如：foo t__
+	 * @param quotedTable 加引号的表名
+	 * @return
+	 */
+	protected String genUpsertTarget(String quotedTable) {
+		return quotedTable + " t__";
+	}
+	/**
+	 * MERGE的数据源，别名src__，如：(values (?, ?), (?, ?)) src__ (a, b)
+	 * @param quotedColumns 加引号的列名
+	 * @param rows
+	 * @return
+	 */
+	protected String genUpsertSource(String[] quotedColumns, int rows) {
+		StringBuffer sbSQL = new StringBuffer("(values ");
+		appendRowValueHolders(sbSQL, quotedColumns.length, rows);
+		return sbSQL.append(") src__ (")
+			.append(StringUtils.join(quotedColumns, ", "))
+			.append(")").toString();
+	}
+	protected static int indexOfIgnoreCase(String[] columns, String column) {
+		for (int i = 0; i < columns.length; ++i) {
+			if (columns[i].equalsIgnoreCase(column)) {
+				return i;
+			}
+		}
+		return -1;
 	}
 	public String genUpdateSetSQL(String table, JSONObject joModel, List<Object> values) {
 		StringBuffer sbSQL = 
@@ -92,4 +269,158 @@ public abstract class IDbTrait {
 		sbSQL.setLength(sbSQL.length() - 5); // 去掉and
 		return sbSQL.toString();
 	}
+	/**
+	 * 键集（seek）分页语句，从上一页最后一行的排序键之后读取，不扫描、丢弃前面的行，
+	 * 查询作为子查询，排序列需要在select列中，并且组合唯一、不为null，原查询不能带order by，
+	 * 多列排序条件展开为：c1 >= ? and (c1 > ? or (c1 = ? and c2 > ?))，降序列使用 <
+	 * @param orderCols 排序列，表名前缀忽略
+	 * @param directions 排序方向，asc、desc
+	 * @param lastKeys 上一页最后一行的排序键，第一页为null
+	 * @param limit 行数
+	 * @param strSQL 只使用?占位
+	 * @param values 与?一一对应的值，不支持命名占位（JSONObject、Map）以及集合展开
+	 * @return
+	 */
+	public QueryStatement seekStatement(
+			String[] orderCols, 
+			String[] directions, 
+			Object[] lastKeys, 
+			int limit, 
+			String strSQL, 
+			Object ... values) {
+		if (lastKeys != null && lastKeys.length != orderCols.length) {
+			throw new IllegalArgumentException("Seek Keys [" + lastKeys.length + 
+				"] Not Match Order Columns [" + orderCols.length + "]");
+		}
+		for (Object value : values) {
+			// 排序键追加在values之后，values需要已展开
+			if (value instanceof Map<?, ?> || value instanceof JSONObject ||
+					value instanceof Collection<?> || value instanceof JSONArray ||
+					value instanceof Object[]) {
+				throw new IllegalArgumentException(
+					"Seek Statement Requires Expanded Positional Values, Got [" + 
+					value.getClass().getName() + "]");
+			}
+		}
+		String[] columns = new String[orderCols.length];
+		boolean[] desc = new boolean[orderCols.length];
+		StringBuffer sbOrder = new StringBuffer();
+		for (int i = 0; i < orderCols.length; ++i) {
+			String col = orderCols[i];
+			// 子查询中只能引用输出列名
+			columns[i] = quoteColumn(col.substring(col.lastIndexOf('.') + 1));
+			desc[i] = "desc".equalsIgnoreCase(directions[i]);
+			if (i > 0) {
+				sbOrder.append(", ");
+			}
+			sbOrder.append(columns[i]).append(desc[i] ? " desc" : " asc");
+		}
+		List<Object> listValues = new ArrayList<Object>(Arrays.asList(values));
+		String where = null;
+		if (lastKeys != null) {
+			StringBuffer sbWhere = new StringBuffer();
+			if (columns.length > 1) { // 首列范围条件，便于使用索引
+				sbWhere.append(columns[0]).append(desc[0] ? " <= ?" : " >= ?").append(" and (");
+				listValues.add(lastKeys[0]);
+			}
+			for (int i = 0; i < columns.length; ++i) {
+				if (i > 0) {
+					sbWhere.append(" or ");
+				}
+				sbWhere.append("(");
+				for (int j = 0; j < i; ++j) {
+					sbWhere.append(columns[j]).append(" = ? and ");
+					listValues.add(lastKeys[j]);
+				}
+				sbWhere.append(columns[i]).append(desc[i] ? " < ?" : " > ?").append(")");
+				listValues.add(lastKeys[i]);
+			}
+			if (columns.length > 1) {
+				sbWhere.append(")");
+			}
+			where = sbWhere.toString();
+		}
+		return new QueryStatement(
+			genSeekSQL(strSQL, where, sbOrder.toString(), limit), listValues.toArray());
+	}
+	/**
+	 * 分区查询语句，查询作为子查询，分区条件以及排序引用输出列名：
+	 * select * from (strSQL) part__ where predicate order by ...
+	 * @param strSQL
+	 * @param predicate 分区条件
+	 * @param orderCols 分区内排序列，可为null
+	 * @param directions
+	 * @return
+	 */
+	public String genPartitionSQL(String strSQL, String predicate, 
+			String[] orderCols, String[] directions) {
+		StringBuffer sbSQL = new StringBuffer("select * from (")
+			.append(strSQL)
+			.append(") part__ where ")
+			.append(predicate);
+		if (orderCols != null && orderCols.length > 0) {
+			sbSQL.append(" order by ");
+			for (int i = 0; i < orderCols.length; ++i) {
+				if (i > 0) {
+					sbSQL.append(", ");
+				}
+				String col = orderCols[i];
+				sbSQL.append(quoteColumn(col.substring(col.lastIndexOf('.') + 1)))
+					.append("desc".equalsIgnoreCase(directions[i]) ? " desc" : " asc");
+			}
+		}
+		return sbSQL.toString();
+	}
+	/**
+	 * 范围分区条件，column >= ? and column < ?，最后一个分区包含上界
+	 * @param column 输出列名
+	 * @param last 是否最后一个分区
+	 * @return
+	 */
+	public String genRangePredicate(String column, boolean last) {
+		String col = quoteColumn(column);
+		return col + " >= ? and " + col + (last ? " <= ?" : " < ?");
+	}
+	/**
+	 * 哈希分区条件，abs(mod(column, buckets)) = ?，
+	 * includeNull时加上 or column is null（取模不匹配null）
+	 * @param column 输出列名，整数列
+	 * @param buckets
+	 * @param includeNull 是否包含列为null的行
+	 * @return
+	 */
+	public String genModPredicate(String column, int buckets, boolean includeNull) {
+		String col = quoteColumn(column);
+		String predicate = "abs(mod(" + col + ", " + buckets + ")) = ?";
+		return includeNull ? "(" + predicate + " or " + col + " is null)" : predicate;
+	}
+	/**
+	 * 列名加引号，默认不加
+	 * @param column
+	 * @return
+	 */
+	protected String quoteColumn(String column) {
+		return column;
+	}
+	/**
+	 * 生成键集分页SQL，默认使用SQL标准fetch first
+	 * @param strSQL 原查询
+	 * @param where 键条件，第一页为null
+	 * @param orderBy 排序
+	 * @param limit
+	 * @return
+	 */
+	protected String genSeekSQL(String strSQL, String where, String orderBy, int limit) {
+		StringBuffer sbSQL = new StringBuffer("select * from (")
+			.append(strSQL)
+			.append(") seek__");
+		if (where != null) {
+			sbSQL.append(" where ").append(where);
+		}
+		sbSQL.append(" order by ").append(orderBy);
+		if (limit > 0) {
+			sbSQL.append(" fetch first ").append(limit).append(" rows only");
+		}
+		return sbSQL.toString();
+	}
 }
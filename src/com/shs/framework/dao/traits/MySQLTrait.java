@@ -1,10 +1,13 @@
 package com.shs.framework.dao.traits;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -17,6 +20,32 @@ public class MySQLTrait extends IDbTrait {
 			strSQL += ", " + limit;
 		return new QueryStatement(strSQL, values);
 	}
+	/**
+	 * MySQL驱动默认读取全部结果，fetchSize为Integer.MIN_VALUE时逐行流式读取
+	 */
+	@Override
+	public void setFetchSize(Statement statement, int fetchSize) {
+		try {
+			statement.setFetchSize(fetchSize > 0 ? Integer.MIN_VALUE : fetchSize);
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+	/**
+	 * 驱动按自增值以及自增步长返回批量、多行插入的全部生成键
+	 */
+	@Override
+	public boolean supportsBatchGeneratedKeys() {
+		return true;
+	}
+	/**
+	 * 驱动只支持返回自增列，忽略键列名
+	 */
+	@Override
+	public PreparedStatement prepareReturningKeys(Connection dbConnection, 
+			String insertSQL, String[] keyColumns) throws SQLException {
+		return dbConnection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+	}
 	@Override
 	public String genInsertSQL(String table, JSONObject joModel, List<Object> values)  {
 		// 获得对象属性名称
@@ -39,17 +68,53 @@ public class MySQLTrait extends IDbTrait {
 				.append(StringUtils.join(vh, ", "))
 				.append(")").toString();
 	}
+	/**
+	 * MySQL支持多行values，预备语句占位最多65535个
+	 */
 	@Override
-	public String genInsertSQL(String table, JSONArray jaFields)  {
-		String[] vh = new String[jaFields.length()];
-		Arrays.fill(vh, "?");
-		try {
-			return new StringBuffer("inser into `").append(table).append("` (`")
-					.append(jaFields.join("`, `")).append("`) values (")
-					.append(StringUtils.join(vh, ", ")).append(")").toString();
-		} catch (JSONException e) {
-			throw new RuntimeException(e);
+	public int getMaxInsertRows(int numColumns) {
+		return 65535 / Math.max(numColumns, 1);
+	}
+	@Override
+	public String genInsertSQL(String table, String[] columns, int rows) {
+		StringBuffer sbSQL = new StringBuffer("insert into `")
+				.append(table)
+				.append("` (`")
+				.append(StringUtils.join(columns, "`, `"))
+				.append("`) values ");
+		appendRowValueHolders(sbSQL, columns.length, rows);
+		return sbSQL.toString();
+	}
+	/**
+	 * 多行insert ... on duplicate key update，行数限制与多行插入相同
+	 */
+	@Override
+	public int getMaxUpsertRows(int numColumns) {
+		return getMaxInsertRows(numColumns);
+	}
+	/**
+	 * insert into `foo` (`a`, `b`) values (?, ?), (?, ?) on duplicate key update `b` = values(`b`)，
+	 * 按表的主键、唯一索引匹配，keyColumns只用于排除更新列；
+	 * 只有键列时更新为自身，避免插入重复键报错
+	 */
+	@Override
+	public String genUpsertSQL(String table, String[] columns, String[] keyColumns, int rows) {
+		StringBuffer sbSQL = new StringBuffer(genInsertSQL(table, columns, rows))
+			.append(" on duplicate key update ");
+		boolean first = true;
+		for (String column : columns) {
+			if (indexOfIgnoreCase(keyColumns, column) < 0) {
+				if (!first) {
+					sbSQL.append(", ");
+				}
+				sbSQL.append("`").append(column).append("` = values(`").append(column).append("`)");
+				first = false;
+			}
+		}
+		if (first) {
+			sbSQL.append("`").append(keyColumns[0]).append("` = `").append(keyColumns[0]).append("`");
 		}
+		return sbSQL.toString();
 	}
 	@Override
 	public String genUpdateSetSQL(String table, JSONObject joModel, List<Object> values) {
@@ -86,4 +151,22 @@ public class MySQLTrait extends IDbTrait {
 		sbSQL.setLength(sbSQL.length() - 5); // 去掉and
 		return sbSQL.toString();
 	}
+	@Override
+	protected String quoteColumn(String column) {
+		return "`" + column + "`";
+	}
+	@Override
+	protected String genSeekSQL(String strSQL, String where, String orderBy, int limit) {
+		StringBuffer sbSQL = new StringBuffer("select * from (")
+			.append(strSQL)
+			.append(") seek__");
+		if (where != null) {
+			sbSQL.append(" where ").append(where);
+		}
+		sbSQL.append(" order by ").append(orderBy);
+		if (limit > 0) {
+			sbSQL.append(" limit ").append(limit);
+		}
+		return sbSQL.toString();
+	}
 }
@@ -1,10 +1,12 @@
 package com.shs.framework.dao.traits;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -60,6 +62,7 @@ public class OracleTrait extends IDbTrait {
 			.append(" >= ? "); 
 		if (limit > 0) {
 			sbSQL.append(" AND ")
+			.append(COLUMN_ROW_NUMBER)
 			.append(" <= ? ");
 			values = ArrayUtils.addAll(values, new Object[]{start, start + limit});
 		} else {
@@ -68,6 +71,30 @@ public class OracleTrait extends IDbTrait {
 		return new QueryStatement(sbSQL.toString(), values);
 	}
 
+	/**
+	 * Oracle驱动不支持ParameterMetaData.getParameterType
+	 */
+	@Override
+	public boolean supportsParameterMetaData() {
+		return false;
+	}
+	/**
+	 * RETURN_GENERATED_KEYS返回ROWID，需要指定键列，驱动改写为RETURNING ... INTO，
+	 * 列名与插入语句相同转为大写
+	 */
+	@Override
+	public PreparedStatement prepareReturningKeys(Connection dbConnection, 
+			String insertSQL, String[] keyColumns) throws SQLException {
+		if (keyColumns == null || keyColumns.length == 0) {
+			throw new IllegalArgumentException("Oracle Generated Keys Require Key Columns");
+		}
+		String[] columns = new String[keyColumns.length];
+		for (int i = 0; i < columns.length; ++i) {
+			columns[i] = keyColumns[i].toUpperCase();
+		}
+		return dbConnection.prepareStatement(insertSQL, columns);
+	}
+
 	@Override
 	public String genInsertSQL(String table, JSONObject joModel, List<Object> values)  {
 		// 获得对象属性名称
@@ -90,17 +117,58 @@ public class OracleTrait extends IDbTrait {
 				.append(StringUtils.join(vh, ", "))
 				.append(")").toString();
 	}
+	/**
+	 * Oracle使用INSERT ALL多行插入，行数过多时解析开销大，限制为100行
+	 */
+	@Override
+	public int getMaxInsertRows(int numColumns) {
+		return Math.min(100, 65535 / Math.max(numColumns, 1));
+	}
+	/**
+	 * INSERT ALL INTO "FOO" ("A", "B") VALUES (?, ?) INTO "FOO" ("A", "B") VALUES (?, ?) SELECT 1 FROM DUAL
+	 */
 	@Override
-	public String genInsertSQL(String table, JSONArray jaFields)  {
-		String[] vh = new String[jaFields.length()];
+	public String genInsertSQL(String table, String[] columns, int rows) {
+		String[] vh = new String[columns.length];
 		Arrays.fill(vh, "?");
-		try {
-			return new StringBuffer("INSER INTO \"").append(table.toUpperCase()).append("\" (\"")
-					.append(jaFields.join("\", \"")).append("\") VALUES (")
-					.append(StringUtils.join(vh, ", ")).append(")").toString();
-		} catch (JSONException e) {
-			throw new RuntimeException(e);
+		String into = new StringBuffer(" INTO \"")
+				.append(table.toUpperCase())
+				.append("\" (\"")
+				.append(StringUtils.join(columns, "\", \"").toUpperCase())
+				.append("\") VALUES (")
+				.append(StringUtils.join(vh, ", "))
+				.append(")").toString();
+		if (rows == 1) {
+			return "INSERT" + into;
+		}
+		StringBuffer sbSQL = new StringBuffer("INSERT ALL");
+		for (int i = 0; i < rows; ++i) {
+			sbSQL.append(into);
 		}
+		return sbSQL.append(" SELECT 1 FROM DUAL").toString();
+	}
+	/**
+	 * Oracle不支持values表构造，MERGE数据源：
+	 * (SELECT ? "A", ? "B" FROM DUAL UNION ALL SELECT ? "A", ? "B" FROM DUAL) src__
+	 */
+	@Override
+	protected String genUpsertSource(String[] quotedColumns, int rows) {
+		StringBuffer sbRow = new StringBuffer("SELECT ");
+		for (int i = 0; i < quotedColumns.length; ++i) {
+			if (i > 0) {
+				sbRow.append(", ");
+			}
+			sbRow.append("? ").append(quotedColumns[i]);
+		}
+		String row = sbRow.append(" FROM DUAL").toString();
+		StringBuffer sbSQL = new StringBuffer("(");
+		for (int i = 0; i < rows; ++i) {
+			if (i > 0) {
+				sbSQL.append(" UNION ALL ");
+			}
+			sbSQL.append(row);
+		}
+		return sbSQL.append(") src__").toString();
 	}
 	@Override
 	public String genUpdateSetSQL(String table, JSONObject joModel, List<Object> values) {
@@ -138,4 +206,26 @@ public class OracleTrait extends IDbTrait {
 		sbSQL.setLength(sbSQL.length() - 5); // 去掉and
 		return sbSQL.toString();
 	}
+	@Override
+	protected String quoteColumn(String column) {
+		return "\"" + column.toUpperCase() + "\"";
+	}
+	/**
+	 * SELECT * FROM (SELECT * FROM (...) SEEK__ WHERE ... ORDER BY ...) WHERE ROWNUM <= 50
+	 */
+	@Override
+	protected String genSeekSQL(String strSQL, String where, String orderBy, int limit) {
+		StringBuffer sbSQL = new StringBuffer("SELECT * FROM (")
+			.append(strSQL)
+			.append(") SEEK__");
+		if (where != null) {
+			sbSQL.append(" WHERE ").append(where);
+		}
+		sbSQL.append(" ORDER BY ").append(orderBy);
+		if (limit > 0) {
+			sbSQL.insert(0, "SELECT * FROM (")
+				.append(") WHERE ROWNUM <= ").append(limit);
+		}
+		return sbSQL.toString();
+	}
 }
@@ -1,9 +1,12 @@
 package com.shs.framework.dao.traits;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -71,17 +74,46 @@ public class SQLServerTrait extends IDbTrait {
 				.append(StringUtils.join(vh, ", "))
 				.append(")").toString();
 	}
+	/**
+	 * 驱动只支持返回标识列（SCOPE_IDENTITY），忽略键列名，
+	 * 批量执行、多行插入只返回最后一个值，逐行执行
+	 */
 	@Override
-	public String genInsertSQL(String table, JSONArray jaFields)  {
-		String[] vh = new String[jaFields.length()];
-		Arrays.fill(vh, "?");
-		try {
-			return new StringBuffer("inser into [").append(table).append("] ([")
-					.append(jaFields.join("], [")).append("]) values (")
-					.append(StringUtils.join(vh, ", ")).append(")").toString();
-		} catch (JSONException e) {
-			throw new RuntimeException(e);
-		}
+	public PreparedStatement prepareReturningKeys(Connection dbConnection, 
+			String insertSQL, String[] keyColumns) throws SQLException {
+		return dbConnection.prepareStatement(insertSQL, Statement.RETURN_GENERATED_KEYS);
+	}
+	/**
+	 * SQLServer多行values最多1000行，每条语句参数最多2100个
+	 */
+	@Override
+	public int getMaxInsertRows(int numColumns) {
+		return Math.min(1000, 2099 / Math.max(numColumns, 1));
+	}
+	@Override
+	public String genInsertSQL(String table, String[] columns, int rows) {
+		StringBuffer sbSQL = new StringBuffer("insert into [")
+				.append(table)
+				.append("] ([")
+				.append(StringUtils.join(columns, "], ["))
+				.append("]) values ");
+		appendRowValueHolders(sbSQL, columns.length, rows);
+		return sbSQL.toString();
+	}
+	/**
+	 * SQLServer的MERGE语句需要以分号结束
+	 */
+	@Override
+	public String genUpsertSQL(String table, String[] columns, String[] keyColumns, int rows) {
+		return super.genUpsertSQL(table, columns, keyColumns, rows) + ";";
+	}
+	/**
+	 * SQLServer的MERGE默认不对未匹配的键加范围锁，并发插入同一键时可能违反唯一约束，
+	 * 目标表加holdlock提示，如：[foo] with (holdlock) t__
+	 */
+	@Override
+	protected String genUpsertTarget(String quotedTable) {
+		return quotedTable + " with (holdlock) t__";
 	}
 	@Override
 	public String genUpdateSetSQL(String table, JSONObject joModel, List<Object> values) {
@@ -118,4 +150,34 @@ public class SQLServerTrait extends IDbTrait {
 		sbSQL.setLength(sbSQL.length() - 5); // 去掉and
 		return sbSQL.toString();
 	}
+	@Override
+	protected String quoteColumn(String column) {
+		return "[" + column + "]";
+	}
+	/**
+	 * SQLServer没有mod函数，使用%
+	 */
+	@Override
+	public String genModPredicate(String column, int buckets, boolean includeNull) {
+		String col = quoteColumn(column);
+		String predicate = "abs(" + col + " % " + buckets + ") = ?";
+		return includeNull ? "(" + predicate + " or " + col + " is null)" : predicate;
+	}
+	/**
+	 * select top 50 * from (...) seek__ where ... order by ...
+	 */
+	@Override
+	protected String genSeekSQL(String strSQL, String where, String orderBy, int limit) {
+		StringBuffer sbSQL = new StringBuffer("select ");
+		if (limit > 0) {
+			sbSQL.append("top ").append(limit).append(" ");
+		}
+		sbSQL.append("* from (")
+			.append(strSQL)
+			.append(") seek__");
+		if (where != null) {
+			sbSQL.append(" where ").append(where);
+		}
+		return sbSQL.append(" order by ").append(orderBy).toString();
+	}
 }
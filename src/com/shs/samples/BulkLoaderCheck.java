@@ -0,0 +1,127 @@
+package com.shs.samples;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.shs.framework.dao.BaseDAO;
+import com.shs.framework.dao.BulkLoader;
+import com.shs.framework.dao.ConnectionManager;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 批量导入检查，使用H2内存库，检查CSV引号、转义引号、字段内换行、BOM、类型转换、NDJSON，
+ * 	以及按commitRows提交时失败只回滚未提交的部分。
+ * 	运行时classpath需要包含h2（com.h2database:h2），检查失败抛出IllegalStateException
+ * @date created: Oct 18, 2026 11:36:05 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class BulkLoaderCheck {
+	private static final String TABLE = "bulk_users";
+
+	public static void main(String[] args) throws Exception {
+		ConnectionManager.setDialect("mysql");
+		ConnectionManager.setPrimaryDataSource(dataSource("bulk_check"));
+		try {
+			checkCSV();
+			checkNDJSON();
+			checkRollback();
+			System.out.println("Bulk Loader Check Passed");
+		} finally {
+			ConnectionManager.shutdownPool();
+		}
+	}
+	/**
+	 * 引号、转义引号、字段内换行、BOM、空串为null
+	 */
+	private static void checkCSV() throws Exception {
+		reset();
+		String csv = "\uFEFFuser_id,user_name,note,score\r\n" +
+			"1,\"Doe, John\",\"say \"\"hi\"\"\",1.5\r\n" +
+			"2,Jane,\"line1\r\nline2\",\r\n" +
+			"3,,plain,2\n";
+		BulkLoader.Result result = new BulkLoader(TABLE)
+			.mapField("user_id", "id")
+			.mapField("user_name", "name")
+			.mapField("note", "note")
+			.mapField("score", "score")
+			.loadCSV(new ByteArrayInputStream(csv.getBytes("utf-8")));
+		check(result.getRows() == 3 && result.getCommittedRows() == 3,
+			"CSV Should Load 3 Rows, Got " + result);
+		List<Map<String, Object>> rows =
+			BaseDAO.findMapList(true, "select id, name, note, score from " + TABLE + " order by id");
+		check("Doe, John".equals(rows.get(0).get("name")), "Quoted Delimiter, Got " + rows.get(0));
+		check("say \"hi\"".equals(rows.get(0).get("note")), "Escaped Quote, Got " + rows.get(0));
+		check(new BigDecimal("1.5").compareTo((BigDecimal) rows.get(0).get("score")) == 0,
+			"Decimal Conversion, Got " + rows.get(0));
+		check("line1\r\nline2".equals(rows.get(1).get("note")), "Embedded Newline, Got " + rows.get(1));
+		check(rows.get(1).get("score") == null, "Empty As Null, Got " + rows.get(1));
+		check(rows.get(2).get("name") == null && "plain".equals(rows.get(2).get("note")),
+			"Empty Field, Got " + rows.get(2));
+	}
+	private static void checkNDJSON() throws Exception {
+		reset();
+		String ndjson = "{\"id\": 1, \"name\": \"Doe\\nJohn\", \"score\": 3}\n" +
+			"\n" +
+			"{\"id\": 2, \"name\": \"Jane\", \"ignored\": true}\n";
+		BulkLoader.Result result = new BulkLoader(TABLE)
+			.setFields("id", "name", "score")
+			.loadNDJSON(new StringReader(ndjson));
+		check(result.getRows() == 2, "NDJSON Should Load 2 Rows, Got " + result);
+		check("Doe\nJohn".equals(BaseDAO.findStr("select name from " + TABLE + " where id = 1")),
+			"NDJSON Escaped Newline");
+	}
+	/**
+	 * 每2行提交，第4行转换失败，前2行已提交，第3行回滚
+	 */
+	private static void checkRollback() throws Exception {
+		reset();
+		String csv = "id,name\n1,a\n2,b\n3,c\nfour,d\n5,e\n";
+		try {
+			new BulkLoader(TABLE)
+				.setBatchSize(2)
+				.setCommitRows(2)
+				.loadCSV(new StringReader(csv));
+			throw new IllegalStateException("Invalid Number Should Fail");
+		} catch (RuntimeException e) {
+			if (e instanceof IllegalStateException) {
+				throw e;
+			}
+			check(e.getMessage().contains("Line [5]") && e.getMessage().contains("Committed Rows [2]"),
+				"Failure Should Report Line And Committed Rows, Got " + e.getMessage());
+		}
+		Number count = BaseDAO.findObj("select count(1) from " + TABLE);
+		check(count.intValue() == 2, "Committed Rows Should Remain, Got " + count);
+		check(ConnectionManager.getPool().getActiveCount() == 0, "Connection Should Be Returned");
+	}
+	private static void reset() {
+		BaseDAO.execute("drop table if exists " + TABLE);
+		BaseDAO.execute("create table " + TABLE +
+			" (id int primary key, name varchar(36), note varchar(128), score decimal(10, 2))");
+	}
+	private static void check(boolean passed, String message) {
+		if (!passed) {
+			throw new IllegalStateException(message);
+		}
+	}
+	/**
+	 * 创建H2内存库数据源，通过反射加载H2，编译时不依赖H2
+	 * @param name
+	 * @return
+	 * @throws Exception
+	 */
+	static DataSource dataSource(String name) throws Exception {
+		DataSource ds = (DataSource) Class.forName("org.h2.jdbcx.JdbcDataSource").getConstructor().newInstance();
+		ds.getClass().getMethod("setURL", String.class).invoke(ds,
+			"jdbc:h2:mem:" + name + ";MODE=MySQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1");
+		return ds;
+	}
+}
@@ -0,0 +1,125 @@
+package com.shs.samples;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.shs.framework.dao.AsyncDAO;
+import com.shs.framework.dao.BaseDAO;
+import com.shs.framework.dao.BaseDAO.ConnectionOperator;
+import com.shs.framework.dao.ConnectionManager;
+
+/**
+ * @version 0.1
+ * @author chyxion
+ * @describe: 读写分离路由检查，使用H2内存库作为主库以及两个只读副本，每个库的node表记录库名，
+ * 	检查副本轮询、写入后读己之写窗口、事务内读取主库、AsyncDAO沿用调用线程的读己之写窗口，
+ * 	以及窗口结束后恢复读取副本。
+ * 	运行时classpath需要包含h2（com.h2database:h2），检查失败抛出IllegalStateException
+ * @date created: Oct 18, 2026 11:12:40 PM
+ * @support: chyxion@163.com
+ * @date modified:
+ * @modified by:
+ * @copyright: Shenghang Soft All Right Reserved.
+ */
+public class ReplicaRoutingCheck {
+	private static final String SQL_NODE = "select name from node";
+
+	public static void main(String[] args) throws Exception {
+		ConnectionManager.setDialect("mysql");
+		ConnectionManager.READ_YOUR_WRITES_MILLIS = 500;
+		ConnectionManager.setPrimaryDataSource(dataSource("primary"));
+		ConnectionManager.setReplicas(dataSource("replica1"), dataSource("replica2"));
+		try {
+			// 副本轮询
+			HashSet<String> nodes = new HashSet<String>();
+			for (int i = 0; i < 4; ++i) {
+				nodes.add(BaseDAO.findStr(SQL_NODE));
+			}
+			check(nodes.size() == 2 && !nodes.contains("primary"),
+				"Replica Reads Should Round Robin, Got " + nodes);
+			// 写入后读取主库
+			BaseDAO.update("update node set hits = hits + 1");
+			check("primary".equals(BaseDAO.findStr(SQL_NODE)),
+				"Read After Write Should Use Primary");
+			// 异步读取沿用调用线程的读己之写窗口
+			check("primary".equals(AsyncDAO.findStr(SQL_NODE).get()),
+				"Async Read After Write Should Use Primary");
+			waitWindow();
+			check(!"primary".equals(AsyncDAO.findStr(SQL_NODE).get()),
+				"Async Read After Window Should Use Replica");
+			// 事务内读取主库
+			String txNode = BaseDAO.executeTransaction(new ConnectionOperator() {
+				@Override
+				protected void run() throws Exception {
+					result = findStr(SQL_NODE);
+				}
+			});
+			check("primary".equals(txNode), "Read In Transaction Should Use Primary");
+			// 事务结束后调用线程处于读己之写窗口
+			check("primary".equals(BaseDAO.findStr(SQL_NODE)),
+				"Read After Transaction Should Use Primary");
+			waitWindow();
+			// 异步写入标记调用线程
+			AsyncDAO.update("update node set hits = hits + 1").get();
+			check(ConnectionManager.isInReadYourWritesWindow(),
+				"Async Write Should Mark Caller");
+			check("primary".equals(BaseDAO.findStr(SQL_NODE)),
+				"Read After Async Write Should Use Primary");
+			// 其他线程不受影响
+			final List<String> other = new ArrayList<String>();
+			Thread t = new Thread() {
+				@Override
+				public void run() {
+					other.add(BaseDAO.findStr(SQL_NODE));
+				}
+			};
+			t.start();
+			t.join();
+			check(!"primary".equals(other.get(0)), "Other Thread Should Use Replica");
+			// 窗口结束后读取副本
+			waitWindow();
+			check(!"primary".equals(BaseDAO.findStr(SQL_NODE)),
+				"Read After Window Should Use Replica");
+			System.out.println("Replica Routing Check Passed");
+		} finally {
+			AsyncDAO.shutdown();
+			ConnectionManager.clearReplicas();
+			ConnectionManager.shutdownPool();
+		}
+	}
+	private static void waitWindow() throws InterruptedException {
+		Thread.sleep(ConnectionManager.READ_YOUR_WRITES_MILLIS + 100);
+	}
+	private static void check(boolean passed, String message) {
+		if (!passed) {
+			throw new IllegalStateException(message);
+		}
+	}
+	/**
+	 * 创建H2内存库数据源，node表记录库名，通过反射加载H2，编译时不依赖H2
+	 * @param name
+	 * @return
+	 * @throws Exception
+	 */
+	static DataSource dataSource(String name) throws Exception {
+		DataSource ds = (DataSource) Class.forName("org.h2.jdbcx.JdbcDataSource").getConstructor().newInstance();
+		ds.getClass().getMethod("setURL", String.class).invoke(ds,
+			"jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		Connection dbConnection = ds.getConnection();
+		try {
+			Statement stmt = dbConnection.createStatement();
+			stmt.execute("drop table if exists node");
+			stmt.execute("create table node (name varchar(36), hits int)");
+			stmt.execute("insert into node values ('" + name + "', 0)");
+			stmt.close();
+		} finally {
+			dbConnection.close();
+		}
+		return ds;
+	}
+}